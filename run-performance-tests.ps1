@@ -35,6 +35,18 @@ switch ($testType) {
         Write-Host "运行压力测试..." -ForegroundColor Green
         mvn test -Dtest=StressTest
     }
+    "journal" {
+        Write-Host "运行状态日志恢复基准..." -ForegroundColor Green
+        mvn test -Dtest=JournalRecoveryBenchmark
+    }
+    "jmh" {
+        Write-Host "运行JMH基准..." -ForegroundColor Green
+        if ($args[1]) {
+            mvn -Pbenchmark test-compile exec:exec "-Djmh.args=$($args[1])"
+        } else {
+            mvn -Pbenchmark test-compile exec:exec
+        }
+    }
     "test" {
         if ($args[1]) {
             Write-Host "运行特定测试: $($args[1])" -ForegroundColor Green
@@ -45,7 +45,19 @@ if [ "$1" == "stress" ]; then
     mvn test -Dtest=StressTest
 fi
 
-# 选项5: 运行特定测试
+# 选项5: 运行状态日志恢复基准
+if [ "$1" == "journal" ]; then
+    echo "运行状态日志恢复基准..."
+    mvn test -Dtest=JournalRecoveryBenchmark
+fi
+
+# 选项6: 运行JMH基准（默认附带GC/分配profiler）
+if [ "$1" == "jmh" ]; then
+    echo "运行JMH基准..."
+    mvn -Pbenchmark test-compile exec:exec ${2:+-Djmh.args="$2"}
+fi
+
+# 选项7: 运行特定测试
 if [ "$1" == "test" ] && [ -n "$2" ]; then
     echo "运行特定测试: $2"
     mvn test -Dtest="$2"
@@ -0,0 +1,64 @@
+package com.scheduler.benchmark;
+
+import com.scheduler.action.ActionParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.action.JobGraph;
+import com.scheduler.action.PlanCache;
+import com.scheduler.config.RunProperties;
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActionParser基准
+ * 按工作流规模测量Runner需求解析和依赖图构建的耗时，以及命中解析结果缓存时的耗时（结构摘要计算）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionParserBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    int jobs;
+
+    private final ActionParser actionParser = new ActionParser();
+    private final PlanCache planCache =
+        new PlanCache(new RunProperties(), new ObjectMapper(), new SimpleMeterRegistry());
+    private ActionRequest request;
+
+    @Setup
+    public void setUp() {
+        request = Workflows.tree(jobs, 5);
+    }
+
+    @Benchmark
+    public List<ActionParser.RunnerRequirement> parseRunnerRequirements() {
+        return actionParser.parseRunnerRequirements(request);
+    }
+
+    @Benchmark
+    public JobGraph parseJobGraph() {
+        return actionParser.parseJobGraph(request);
+    }
+
+    @Benchmark
+    public JobGraph cachedJobGraph() {
+        return planCache.get(request, actionParser::parseJobGraph);
+    }
+}
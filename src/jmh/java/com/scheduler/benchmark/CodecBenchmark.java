@@ -0,0 +1,118 @@
+package com.scheduler.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunResponse;
+import com.scheduler.model.RunnerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求/响应编码格式基准
+ * 对比JSON、CBOR和Smile编解码典型（10个Job）和大型（1000个Job）的ActionRequest与RunResponse的耗时，
+ * 各格式的负载大小在Setup时输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"10", "1000"})
+    int jobs;
+
+    private ObjectMapper mapper;
+    private ActionRequest request;
+    private RunResponse response;
+    private byte[] requestBytes;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        // 与应用一致：JSON使用Spring Boot的日期格式，二进制格式复制同一份配置
+        ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+        request = Workflows.tree(jobs, 5);
+        response = run(jobs, 5);
+        requestBytes = mapper.writeValueAsBytes(request);
+        responseBytes = mapper.writeValueAsBytes(response);
+        System.out.printf("%n%s, %d jobs: ActionRequest %d bytes, RunResponse %d bytes%n",
+            format, jobs, requestBytes.length, responseBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeRequest() throws IOException {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public ActionRequest decodeRequest() throws IOException {
+        return mapper.readValue(requestBytes, ActionRequest.class);
+    }
+
+    @Benchmark
+    public byte[] encodeResponse() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public RunResponse decodeResponse() throws IOException {
+        return mapper.readValue(responseBytes, RunResponse.class);
+    }
+
+    /**
+     * 已完成的Run，每个Job一个执行完各Step的Runner
+     */
+    private static RunResponse run(int jobs, int stepsPerJob) {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<RunnerInfo> runners = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) {
+            List<RunnerInfo.StepState> steps = new ArrayList<>(stepsPerJob);
+            for (int s = 0; s < stepsPerJob; s++) {
+                steps.add(new RunnerInfo.StepState(s, RunnerInfo.StepStatus.COMPLETED,
+                    start.plusSeconds(s), start.plusSeconds(s + 1)));
+            }
+            runners.add(new RunnerInfo("runner-" + String.format("%08x", i), RunnerInfo.RunnerStatus.RELEASED,
+                start, start.plusSeconds(1), start.plusSeconds(stepsPerJob + 1),
+                i % 3 == 0 ? "ubuntu-latest" : i % 3 == 1 ? "windows-latest" : "macos-latest", steps));
+        }
+        RunResponse response = new RunResponse();
+        response.setRunId("run-12345678");
+        response.setStatus(RunResponse.RunStatus.SUCCESS);
+        response.setStartTime(start);
+        response.setEndTime(start.plusMinutes(5));
+        response.setRunners(runners);
+        response.setMessage("Scheduled " + jobs + " jobs");
+        return response;
+    }
+}
@@ -0,0 +1,96 @@
+package com.scheduler.benchmark;
+
+import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RunnerService状态存储基准
+ * 多个线程并发读取Runner状态，同时其他线程不断申请并释放Runner，测量竞争下的读写吞吐
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunnerServiceBenchmark {
+
+    /**
+     * 预先申请的常驻Runner数量
+     */
+    private static final int RESIDENT = 10_000;
+
+    private Services services;
+    private String[] runnerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        services = new Services();
+        runnerIds = new String[RESIDENT];
+        for (int i = 0; i < RESIDENT; i++) {
+            runnerIds[i] = services.runnerService
+                .allocateRunner(new RunnerAllocateRequest(label(i), "benchmark"))
+                .block()
+                .getRunnerId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        services.close();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(6)
+    public RunnerInfo getRunnerStatus() {
+        return services.runnerService
+            .getRunnerStatus(runnerIds[ThreadLocalRandom.current().nextInt(RESIDENT)])
+            .block();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void allocateAndRelease() {
+        String runnerId = services.runnerService
+            .allocateRunner(new RunnerAllocateRequest(label(ThreadLocalRandom.current().nextInt(3)), "benchmark"))
+            .block()
+            .getRunnerId();
+        services.runnerService.releaseRunner(runnerId).block();
+    }
+
+    @Benchmark
+    @Group("findRunner")
+    @GroupThreads(8)
+    public RunnerInfo findRunner() {
+        return services.runnerService
+            .findRunner(label(ThreadLocalRandom.current().nextInt(3)), RunnerInfo.RunnerStatus.ALLOCATED)
+            .block();
+    }
+
+    private static String label(int i) {
+        return switch (i % 3) {
+            case 0 -> "ubuntu-latest";
+            case 1 -> "windows-latest";
+            default -> "macos-latest";
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.scheduler.benchmark;
+
+import com.scheduler.model.RunnerInfo;
+import com.scheduler.runner.RunnerState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runner状态表示基准
+ * 对比可变的{@link RunnerInfo}（LocalDateTime时间、加锁调用setter）与不可变的{@link RunnerState}
+ * （纪元纳秒时间、比较并替换）：
+ * footprint*测量单个完整执行过的Runner的分配字节数（见gc.alloc.rate.norm），
+ * lifecycle*测量多线程并发推进Runner生命周期（ALLOCATED→CONNECTED→RUNNING→COMPLETED→RELEASED）的吞吐
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RunnerStateBenchmark {
+
+    /**
+     * 并发推进生命周期的Runner数量
+     */
+    private static final int RUNNERS = 1024;
+
+    @Param({"3", "20"})
+    int steps;
+
+    private RunnerInfo[] infos;
+    private AtomicReferenceArray<RunnerState> states;
+
+    @Setup
+    public void setUp() {
+        infos = new RunnerInfo[RUNNERS];
+        states = new AtomicReferenceArray<>(RUNNERS);
+        for (int i = 0; i < RUNNERS; i++) {
+            infos[i] = new RunnerInfo("runner-" + i, RunnerInfo.RunnerStatus.ALLOCATED, LocalDateTime.now(),
+                null, null, "ubuntu-latest", null);
+            states.set(i, RunnerState.allocated("runner-" + i, "ubuntu-latest", RunnerState.now()));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public RunnerInfo footprintInfo() {
+        RunnerInfo runner = new RunnerInfo("runner-0", RunnerInfo.RunnerStatus.ALLOCATED, LocalDateTime.now(),
+            null, null, "ubuntu-latest", null);
+        runner.setConnectedAt(LocalDateTime.now());
+        List<RunnerInfo.StepState> stepStates = new ArrayList<>(steps);
+        for (int i = 0; i < steps; i++) {
+            stepStates.add(new RunnerInfo.StepState(i, RunnerInfo.StepStatus.COMPLETED, LocalDateTime.now(),
+                LocalDateTime.now()));
+        }
+        runner.setSteps(stepStates);
+        runner.setCompletedAt(LocalDateTime.now());
+        return runner;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public RunnerState footprintState() {
+        // 同一状态的全部Step一次写入，只计最终记录的大小，不计过程中的中间记录
+        byte[] stepStatuses = new byte[steps];
+        long[] stepTimes = new long[steps * 2];
+        for (int i = 0; i < steps; i++) {
+            stepStatuses[i] = (byte) RunnerInfo.StepStatus.COMPLETED.ordinal();
+            stepTimes[i * 2] = RunnerState.now();
+            stepTimes[i * 2 + 1] = RunnerState.now();
+        }
+        return new RunnerState("runner-0", "ubuntu-latest", RunnerInfo.RunnerStatus.COMPLETED, RunnerState.now(),
+            RunnerState.now(), RunnerState.now(), stepStatuses, stepTimes);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RunnerInfo.RunnerStatus lifecycleInfo() {
+        RunnerInfo runner = infos[ThreadLocalRandom.current().nextInt(RUNNERS)];
+        synchronized (runner) {
+            RunnerInfo.RunnerStatus next = nextStatus(runner.getStatus());
+            switch (next) {
+                case CONNECTED -> runner.setConnectedAt(LocalDateTime.now());
+                case RUNNING -> {
+                    List<RunnerInfo.StepState> stepStates = new ArrayList<>(steps);
+                    for (int i = 0; i < steps; i++) {
+                        stepStates.add(new RunnerInfo.StepState(i, RunnerInfo.StepStatus.PENDING, null, null));
+                    }
+                    runner.setSteps(stepStates);
+                }
+                case COMPLETED -> runner.setCompletedAt(LocalDateTime.now());
+                default -> {
+                }
+            }
+            runner.setStatus(next);
+            return next;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RunnerState lifecycleState() {
+        int i = ThreadLocalRandom.current().nextInt(RUNNERS);
+        while (true) {
+            RunnerState current = states.get(i);
+            RunnerInfo.RunnerStatus next = nextStatus(current.status());
+            RunnerState updated = switch (next) {
+                case RUNNING -> current.start(steps);
+                case ALLOCATED -> RunnerState.allocated(current.runnerId(), current.runsOn(), RunnerState.now());
+                default -> current.moveTo(next, RunnerState.now());
+            };
+            if (states.compareAndSet(i, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * 生命周期中的下一个状态，释放后重新分配以便持续推进
+     */
+    private static RunnerInfo.RunnerStatus nextStatus(RunnerInfo.RunnerStatus status) {
+        return switch (status) {
+            case ALLOCATED -> RunnerInfo.RunnerStatus.CONNECTED;
+            case CONNECTED -> RunnerInfo.RunnerStatus.RUNNING;
+            case RUNNING -> RunnerInfo.RunnerStatus.COMPLETED;
+            case COMPLETED -> RunnerInfo.RunnerStatus.RELEASED;
+            default -> RunnerInfo.RunnerStatus.ALLOCATED;
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.scheduler.benchmark;
+
+import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端调度基准
+ * 去除模拟延迟后测量parseAndSchedule（解析、准入、申请、连接、执行）自身的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulingBenchmark {
+
+    @Param({"1", "10", "50"})
+    int jobs;
+
+    private Services services;
+    private ActionRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        services = new Services();
+        request = Workflows.tree(jobs, 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        services.close();
+    }
+
+    @Benchmark
+    public RunResponse parseAndSchedule() {
+        return services.actionSchedulerService.parseAndSchedule(request).block();
+    }
+}
@@ -0,0 +1,95 @@
+package com.scheduler.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.PlanCache;
+import com.scheduler.config.AdmissionProperties;
+import com.scheduler.config.ExecutionProperties;
+import com.scheduler.config.ExecutionSchedulers;
+import com.scheduler.config.FairShareProperties;
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.LogProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.config.RunProperties;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.metrics.PhaseMetrics;
+import com.scheduler.repository.LogStore;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import com.scheduler.runner.RunnerPool;
+import com.scheduler.runner.RunnerService;
+import com.scheduler.service.ActionSchedulerService;
+import com.scheduler.service.AdmissionController;
+import com.scheduler.service.ConcurrencyGroups;
+import com.scheduler.service.FairShareDispatcher;
+import com.scheduler.service.PriorityClassifier;
+import com.scheduler.service.RunRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基准测试使用的服务组装
+ * 与应用使用相同的组件，但去除模拟延迟和批量申请的等待窗口、关闭预热池，并缩短终态条目的保留时间
+ */
+final class Services implements AutoCloseable {
+
+    final RunnerService runnerService;
+    final ActionSchedulerService actionSchedulerService;
+
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutionSchedulers executionSchedulers;
+    private final StateStores stateStores;
+
+    Services() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        RunnerProperties runnerProperties = new RunnerProperties();
+        runnerProperties.getPool().setEnabled(false);
+        runnerProperties.getSimulation().setAllocateDelay(Duration.ZERO);
+        runnerProperties.getSimulation().setConnectDelay(Duration.ZERO);
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ZERO);
+        // 每批一个请求，批量申请不再等待时间窗口
+        runnerProperties.getBatch().setMaxSize(1);
+
+        StoreProperties storeProperties = new StoreProperties();
+        storeProperties.setSweepInterval(Duration.ofSeconds(1));
+        storeProperties.getRunners().setTtl(Duration.ofSeconds(1));
+        storeProperties.getRuns().setTtl(Duration.ofSeconds(1));
+
+        RunProperties runProperties = new RunProperties();
+        PriorityProperties priorityProperties = new PriorityProperties();
+        PhaseMetrics phaseMetrics = new PhaseMetrics(meterRegistry);
+        this.executionSchedulers = new ExecutionSchedulers(new ExecutionProperties(), executorService, meterRegistry);
+        this.stateStores = new StateStores(storeProperties,
+            new StateJournal(new JournalProperties(), meterRegistry), meterRegistry);
+        this.runnerService = new RunnerService(executionSchedulers, runnerProperties, stateStores, storeProperties,
+            phaseMetrics, meterRegistry);
+        this.actionSchedulerService = new ActionSchedulerService(
+            new ActionParser(),
+            runnerService,
+            new RunnerPool(runnerService, runnerProperties, meterRegistry),
+            runProperties,
+            runnerProperties,
+            new RunRegistry(stateStores, storeProperties, meterRegistry),
+            new AdmissionController(new AdmissionProperties(), priorityProperties, meterRegistry),
+            new FairShareDispatcher(new FairShareProperties(), priorityProperties, meterRegistry),
+            new ConcurrencyGroups(meterRegistry),
+            new PriorityClassifier(priorityProperties),
+            phaseMetrics,
+            new PlanCache(runProperties, new ObjectMapper(), meterRegistry),
+            new LogStore(new LogProperties(), meterRegistry),
+            meterRegistry);
+    }
+
+    @Override
+    public void close() {
+        stateStores.dispose();
+        executionSchedulers.dispose();
+        executorService.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.scheduler.benchmark;
+
+import com.scheduler.model.ActionRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的工作流
+ */
+final class Workflows {
+
+    private Workflows() {
+    }
+
+    /**
+     * 生成包含指定数量Job的工作流
+     * Job按二叉树依赖（job-i依赖job-(i-1)/2），每个Job包含若干步骤
+     */
+    static ActionRequest tree(int jobs, int stepsPerJob) {
+        Map<String, ActionRequest.Job> jobMap = new LinkedHashMap<>();
+        for (int i = 0; i < jobs; i++) {
+            ActionRequest.Job job = new ActionRequest.Job();
+            job.setRunsOn(i % 3 == 0 ? "ubuntu-latest" : i % 3 == 1 ? "windows-latest" : "macos-latest");
+            ActionRequest.Step[] steps = new ActionRequest.Step[stepsPerJob];
+            for (int s = 0; s < stepsPerJob; s++) {
+                ActionRequest.Step step = new ActionRequest.Step();
+                step.setName("step-" + s);
+                step.setRun("echo step " + s);
+                steps[s] = step;
+            }
+            job.setSteps(steps);
+            if (i > 0) {
+                job.setNeeds(List.of("job-" + (i - 1) / 2));
+            }
+            jobMap.put("job-" + i, job);
+        }
+
+        ActionRequest request = new ActionRequest();
+        request.setName("benchmark-" + jobs);
+        request.setJobs(jobMap);
+        return request;
+    }
+}
@@ -2,6 +2,7 @@ package com.scheduler;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * GitHub Action Scheduler Application
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @author scheduler
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SchedulerApplication {
 
     public static void main(String[] args) {
@@ -2,10 +2,14 @@ package com.scheduler.action;
 
 import com.scheduler.model.ActionRequest;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Action解析器
@@ -29,7 +33,10 @@ public class ActionParser {
                     requirements.add(new RunnerRequirement(
                         jobName,
                         job.getRunsOn(),
-                        job.getSteps() != null ? job.getSteps().length : 0
+                        job.getSteps() != null ? job.getSteps().length : 0,
+                        parseNeeds(request, jobName, job),
+                        job.getStrategy(),
+                        job.getConcurrency()
                     ));
                 }
             }
@@ -38,6 +45,96 @@ public class ActionParser {
         return requirements;
     }
     
+    /**
+     * 解析Action请求，构建Job依赖图
+     * 
+     * @throws IllegalArgumentException 依赖的Job不存在或存在循环依赖
+     */
+    public JobGraph parseJobGraph(ActionRequest request) {
+        return JobGraph.build(parseRunnerRequirements(request));
+    }
+    
+    /**
+     * 编译工作流计划
+     * Job名称、label、needs和action引用驻留后构建依赖图，Step只保留数量和引用的action
+     * 
+     * @throws IllegalArgumentException 依赖的Job不存在或存在循环依赖
+     */
+    public WorkflowPlan compile(ActionRequest request) {
+        List<RunnerRequirement> requirements = new ArrayList<>();
+        for (RunnerRequirement requirement : parseRunnerRequirements(request)) {
+            requirements.add(new RunnerRequirement(
+                requirement.getJobName().intern(),
+                requirement.getRunsOn().intern(),
+                requirement.getStepCount(),
+                requirement.getNeeds().stream().map(String::intern).toList(),
+                requirement.getStrategy(),
+                requirement.getConcurrency()
+            ));
+        }
+        
+        Set<String> actions = new LinkedHashSet<>();
+        if (request.getJobs() != null) {
+            for (ActionRequest.Job job : request.getJobs().values()) {
+                if (job == null || job.getSteps() == null) {
+                    continue;
+                }
+                for (ActionRequest.Step step : job.getSteps()) {
+                    if (step.getUses() != null) {
+                        actions.add(step.getUses().intern());
+                    }
+                }
+            }
+        }
+        
+        return new WorkflowPlan(request.getName(), JobGraph.build(requirements), request.getContext(),
+            new ArrayList<>(actions), request.getPriority(), request.getConcurrency());
+    }
+    
+    /**
+     * 按矩阵策略展开Runner需求
+     * 组合按需惰性生成，没有矩阵的Job只产生自身
+     */
+    public Flux<RunnerRequirement> expandMatrix(RunnerRequirement requirement) {
+        return MatrixExpander.expand(requirement);
+    }
+    
+    /**
+     * 解析Job的needs
+     * 依赖未声明的Job视为错误；依赖没有runs-on的Job（无需Runner）时，改为依赖它所依赖的Job，保持传递的先后顺序
+     */
+    private List<String> parseNeeds(ActionRequest request, String jobName, ActionRequest.Job job) {
+        if (job.getNeeds() == null || job.getNeeds().isEmpty()) {
+            return List.of();
+        }
+        Set<String> needs = new LinkedHashSet<>();
+        collectNeeds(request, jobName, job, needs, new HashSet<>());
+        return new ArrayList<>(needs);
+    }
+    
+    /**
+     * 收集Job需要等待的有runs-on的Job，穿过没有runs-on的Job
+     * 
+     * @param visited 已展开的没有runs-on的Job，避免它们之间的循环依赖导致无限递归
+     */
+    private void collectNeeds(ActionRequest request, String jobName, ActionRequest.Job job,
+                              Set<String> needs, Set<String> visited) {
+        if (job.getNeeds() == null) {
+            return;
+        }
+        for (String need : job.getNeeds()) {
+            ActionRequest.Job dependency = request.getJobs().get(need);
+            if (dependency == null) {
+                throw new IllegalArgumentException("Job '" + jobName + "' needs unknown job '" + need + "'");
+            }
+            if (dependency.getRunsOn() != null) {
+                needs.add(need);
+            } else if (visited.add(need)) {
+                collectNeeds(request, need, dependency, needs, visited);
+            }
+        }
+    }
+    
     /**
      * Runner需求模型
      */
@@ -45,11 +142,31 @@ public class ActionParser {
         private final String jobName;
         private final String runsOn;
         private final int stepCount;
+        private final List<String> needs;
+        private final ActionRequest.Strategy strategy;
+        private final ActionRequest.Concurrency concurrency;
         
         public RunnerRequirement(String jobName, String runsOn, int stepCount) {
+            this(jobName, runsOn, stepCount, List.of());
+        }
+        
+        public RunnerRequirement(String jobName, String runsOn, int stepCount, List<String> needs) {
+            this(jobName, runsOn, stepCount, needs, null);
+        }
+        
+        public RunnerRequirement(String jobName, String runsOn, int stepCount, List<String> needs,
+                                 ActionRequest.Strategy strategy) {
+            this(jobName, runsOn, stepCount, needs, strategy, null);
+        }
+        
+        public RunnerRequirement(String jobName, String runsOn, int stepCount, List<String> needs,
+                                 ActionRequest.Strategy strategy, ActionRequest.Concurrency concurrency) {
             this.jobName = jobName;
             this.runsOn = runsOn;
             this.stepCount = stepCount;
+            this.needs = needs;
+            this.strategy = strategy;
+            this.concurrency = concurrency;
         }
         
         public String getJobName() {
@@ -63,5 +180,23 @@ public class ActionParser {
         public int getStepCount() {
             return stepCount;
         }
+        
+        public List<String> getNeeds() {
+            return needs;
+        }
+        
+        /**
+         * 策略配置，已展开的矩阵组合为null
+         */
+        public ActionRequest.Strategy getStrategy() {
+            return strategy;
+        }
+        
+        /**
+         * Job级并发组，已展开的矩阵组合中组名的${{ matrix.xxx }}已替换
+         */
+        public ActionRequest.Concurrency getConcurrency() {
+            return concurrency;
+        }
     }
 }
@@ -0,0 +1,180 @@
+package com.scheduler.action;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Job依赖图（DAG）
+ * 由Job的needs构建，构建时校验依赖是否存在以及是否有环，
+ * 并为每个Job计算关键路径长度（自身及其后续最长依赖链的预估耗时）
+ */
+public class JobGraph {
+
+    private final Map<String, Node> nodes;
+    private final long maxJobCount;
+
+    private JobGraph(Map<String, Node> nodes) {
+        this.nodes = nodes;
+        long total = 0;
+        for (Node node : nodes.values()) {
+            total += Math.min(node.getMaxJobCount(), Long.MAX_VALUE - total);
+        }
+        this.maxJobCount = total;
+    }
+
+    /**
+     * 根据Runner需求构建依赖图
+     *
+     * @throws IllegalArgumentException 依赖的Job不存在或存在循环依赖
+     */
+    public static JobGraph build(List<ActionParser.RunnerRequirement> requirements) {
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (ActionParser.RunnerRequirement requirement : requirements) {
+            nodes.put(requirement.getJobName(), new Node(requirement));
+        }
+
+        for (Node node : nodes.values()) {
+            for (String need : node.requirement.getNeeds()) {
+                Node dependency = nodes.get(need);
+                if (dependency == null) {
+                    throw new IllegalArgumentException(
+                        "Job '" + node.getJobName() + "' needs unknown job '" + need + "'");
+                }
+                dependency.dependents.add(node);
+                node.dependencyCount++;
+            }
+        }
+
+        // Kahn拓扑排序，剩余未排序的节点即构成环
+        List<Node> order = new ArrayList<>(nodes.size());
+        Map<Node, Integer> remaining = new LinkedHashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            remaining.put(node, node.dependencyCount);
+            if (node.dependencyCount == 0) {
+                ready.add(node);
+            }
+        }
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            order.add(node);
+            for (Node dependent : node.dependents) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (order.size() < nodes.size()) {
+            String cycle = nodes.values().stream()
+                .filter(node -> remaining.get(node) > 0)
+                .map(Node::getJobName)
+                .collect(Collectors.joining(", "));
+            throw new IllegalArgumentException("Job dependency cycle detected among: " + cycle);
+        }
+
+        // 逆拓扑序计算关键路径长度
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            long longestTail = 0;
+            for (Node dependent : node.dependents) {
+                longestTail = Math.max(longestTail, dependent.criticalPath);
+            }
+            node.criticalPath = node.getEstimatedCost() + longestTail;
+        }
+
+        return new JobGraph(Collections.unmodifiableMap(nodes));
+    }
+
+    /**
+     * 所有节点（按声明顺序）
+     */
+    public Collection<Node> getNodes() {
+        return nodes.values();
+    }
+
+    /**
+     * 按Job名称获取节点
+     */
+    public Node getNode(String jobName) {
+        return nodes.get(jobName);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 矩阵展开后Job总数的上限，每个矩阵节点按{@link Node#getMaxJobCount()}计
+     */
+    public long getMaxJobCount() {
+        return maxJobCount;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * 依赖图节点
+     */
+    public static class Node {
+        private final ActionParser.RunnerRequirement requirement;
+        private final List<Node> dependents = new ArrayList<>();
+        private int dependencyCount;
+        private long criticalPath;
+
+        private Node(ActionParser.RunnerRequirement requirement) {
+            this.requirement = requirement;
+        }
+
+        public ActionParser.RunnerRequirement getRequirement() {
+            return requirement;
+        }
+
+        public String getJobName() {
+            return requirement.getJobName();
+        }
+
+        /**
+         * 依赖当前节点的后续节点
+         */
+        public List<Node> getDependents() {
+            return Collections.unmodifiableList(dependents);
+        }
+
+        /**
+         * 直接依赖的数量
+         */
+        public int getDependencyCount() {
+            return dependencyCount;
+        }
+
+        /**
+         * 预估耗时：一次Runner准备加上每个Step各一个单位
+         */
+        public long getEstimatedCost() {
+            return 1L + requirement.getStepCount();
+        }
+
+        /**
+         * 矩阵展开后的Job数上限，没有矩阵时为1
+         */
+        public long getMaxJobCount() {
+            return MatrixExpander.maxCombinations(requirement);
+        }
+
+        /**
+         * 关键路径长度：从当前节点开始到图末端的最长预估耗时
+         */
+        public long getCriticalPath() {
+            return criticalPath;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.scheduler.action;
+
+import com.scheduler.model.ActionRequest;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matrix展开器
+ * 以流的方式按需生成矩阵组合，组合只在下游请求时才计算，
+ * 因此几百个组合的矩阵不会在内存中一次性构建
+ */
+public final class MatrixExpander {
+
+    private static final Pattern MATRIX_EXPRESSION = Pattern.compile("\\$\\{\\{\\s*matrix\\.([\\w-]+)\\s*}}");
+
+    private MatrixExpander() {
+    }
+
+    /**
+     * 将Job的Runner需求按矩阵展开
+     * 没有矩阵时原样返回；runs-on和并发组名中的${{ matrix.xxx }}会替换为组合中的值
+     */
+    public static Flux<ActionParser.RunnerRequirement> expand(ActionParser.RunnerRequirement requirement) {
+        ActionRequest.Strategy strategy = requirement.getStrategy();
+        if (strategy == null || strategy.getMatrix() == null) {
+            return Flux.just(requirement);
+        }
+        return combinations(strategy.getMatrix())
+            .map(combination -> new ActionParser.RunnerRequirement(
+                jobName(requirement.getJobName(), combination),
+                resolve(requirement.getRunsOn(), combination),
+                requirement.getStepCount(),
+                requirement.getNeeds(),
+                null,
+                resolve(requirement.getConcurrency(), combination)));
+    }
+
+    /**
+     * Job展开后组合数的上限：没有矩阵时为1，否则为各维度大小之积加上include的条目数
+     * 只按维度大小计算，不生成组合；exclude和并入已有组合的include只会使实际组合数更少
+     */
+    public static long maxCombinations(ActionParser.RunnerRequirement requirement) {
+        ActionRequest.Strategy strategy = requirement.getStrategy();
+        if (strategy == null || strategy.getMatrix() == null) {
+            return 1;
+        }
+        ActionRequest.Matrix matrix = strategy.getMatrix();
+        long total = matrix.getDimensions().isEmpty() ? 0 : 1;
+        for (List<Object> dimension : matrix.getDimensions().values()) {
+            total = saturatedMultiply(total, dimension.size());
+        }
+        long include = matrix.getInclude() != null ? matrix.getInclude().size() : 0;
+        return total > Long.MAX_VALUE - include ? Long.MAX_VALUE : total + include;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+
+    /**
+     * 惰性生成矩阵组合
+     * 维度的笛卡尔积按序号逐个解码生成（最后一个维度变化最快），先应用exclude，
+     * 再按GitHub规则合并include：能在不覆盖原始维度值的前提下扩展已有组合的include
+     * 并入匹配的组合，未匹配任何组合的include作为独立组合追加在最后
+     */
+    public static Flux<Map<String, Object>> combinations(ActionRequest.Matrix matrix) {
+        List<String> names = new ArrayList<>(matrix.getDimensions().keySet());
+        List<List<Object>> values = new ArrayList<>(matrix.getDimensions().values());
+        List<Map<String, Object>> include = matrix.getInclude() != null ? matrix.getInclude() : List.of();
+        List<Map<String, Object>> exclude = matrix.getExclude() != null ? matrix.getExclude() : List.of();
+
+        long total = names.isEmpty() ? 0 : 1;
+        for (List<Object> dimension : values) {
+            total *= dimension.size();
+        }
+        long size = total;
+
+        return Flux.defer(() -> {
+            // 记录已并入过组合的include，按订阅隔离
+            BitSet matchedIncludes = new BitSet(include.size());
+
+            Flux<Map<String, Object>> base = Flux.<Map<String, Object>, Long>generate(() -> 0L, (index, sink) -> {
+                    if (index >= size) {
+                        sink.complete();
+                        return index;
+                    }
+                    sink.next(decode(index, names, values));
+                    return index + 1;
+                })
+                .filter(combination -> exclude.stream().noneMatch(entry -> matches(combination, entry)))
+                .map(combination -> applyIncludes(combination, names, include, matchedIncludes));
+
+            Flux<Map<String, Object>> standalone = Flux.defer(() -> Flux.range(0, include.size())
+                .filter(i -> !matchedIncludes.get(i))
+                .map(i -> (Map<String, Object>) new LinkedHashMap<>(include.get(i))));
+
+            return base.concatWith(standalone);
+        });
+    }
+
+    private static Map<String, Object> decode(long index, List<String> names, List<List<Object>> values) {
+        Object[] picked = new Object[names.size()];
+        for (int i = names.size() - 1; i >= 0; i--) {
+            List<Object> dimension = values.get(i);
+            picked[i] = dimension.get((int) (index % dimension.size()));
+            index /= dimension.size();
+        }
+        Map<String, Object> combination = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            combination.put(names.get(i), picked[i]);
+        }
+        return combination;
+    }
+
+    private static Map<String, Object> applyIncludes(Map<String, Object> combination, List<String> names,
+                                                     List<Map<String, Object>> include, BitSet matchedIncludes) {
+        Map<String, Object> original = new LinkedHashMap<>(combination);
+        for (int i = 0; i < include.size(); i++) {
+            Map<String, Object> entry = include.get(i);
+            boolean compatible = entry.entrySet().stream()
+                .allMatch(e -> !names.contains(e.getKey()) || Objects.equals(original.get(e.getKey()), e.getValue()));
+            if (compatible) {
+                combination.putAll(entry);
+                matchedIncludes.set(i);
+            }
+        }
+        return combination;
+    }
+
+    private static boolean matches(Map<String, Object> combination, Map<String, Object> entry) {
+        return entry.entrySet().stream()
+            .allMatch(e -> Objects.equals(combination.get(e.getKey()), e.getValue()));
+    }
+
+    private static String jobName(String jobName, Map<String, Object> combination) {
+        List<String> parts = new ArrayList<>(combination.size());
+        combination.values().forEach(value -> parts.add(String.valueOf(value)));
+        return jobName + " (" + String.join(", ", parts) + ")";
+    }
+
+    private static ActionRequest.Concurrency resolve(ActionRequest.Concurrency concurrency,
+                                                     Map<String, Object> combination) {
+        if (concurrency == null) {
+            return null;
+        }
+        return new ActionRequest.Concurrency(resolve(concurrency.getGroup(), combination),
+            concurrency.isCancelInProgress());
+    }
+
+    private static String resolve(String runsOn, Map<String, Object> combination) {
+        if (runsOn == null) {
+            return null;
+        }
+        Matcher matcher = MATRIX_EXPRESSION.matcher(runsOn);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            Object value = combination.get(matcher.group(1));
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(value != null ? value.toString() : ""));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+}
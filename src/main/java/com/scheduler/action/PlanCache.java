@@ -0,0 +1,171 @@
+package com.scheduler.action;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.config.RunProperties;
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 解析结果缓存
+ * 以工作流结构的SHA-256摘要为键缓存Job依赖图，键只覆盖影响调度的内容：
+ * Job名称、runs-on、Step数量、needs、strategy和Job级concurrency；context、工作流名称和Step内容不参与，
+ * 因此仅context不同的重复提交直接复用同一个依赖图（构建后不可变，可跨Run共享）。
+ * 容量超出时淘汰最久未使用的条目
+ */
+@Component
+public class PlanCache {
+
+    private static final byte[] NULL_MARKER = {(byte) 0xff};
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JobGraph> plans;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PlanCache(RunProperties runProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        RunProperties.PlanCache properties = runProperties.getPlanCache();
+        int maxEntries = properties.getMaxEntries();
+        this.enabled = properties.isEnabled() && maxEntries > 0;
+        this.objectMapper = objectMapper;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JobGraph> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("scheduler.plan.cache.requests")
+            .description("解析结果缓存查询次数")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("scheduler.plan.cache.requests")
+            .description("解析结果缓存查询次数")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("scheduler.plan.cache.evictions")
+            .description("解析结果缓存淘汰条目数")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.plan.cache.size", this, PlanCache::size)
+            .description("解析结果缓存当前条目数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 获取请求对应的依赖图，未命中时使用parser解析并缓存
+     * 解析失败（needs不合法、循环依赖）不缓存，异常原样抛出
+     */
+    public JobGraph get(ActionRequest request, Function<ActionRequest, JobGraph> parser) {
+        if (!enabled) {
+            return parser.apply(request);
+        }
+        String key = key(request);
+        JobGraph plan;
+        synchronized (plans) {
+            plan = plans.get(key);
+        }
+        if (plan != null) {
+            hits.increment();
+            return plan;
+        }
+        misses.increment();
+        plan = parser.apply(request);
+        synchronized (plans) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * 工作流结构摘要
+     */
+    String key(ActionRequest request) {
+        MessageDigest digest = sha256();
+        if (request.getJobs() != null) {
+            for (Map.Entry<String, ActionRequest.Job> entry : request.getJobs().entrySet()) {
+                ActionRequest.Job job = entry.getValue();
+                update(digest, entry.getKey());
+                if (job == null) {
+                    digest.update(NULL_MARKER);
+                    continue;
+                }
+                update(digest, job.getRunsOn());
+                digest.update(ByteBuffer.allocate(Integer.BYTES)
+                    .putInt(job.getSteps() != null ? job.getSteps().length : -1).array());
+                update(digest, job.getNeeds());
+                if (job.getStrategy() != null) {
+                    try {
+                        digest.update(objectMapper.writeValueAsBytes(job.getStrategy()));
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException("Invalid strategy in job '" + entry.getKey() + "'", e);
+                    }
+                } else {
+                    digest.update(NULL_MARKER);
+                }
+                if (job.getConcurrency() != null) {
+                    update(digest, job.getConcurrency().getGroup());
+                    digest.update((byte) (job.getConcurrency().isCancelInProgress() ? 1 : 0));
+                } else {
+                    digest.update(NULL_MARKER);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, List<String> values) {
+        if (values == null) {
+            digest.update(NULL_MARKER);
+            return;
+        }
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(values.size()).array());
+        for (String value : values) {
+            update(digest, value);
+        }
+    }
+
+    /**
+     * 写入长度前缀和UTF-8内容，避免相邻字段拼接产生歧义
+     */
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(NULL_MARKER);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.scheduler.action;
+
+import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunPriority;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的工作流计划
+ * 模板注册时编译一次，之后所有触发共享同一实例：只保留调度需要的Job依赖图、
+ * 默认context和引用的action列表，Step内容不再保留；Job名称、label和action引用均已驻留
+ */
+public final class WorkflowPlan {
+
+    private final String name;
+    private final JobGraph graph;
+    private final Map<String, Object> context;
+    private final List<String> actions;
+    private final RunPriority priority;
+    private final ActionRequest.Concurrency concurrency;
+
+    WorkflowPlan(String name, JobGraph graph, Map<String, Object> context, List<String> actions,
+                 RunPriority priority, ActionRequest.Concurrency concurrency) {
+        this.name = name;
+        this.graph = graph;
+        this.context = context == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(context));
+        this.actions = List.copyOf(actions);
+        this.priority = priority;
+        this.concurrency = concurrency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public JobGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * 注册时提供的默认context
+     */
+    public Map<String, Object> getContext() {
+        return context;
+    }
+
+    /**
+     * 引用的action（Step的uses），去重后按首次出现的顺序
+     */
+    public List<String> getActions() {
+        return actions;
+    }
+
+    /**
+     * 注册时指定的优先级，未指定时为null
+     */
+    public RunPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * 工作流级并发组，未指定时为null
+     */
+    public ActionRequest.Concurrency getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * 用触发时的覆盖项合并默认context，覆盖项中的同名键优先
+     */
+    public Map<String, Object> context(Map<String, Object> overrides) {
+        if (overrides == null || overrides.isEmpty()) {
+            return context;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(context);
+        merged.putAll(overrides);
+        return merged;
+    }
+}
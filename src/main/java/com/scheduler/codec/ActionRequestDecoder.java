@@ -0,0 +1,93 @@
+package com.scheduler.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.config.RequestProperties;
+import com.scheduler.model.ActionRequest;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ActionRequest流式解码器
+ * 请求体的每个DataBuffer到达后立即交给{@link ActionRequestStreamReader}解析并释放，
+ * 不在内存中聚合完整请求体；Step以原始片段保留（{@link LazyStep}），
+ * 超过大小或深度限制时在接收过程中直接失败
+ */
+public class ActionRequestDecoder implements Decoder<ActionRequest> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(
+        MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+
+    private final ObjectMapper objectMapper;
+    private final RequestProperties properties;
+
+    public ActionRequestDecoder(ObjectMapper objectMapper, RequestProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        if (!ActionRequest.class.equals(elementType.toClass())) {
+            return false;
+        }
+        return mimeType == null || MIME_TYPES.stream().anyMatch(supported -> supported.isCompatibleWith(mimeType));
+    }
+
+    @Override
+    public Mono<ActionRequest> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
+                                            MimeType mimeType, Map<String, Object> hints) {
+        return Mono.defer(() -> {
+            ActionRequestStreamReader reader = newReader();
+            return Flux.from(input)
+                .doOnNext(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        reader.feed(bytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .then(Mono.fromCallable(reader::finish));
+        }).onErrorMap(UncheckedIOException.class, UncheckedIOException::getCause)
+            .onErrorMap(JsonProcessingException.class,
+                e -> new DecodingException("JSON decoding error: " + e.getOriginalMessage(), e));
+    }
+
+    @Override
+    public Flux<ActionRequest> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                      MimeType mimeType, Map<String, Object> hints) {
+        return decodeToMono(input, elementType, mimeType, hints).flux();
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    private ActionRequestStreamReader newReader() {
+        try {
+            return new ActionRequestStreamReader(objectMapper.getFactory(), objectMapper,
+                properties.getMaxPayloadSize().toBytes(), properties.getMaxDepth());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
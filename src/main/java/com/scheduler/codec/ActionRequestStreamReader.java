@@ -0,0 +1,383 @@
+package com.scheduler.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunPriority;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * ActionRequest流式读取器
+ * 请求体分块到达时逐块喂给Jackson非阻塞解析器，只提取调度需要的内容：
+ * Job的runs-on、needs、strategy和context按需绑定，Step只截取原始JSON片段（{@link LazyStep}），
+ * 其余字段直接跳过。大小和嵌套深度在解析过程中检查，超出时立即失败。
+ *
+ * <p>每个请求使用一个实例，非线程安全。
+ */
+class ActionRequestStreamReader {
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int maxDepth;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final ActionRequest request = new ActionRequest();
+
+    private long received;
+    private int depth;
+    private boolean done;
+
+    /**
+     * 当前喂入的数据块及其在请求体中的起始偏移
+     */
+    private byte[] chunk;
+    private long chunkOffset;
+
+    /**
+     * 正在截取的Step片段
+     */
+    private byte[] capture;
+    private int captureLength;
+    private long captureStart = -1;
+
+    ActionRequestStreamReader(JsonFactory jsonFactory, ObjectMapper objectMapper, long maxBytes, int maxDepth)
+            throws IOException {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.maxDepth = maxDepth;
+        this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        frames.push(new RootFrame());
+    }
+
+    /**
+     * 喂入下一块数据并处理其中完整的token
+     */
+    void feed(byte[] bytes) throws IOException {
+        received += bytes.length;
+        if (received > maxBytes) {
+            throw new DataBufferLimitException("Request body exceeds limit of " + maxBytes + " bytes");
+        }
+        if (done) {
+            return;
+        }
+        chunkOffset += chunk != null ? chunk.length : 0;
+        chunk = bytes;
+        if (captureStart >= 0) {
+            append(bytes, 0, bytes.length);
+        }
+        feeder.feedInput(bytes, 0, bytes.length);
+        drain();
+    }
+
+    /**
+     * 输入结束，返回解码结果
+     */
+    ActionRequest finish() throws IOException {
+        feeder.endOfInput();
+        drain();
+        if (!done) {
+            throw new DecodingException("Incomplete JSON request body");
+        }
+        return request;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            if (token.isStructStart() && ++depth > maxDepth) {
+                throw new DecodingException("JSON nesting depth exceeds limit of " + maxDepth);
+            }
+            frames.peek().token(token);
+            if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+    }
+
+    private interface Frame {
+        void token(JsonToken token) throws IOException;
+    }
+
+    /**
+     * 顶层对象：name、jobs、context、priority、concurrency
+     */
+    private class RootFrame implements Frame {
+
+        private boolean started;
+        private String field;
+
+        @Override
+        public void token(JsonToken token) throws IOException {
+            if (!started) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new DecodingException("Request body must be a JSON object");
+                }
+                started = true;
+                return;
+            }
+            switch (token) {
+                case FIELD_NAME -> field = parser.currentName();
+                case END_OBJECT -> done = true;
+                default -> {
+                    switch (field) {
+                        case "name" -> request.setName(text(token, field));
+                        case "jobs" -> {
+                            if (token == JsonToken.VALUE_NULL) {
+                                return;
+                            }
+                            expect(token, JsonToken.START_OBJECT, field);
+                            Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+                            request.setJobs(jobs);
+                            frames.push(new JobsFrame(jobs));
+                        }
+                        case "context" -> bind(token, objectMapper.getTypeFactory()
+                            .constructMapType(LinkedHashMap.class, String.class, Object.class), request::setContext);
+                        case "priority" -> request.setPriority(priority(text(token, field)));
+                        case "concurrency" -> bind(token,
+                            objectMapper.constructType(ActionRequest.Concurrency.class), request::setConcurrency);
+                        default -> skip(token);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * jobs对象：Job名到Job
+     */
+    private class JobsFrame implements Frame {
+
+        private final Map<String, ActionRequest.Job> jobs;
+        private String jobName;
+
+        JobsFrame(Map<String, ActionRequest.Job> jobs) {
+            this.jobs = jobs;
+        }
+
+        @Override
+        public void token(JsonToken token) throws IOException {
+            switch (token) {
+                case FIELD_NAME -> jobName = parser.currentName();
+                case END_OBJECT -> frames.pop();
+                default -> {
+                    expect(token, JsonToken.START_OBJECT, "jobs." + jobName);
+                    ActionRequest.Job job = new ActionRequest.Job();
+                    jobs.put(jobName, job);
+                    frames.push(new JobFrame(job));
+                }
+            }
+        }
+    }
+
+    /**
+     * 单个Job：runs-on、needs、strategy、concurrency、steps
+     */
+    private class JobFrame implements Frame {
+
+        private final ActionRequest.Job job;
+        private String field;
+
+        JobFrame(ActionRequest.Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public void token(JsonToken token) throws IOException {
+            switch (token) {
+                case FIELD_NAME -> field = parser.currentName();
+                case END_OBJECT -> frames.pop();
+                default -> {
+                    switch (field) {
+                        case "runs-on" -> job.setRunsOn(text(token, field));
+                        case "needs" -> {
+                            if (token == JsonToken.VALUE_STRING) {
+                                job.setNeeds(new ArrayList<>(List.of(parser.getText())));
+                            } else {
+                                bind(token, objectMapper.getTypeFactory()
+                                    .constructCollectionType(ArrayList.class, String.class), job::setNeeds);
+                            }
+                        }
+                        case "strategy" -> bind(token, objectMapper.constructType(ActionRequest.Strategy.class),
+                            job::setStrategy);
+                        case "concurrency" -> bind(token,
+                            objectMapper.constructType(ActionRequest.Concurrency.class), job::setConcurrency);
+                        case "steps" -> {
+                            if (token == JsonToken.VALUE_NULL) {
+                                return;
+                            }
+                            expect(token, JsonToken.START_ARRAY, field);
+                            frames.push(new StepsFrame(job));
+                        }
+                        default -> skip(token);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * steps数组：每个Step截取为原始片段
+     */
+    private class StepsFrame implements Frame {
+
+        private final ActionRequest.Job job;
+        private final List<ActionRequest.Step> steps = new ArrayList<>();
+
+        StepsFrame(ActionRequest.Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public void token(JsonToken token) throws IOException {
+            if (token == JsonToken.END_ARRAY) {
+                job.setSteps(steps.toArray(new ActionRequest.Step[0]));
+                frames.pop();
+                return;
+            }
+            expect(token, JsonToken.START_OBJECT, "steps[" + steps.size() + "]");
+            // 非阻塞解析器读完'{'后当前位置紧随其后
+            startCapture(parser.currentLocation().getByteOffset() - 1);
+            frames.push(new SkipFrame(() -> steps.add(new LazyStep(endCapture(), objectMapper))));
+        }
+    }
+
+    /**
+     * 跳过一个对象或数组，结束时回调
+     */
+    private class SkipFrame implements Frame {
+
+        private final Runnable onEnd;
+        private int nested;
+
+        SkipFrame(Runnable onEnd) {
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public void token(JsonToken token) {
+            if (token.isStructStart()) {
+                nested++;
+            } else if (token.isStructEnd() && nested-- == 0) {
+                frames.pop();
+                onEnd.run();
+            }
+        }
+    }
+
+    /**
+     * 把一个值的token复制到TokenBuffer，结束时绑定为目标类型
+     */
+    private class BindFrame<T> implements Frame {
+
+        private final TokenBuffer buffer = new TokenBuffer(parser, null);
+        private final JavaType type;
+        private final Consumer<T> consumer;
+        private int nested;
+
+        BindFrame(JavaType type, Consumer<T> consumer) {
+            this.type = type;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void token(JsonToken token) throws IOException {
+            buffer.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                nested++;
+            } else if (token.isStructEnd()) {
+                nested--;
+            }
+            if (nested == 0) {
+                frames.pop();
+                try (JsonParser bufferParser = buffer.asParser(objectMapper)) {
+                    consumer.accept(objectMapper.readValue(bufferParser, type));
+                }
+            }
+        }
+    }
+
+    private <T> void bind(JsonToken token, JavaType type, Consumer<T> consumer) throws IOException {
+        BindFrame<T> frame = new BindFrame<>(type, consumer);
+        frames.push(frame);
+        frame.token(token);
+    }
+
+    private void skip(JsonToken token) {
+        if (token.isStructStart()) {
+            frames.push(new SkipFrame(() -> { }));
+        }
+    }
+
+    private String text(JsonToken token, String field) {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new DecodingException("Field '" + field + "' must be a string");
+        }
+        try {
+            return parser.getText();
+        } catch (IOException e) {
+            throw new DecodingException("Invalid value for field '" + field + "'", e);
+        }
+    }
+
+    private static RunPriority priority(String value) {
+        try {
+            return RunPriority.from(value);
+        } catch (IllegalArgumentException e) {
+            throw new DecodingException(e.getMessage());
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, String field) {
+        if (actual != expected) {
+            throw new DecodingException("Field '" + field + "' must be a JSON "
+                + (expected == JsonToken.START_ARRAY ? "array" : "object"));
+        }
+    }
+
+    private void startCapture(long offset) {
+        captureStart = offset;
+        captureLength = 0;
+        if (capture == null) {
+            capture = new byte[256];
+        }
+        int from = (int) (offset - chunkOffset);
+        append(chunk, from, chunk.length - from);
+    }
+
+    private byte[] endCapture() {
+        long end = parser.currentLocation().getByteOffset();
+        byte[] raw = Arrays.copyOf(capture, (int) (end - captureStart));
+        captureStart = -1;
+        return raw;
+    }
+
+    private void append(byte[] bytes, int from, int length) {
+        if (captureLength + length > capture.length) {
+            capture = Arrays.copyOf(capture, Math.max(capture.length * 2, captureLength + length));
+        }
+        System.arraycopy(bytes, from, capture, captureLength, length);
+        captureLength += length;
+    }
+}
@@ -0,0 +1,115 @@
+package com.scheduler.codec;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.scheduler.model.ActionRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 延迟解码的Step
+ * 流式解码时只保留Step在请求体中的原始JSON片段，首次访问字段时才解码；
+ * 重新序列化时直接输出原始片段
+ */
+public class LazyStep extends ActionRequest.Step {
+
+    private final byte[] raw;
+    private final ObjectMapper objectMapper;
+    private volatile boolean decoded;
+
+    LazyStep(byte[] raw, ObjectMapper objectMapper) {
+        this.raw = raw;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 原始JSON片段的字节数
+     */
+    public int rawSize() {
+        return raw.length;
+    }
+
+    /**
+     * 是否已解码
+     */
+    public boolean isDecoded() {
+        return decoded;
+    }
+
+    @JsonValue
+    public RawValue toRawJson() {
+        return new RawValue(new String(raw, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String getName() {
+        decode();
+        return super.getName();
+    }
+
+    @Override
+    public String getUses() {
+        decode();
+        return super.getUses();
+    }
+
+    @Override
+    public Map<String, String> getWith() {
+        decode();
+        return super.getWith();
+    }
+
+    @Override
+    public String getRun() {
+        decode();
+        return super.getRun();
+    }
+
+    @Override
+    public void setName(String name) {
+        decode();
+        super.setName(name);
+    }
+
+    @Override
+    public void setUses(String uses) {
+        decode();
+        super.setUses(uses);
+    }
+
+    @Override
+    public void setWith(Map<String, String> with) {
+        decode();
+        super.setWith(with);
+    }
+
+    @Override
+    public void setRun(String run) {
+        decode();
+        super.setRun(run);
+    }
+
+    private void decode() {
+        if (decoded) {
+            return;
+        }
+        synchronized (this) {
+            if (decoded) {
+                return;
+            }
+            try {
+                ActionRequest.Step step = objectMapper.readValue(raw, ActionRequest.Step.class);
+                super.setName(step.getName());
+                super.setUses(step.getUses());
+                super.setWith(step.getWith());
+                super.setRun(step.getRun());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid step: " + e.getMessage(), e);
+            }
+            decoded = true;
+        }
+    }
+}
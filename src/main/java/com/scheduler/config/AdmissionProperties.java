@@ -0,0 +1,41 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 准入控制配置
+ * 对应application.yml中的scheduler.admission.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.admission")
+public class AdmissionProperties {
+
+    /**
+     * 是否启用准入控制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同时执行的Run上限
+     */
+    private int maxInFlightRuns = 1000;
+
+    /**
+     * 同时执行的Run所包含的Job总数上限
+     * 矩阵Job按展开后的组合数（上限）计；Job数超过该值的单个Run按该值计，待其他Run全部结束后执行
+     */
+    private int maxInFlightJobs = 5000;
+
+    /**
+     * 排队等待执行的Run上限，队列满后直接拒绝（429）
+     */
+    private int maxQueuedRuns = 10000;
+
+    /**
+     * 拒绝时建议客户端的重试间隔（Retry-After）
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
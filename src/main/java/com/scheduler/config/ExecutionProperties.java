@@ -0,0 +1,61 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 执行调度器配置
+ * 对应application.yml中的scheduler.execution.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.execution")
+public class ExecutionProperties {
+
+    /**
+     * 各阶段使用的调度器，未配置的阶段使用虚拟线程调度器
+     */
+    private Map<ExecutionSchedulers.Phase, ExecutionSchedulers.Kind> phases =
+        new EnumMap<>(ExecutionSchedulers.Phase.class);
+
+    /**
+     * 有界弹性调度器配置
+     */
+    private BoundedElastic boundedElastic = new BoundedElastic();
+
+    /**
+     * 并行调度器配置
+     */
+    private Parallel parallel = new Parallel();
+
+    /**
+     * 有界弹性调度器配置
+     */
+    @Data
+    public static class BoundedElastic {
+
+        /**
+         * 最大线程数
+         */
+        private int threadCap = 10 * Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 排队任务上限，超出后拒绝
+         */
+        private int queueCap = 100_000;
+    }
+
+    /**
+     * 并行调度器配置
+     */
+    @Data
+    public static class Parallel {
+
+        /**
+         * 线程数
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,145 @@
+package com.scheduler.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行调度器
+ * 持有一组长期存在、具名的Reactor调度器，按阶段选择使用，避免每次调用都新建线程池；
+ * 虚拟线程调度器包装Spring管理的共享ExecutorService，由Spring负责关闭，这里只关闭自建的线程池
+ */
+@Component
+public class ExecutionSchedulers {
+
+    private final ExecutionProperties properties;
+    private final Map<Kind, Scheduler> schedulers = new EnumMap<>(Kind.class);
+    private final Set<Kind> owned = EnumSet.noneOf(Kind.class);
+
+    public ExecutionSchedulers(ExecutionProperties properties,
+                               @Qualifier("virtualThreadExecutorService") ExecutorService virtualThreadExecutorService,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        register(Kind.VIRTUAL, virtualThreadExecutorService, false, meterRegistry);
+        register(Kind.BOUNDED_ELASTIC, boundedElasticExecutor(properties.getBoundedElastic()), true, meterRegistry);
+        register(Kind.PARALLEL, parallelExecutor(properties.getParallel()), true, meterRegistry);
+    }
+
+    /**
+     * 获取指定阶段配置的调度器
+     */
+    public Scheduler forPhase(Phase phase) {
+        return get(properties.getPhases().getOrDefault(phase, Kind.VIRTUAL));
+    }
+
+    /**
+     * 获取指定类型的调度器
+     */
+    public Scheduler get(Kind kind) {
+        return schedulers.get(kind);
+    }
+
+    /**
+     * 关闭自建的调度器，注入的ExecutorService保持不变
+     */
+    @PreDestroy
+    public void dispose() {
+        owned.forEach(kind -> schedulers.get(kind).dispose());
+    }
+
+    /**
+     * @param owns 是否由本类负责关闭该ExecutorService
+     */
+    private void register(Kind kind, ExecutorService executor, boolean owns, MeterRegistry meterRegistry) {
+        MeteredExecutorService metered = new MeteredExecutorService(executor);
+        schedulers.put(kind, Schedulers.fromExecutorService(metered, kind.getName()));
+        if (owns) {
+            owned.add(kind);
+        }
+
+        Gauge.builder("scheduler.execution.queued", metered, MeteredExecutorService::getQueued)
+            .description("调度器中排队等待执行的任务数")
+            .tag("scheduler", kind.getName())
+            .register(meterRegistry);
+        Gauge.builder("scheduler.execution.active", metered, MeteredExecutorService::getActive)
+            .description("调度器中正在执行的任务数")
+            .tag("scheduler", kind.getName())
+            .register(meterRegistry);
+        FunctionCounter.builder("scheduler.execution.completed", metered, MeteredExecutorService::getCompleted)
+            .description("调度器已完成的任务数")
+            .tag("scheduler", kind.getName())
+            .register(meterRegistry);
+    }
+
+    private static ExecutorService boundedElasticExecutor(ExecutionProperties.BoundedElastic config) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            config.getThreadCap(), config.getThreadCap(),
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(config.getQueueCap()),
+            namedThreads(Kind.BOUNDED_ELASTIC.getName()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService parallelExecutor(ExecutionProperties.Parallel config) {
+        return new ThreadPoolExecutor(
+            config.getThreads(), config.getThreads(),
+            0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            namedThreads(Kind.PARALLEL.getName()));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 调度器类型
+     */
+    public enum Kind {
+        VIRTUAL("virtual"),
+        BOUNDED_ELASTIC("bounded-elastic"),
+        PARALLEL("parallel");
+
+        private final String name;
+
+        Kind(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Runner操作阶段
+     */
+    public enum Phase {
+        ALLOCATE,
+        STATUS,
+        CONNECT,
+        EXECUTE
+    }
+}
@@ -0,0 +1,79 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 租户公平调度配置
+ * 对应application.yml中的scheduler.fair-share.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.fair-share")
+public class FairShareProperties {
+
+    /**
+     * 是否启用公平调度，关闭时Job不等待Runner名额
+     */
+    private boolean enabled = true;
+
+    /**
+     * 所有租户同时占用的Runner上限，超出时Job按租户排队
+     */
+    private int maxRunners = 5000;
+
+    /**
+     * 从Run的context中取租户的方式
+     */
+    private TenantKey tenantKey = TenantKey.REPOSITORY;
+
+    /**
+     * 未单独配置的租户使用的默认份额
+     */
+    private Share defaults = new Share();
+
+    /**
+     * 按租户配置的份额，key为租户（仓库名或owner）
+     */
+    private Map<String, Share> tenants = new LinkedHashMap<>();
+
+    /**
+     * 获取指定租户的份额
+     */
+    public Share shareFor(String tenant) {
+        return tenants.getOrDefault(tenant, defaults);
+    }
+
+    /**
+     * 租户的取值
+     */
+    public enum TenantKey {
+        /**
+         * context.repository（owner/repo）
+         */
+        REPOSITORY,
+        /**
+         * context.repository_owner，未提供时取repository中的owner部分
+         */
+        OWNER
+    }
+
+    /**
+     * 租户份额
+     */
+    @Data
+    public static class Share {
+
+        /**
+         * 权重，有Job排队时按权重比例分配空出的Runner名额
+         */
+        private int weight = 1;
+
+        /**
+         * 该租户同时占用的Runner上限，0表示只受全局上限限制
+         */
+        private int maxRunners = 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 状态日志配置
+ * 对应application.yml中的scheduler.journal.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.journal")
+public class JournalProperties {
+
+    /**
+     * 是否启用状态日志，关闭时状态只保存在内存中
+     */
+    private boolean enabled = false;
+
+    /**
+     * 日志段和快照文件所在目录
+     */
+    private String directory = "data/journal";
+
+    /**
+     * 单个日志段文件大小
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /**
+     * 组提交单批最大记录数
+     */
+    private int maxBatchSize = 1024;
+
+    /**
+     * 每次组提交后是否刷盘；关闭时只保证进程崩溃不丢数据，不保证机器掉电不丢数据
+     */
+    private boolean forceOnCommit = true;
+
+    /**
+     * 快照（压缩）间隔，快照完成后删除已被覆盖的日志段
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,56 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Job日志存储配置
+ * 对应application.yml中的scheduler.logs.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.logs")
+public class LogProperties {
+
+    /**
+     * 是否启用日志存储，关闭时不接收也不保存Job日志
+     */
+    private boolean enabled = false;
+
+    /**
+     * 日志段文件所在目录
+     */
+    private String directory = "data/logs";
+
+    /**
+     * 单个日志段文件大小上限，写满后滚动到新的日志段
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(8);
+
+    /**
+     * 单次追加的最大字节数
+     */
+    private DataSize maxChunkSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 单次读取返回的最大字节数
+     */
+    private DataSize maxReadSize = DataSize.ofMegabytes(1);
+
+    /**
+     * 所有日志的总大小上限，超出时优先删除最早写入的日志段
+     */
+    private DataSize maxTotalSize = DataSize.ofGigabytes(1);
+
+    /**
+     * 日志段最后一次写入后的保留时间
+     */
+    private Duration maxAge = Duration.ofHours(24);
+
+    /**
+     * 保留策略检查间隔，同时关闭空闲日志流的文件句柄
+     */
+    private Duration retentionInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,24 @@
+package com.scheduler.config;
+
+import com.scheduler.metrics.PhaseMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 指标配置类
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * runs_on标签的最大取值数
+     * runs-on来自请求内容，超出后不再为新的label创建计时器，避免指标基数无限增长
+     */
+    private static final int MAX_RUNS_ON_TAGS = 200;
+
+    @Bean
+    public MeterFilter phaseRunsOnCardinalityFilter() {
+        return MeterFilter.maximumAllowableTags(PhaseMetrics.METRIC, "runs_on", MAX_RUNS_ON_TAGS, MeterFilter.deny());
+    }
+}
@@ -0,0 +1,38 @@
+package com.scheduler.config;
+
+import com.scheduler.model.RunPriority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Run优先级配置
+ * 对应application.yml中的scheduler.priority.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.priority")
+public class PriorityProperties {
+
+    /**
+     * 排队中的Run和Job每等待一个间隔提升一级优先级，0表示不老化（严格按优先级出队）
+     */
+    private Duration agingInterval = Duration.ofSeconds(30);
+
+    /**
+     * 请求未指定且没有匹配规则时的优先级
+     */
+    private RunPriority defaultPriority = RunPriority.NORMAL;
+
+    /**
+     * 按context.ref匹配的优先级，key为Ant风格的模式（如：refs/heads/hotfix/**），多个匹配时取最高
+     */
+    private Map<String, RunPriority> refs = new LinkedHashMap<>();
+
+    /**
+     * 按context.event_name匹配的优先级（如：pull_request）
+     */
+    private Map<String, RunPriority> events = new LinkedHashMap<>();
+}
@@ -0,0 +1,24 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 请求解码配置
+ * 对应application.yml中的scheduler.request.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.request")
+public class RequestProperties {
+
+    /**
+     * /run请求体的最大字节数，边接收边计数，超出时立即中止并返回413
+     */
+    private DataSize maxPayloadSize = DataSize.ofMegabytes(16);
+
+    /**
+     * JSON最大嵌套深度，超出时立即中止并返回400
+     */
+    private int maxDepth = 64;
+}
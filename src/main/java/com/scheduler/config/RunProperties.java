@@ -0,0 +1,47 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Run调度配置
+ * 对应application.yml中的scheduler.run.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.run")
+public class RunProperties {
+
+    /**
+     * 单个Run中同时运行的Job上限
+     * 就绪Job超过该值时按关键路径长度排队
+     */
+    private int maxParallelJobs = 32;
+
+    /**
+     * 已注册工作流模板的上限
+     */
+    private int maxTemplates = 10_000;
+
+    /**
+     * 解析结果缓存
+     */
+    private PlanCache planCache = new PlanCache();
+
+    /**
+     * 解析结果缓存配置
+     * 以工作流结构（不含context和Step内容）的摘要为键缓存Job依赖图
+     */
+    @Data
+    public static class PlanCache {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大条目数，超出时淘汰最久未使用的条目
+         */
+        private int maxEntries = 1024;
+    }
+}
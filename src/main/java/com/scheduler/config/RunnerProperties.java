@@ -0,0 +1,234 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runner相关配置
+ * 对应application.yml中的scheduler.runner.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.runner")
+public class RunnerProperties {
+
+    /**
+     * Runner申请超时时间
+     */
+    private Duration allocationTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Runner连接超时时间
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Runner执行超时的基础时间，超时的Runner标记为FAILED
+     * 实际超时为基础时间加上每个Step的额外时间（{@link #executionTimeoutPerStep}）乘以Step数量
+     */
+    private Duration executionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 执行超时中每个Step的额外时间，Step数量越多允许的执行时间越长
+     */
+    private Duration executionTimeoutPerStep = Duration.ofSeconds(1);
+
+    /**
+     * 同一Run内相同label的Job是否复用刚执行完的Runner
+     */
+    private boolean reuse = true;
+
+    /**
+     * 对冲申请配置
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 预热Runner池配置
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 批量申请配置
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 模拟资源服务的耗时
+     */
+    private Simulation simulation = new Simulation();
+
+    /**
+     * 包含指定数量Step的执行超时
+     */
+    public Duration executionTimeoutFor(int stepCount) {
+        return executionTimeout.plus(executionTimeoutPerStep.multipliedBy(Math.max(0, stepCount)));
+    }
+
+    /**
+     * 预热Runner池配置
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 是否启用预热池
+         */
+        private boolean enabled = true;
+
+        /**
+         * 未单独配置的label使用的默认容量
+         */
+        private Size defaults = new Size();
+
+        /**
+         * 按runs-on label配置的池容量，key为label（如：ubuntu-latest）
+         * 启动时会为这里列出的label预热Runner
+         */
+        private Map<String, Size> labels = new LinkedHashMap<>();
+
+        /**
+         * 获取指定label的池容量
+         */
+        public Size sizeFor(String label) {
+            return labels.getOrDefault(label, defaults);
+        }
+    }
+
+    /**
+     * 对冲申请配置
+     * 申请耗时超过近期耗时的指定分位数时再发起一次申请，取先完成者，另一方释放
+     */
+    @Data
+    public static class Hedge {
+
+        /**
+         * 是否启用对冲申请
+         */
+        private boolean enabled = false;
+
+        /**
+         * 触发对冲的耗时分位数
+         */
+        private double percentile = 0.95;
+
+        /**
+         * 统计耗时的滑动窗口大小
+         */
+        private int windowSize = 256;
+
+        /**
+         * 样本数少于该值时不触发对冲
+         */
+        private int minSamples = 20;
+    }
+
+    /**
+     * 模拟资源服务各操作的耗时，设为0时同步完成（用于基准测试去除模拟延迟）
+     */
+    @Data
+    public static class Simulation {
+
+        /**
+         * 申请耗时
+         */
+        private Duration allocateDelay = Duration.ofMillis(100);
+
+        /**
+         * 连接耗时
+         */
+        private Duration connectDelay = Duration.ofMillis(200);
+
+        /**
+         * 执行的Job级固定开销（环境准备、清理），不含Step
+         */
+        private Duration executeDelay = Duration.ofMillis(300);
+
+        /**
+         * 单个Step的耗时分布
+         */
+        private StepDuration step = new StepDuration();
+    }
+
+    /**
+     * Step耗时分布配置
+     */
+    @Data
+    public static class StepDuration {
+
+        /**
+         * 分布模型
+         */
+        private Model model = Model.FIXED;
+
+        /**
+         * fixed：固定耗时；normal：均值；log-normal：中位数
+         */
+        private Duration duration = Duration.ofMillis(100);
+
+        /**
+         * normal：标准差
+         */
+        private Duration stddev = Duration.ofMillis(50);
+
+        /**
+         * log-normal：对数标准差（形状参数），越大长尾越重
+         */
+        private double sigma = 0.5;
+
+        /**
+         * histogram：直方图文件（file:或classpath:），每行为"耗时 权重"，#开头为注释
+         */
+        private Resource histogramFile;
+
+        /**
+         * 单个Step耗时上限，0表示不限制
+         */
+        private Duration max = Duration.ZERO;
+
+        public enum Model {
+            FIXED,
+            NORMAL,
+            LOG_NORMAL,
+            HISTOGRAM
+        }
+    }
+
+    /**
+     * 批量申请配置
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * 单次批量申请的最大数量
+         */
+        private int maxSize = 100;
+
+        /**
+         * 调度时合并申请的时间窗口，窗口内同一Run的申请合并为一次批量申请
+         */
+        private Duration window = Duration.ofMillis(10);
+    }
+
+    /**
+     * 池容量
+     */
+    @Data
+    public static class Size {
+
+        /**
+         * 常驻的最少空闲Runner数量
+         */
+        private int minSize = 0;
+
+        /**
+         * 空闲Runner数量上限（未命中时按需扩容，不超过该值）
+         */
+        private int maxSize = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.scheduler.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 状态存储配置
+ * 对应application.yml中的scheduler.store.*
+ */
+@Data
+@ConfigurationProperties(prefix = "scheduler.store")
+public class StoreProperties {
+
+    /**
+     * 后台淘汰扫描间隔
+     */
+    private Duration sweepInterval = Duration.ofSeconds(10);
+
+    /**
+     * Runner状态保留策略
+     */
+    private Retention runners = new Retention();
+
+    /**
+     * Run状态保留策略
+     */
+    private Retention runs = new Retention();
+
+    /**
+     * 保留策略
+     */
+    @Data
+    public static class Retention {
+
+        /**
+         * 进入终态后的保留时间
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 最大条目数，超出时优先淘汰最早进入终态的条目
+         */
+        private int maxEntries = 100_000;
+
+        /**
+         * 淘汰后是否保留精简摘要
+         */
+        private boolean summaryEnabled = true;
+
+        /**
+         * 摘要最大条目数，超出时淘汰最久未访问的摘要
+         */
+        private int summaryMaxEntries = 100_000;
+    }
+}
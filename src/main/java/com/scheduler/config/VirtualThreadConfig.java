@@ -6,6 +6,7 @@ import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /**
@@ -16,12 +17,21 @@ import java.util.concurrent.Executors;
 @EnableAsync
 public class VirtualThreadConfig {
 
+    /**
+     * 共享的虚拟线程ExecutorService
+     * 由异步任务执行器和执行调度器共同使用，应用关闭时统一关闭
+     */
+    @Bean(name = "virtualThreadExecutorService", destroyMethod = "close")
+    public ExecutorService virtualThreadExecutorService() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
     /**
      * 配置虚拟线程执行器
      * Java 21的虚拟线程可以创建数百万个线程，非常适合高并发场景
      */
     @Bean(name = "virtualThreadExecutor")
-    public AsyncTaskExecutor virtualThreadExecutor() {
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    public AsyncTaskExecutor virtualThreadExecutor(ExecutorService virtualThreadExecutorService) {
+        return new TaskExecutorAdapter(virtualThreadExecutorService);
     }
 }
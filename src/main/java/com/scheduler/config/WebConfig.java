@@ -0,0 +1,67 @@
+package com.scheduler.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.TSFBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.scheduler.codec.ActionRequestDecoder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux配置类
+ * 注册ActionRequest流式解码器，自定义codec优先于默认的Jackson解码器；
+ * 另外按Content-Type/Accept支持CBOR（application/cbor）和Smile（application/x-jackson-smile），
+ * 两者与JSON共用同一份ObjectMapper配置，JSON仍是默认格式
+ */
+@Configuration
+@EnableConfigurationProperties(RequestProperties.class)
+@RequiredArgsConstructor
+public class WebConfig implements WebFluxConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final RequestProperties requestProperties;
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(
+            new DecoderHttpMessageReader<>(new ActionRequestDecoder(objectMapper, requestProperties)));
+
+        // 二进制格式的请求体没有流式解码，聚合后解码；大小和深度沿用/run的限制
+        int maxInMemorySize = (int) Math.min(Integer.MAX_VALUE, requestProperties.getMaxPayloadSize().toBytes());
+
+        ObjectMapper cborMapper = binaryMapper(CBORFactory.builder());
+        Jackson2CborDecoder cborDecoder = new Jackson2CborDecoder(cborMapper);
+        cborDecoder.setMaxInMemorySize(maxInMemorySize);
+        configurer.customCodecs().register(cborDecoder);
+        configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+
+        ObjectMapper smileMapper = binaryMapper(SmileFactory.builder());
+        Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(smileMapper);
+        smileDecoder.setMaxInMemorySize(maxInMemorySize);
+        configurer.defaultCodecs().jackson2SmileDecoder(smileDecoder);
+        configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+    }
+
+    /**
+     * 以应用ObjectMapper的配置（模块、日期格式等）创建二进制格式的ObjectMapper，并限制嵌套深度
+     */
+    private ObjectMapper binaryMapper(TSFBuilder<?, ?> factoryBuilder) {
+        JsonFactory factory = factoryBuilder
+            .streamReadConstraints(StreamReadConstraints.builder()
+                .maxNestingDepth(requestProperties.getMaxDepth())
+                .build())
+            .build();
+        return objectMapper.copyWith(factory);
+    }
+}
@@ -2,13 +2,17 @@ package com.scheduler.controller;
 
 import com.scheduler.model.RunnerAllocateRequest;
 import com.scheduler.model.RunnerAllocateResponse;
+import com.scheduler.model.RunnerBatchAllocateResponse;
 import com.scheduler.model.RunnerInfo;
+import com.scheduler.model.RunnerPage;
 import com.scheduler.runner.RunnerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Runner管理控制器
  * 提供Runner的申请、查询、释放接口
@@ -18,6 +22,11 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class RunnerController {
     
+    /**
+     * 单页最大数量
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+    
     private final RunnerService runnerService;
     
     /**
@@ -30,6 +39,28 @@ public class RunnerController {
         return runnerService.allocateRunner(request);
     }
     
+    /**
+     * 批量申请Runner
+     * POST /api/v1/runners/allocate:batch
+     * 部分请求失败不影响其他请求，结果中逐条给出
+     */
+    @PostMapping("/allocate:batch")
+    public Mono<RunnerBatchAllocateResponse> allocateRunners(@RequestBody List<RunnerAllocateRequest> requests) {
+        return runnerService.allocateRunners(requests);
+    }
+    
+    /**
+     * 按label和状态分页查询Runner
+     * GET /api/v1/runners?label=&status=&cursor=&limit=
+     */
+    @GetMapping
+    public Mono<RunnerPage> queryRunners(@RequestParam(required = false) String label,
+                                         @RequestParam(required = false) RunnerInfo.RunnerStatus status,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        return runnerService.queryRunners(label, status, cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+    
     /**
      * 查询Runner状态
      * GET /api/v1/runners/{id}
@@ -2,33 +2,254 @@ package com.scheduler.controller;
 
 import com.scheduler.model.ActionRequest;
 import com.scheduler.model.RunResponse;
+import com.scheduler.model.TemplateResponse;
+import com.scheduler.repository.LogStore;
 import com.scheduler.service.ActionSchedulerService;
+import com.scheduler.service.AdmissionRejectedException;
+import com.scheduler.service.RunRegistry;
+import com.scheduler.service.TemplateLimitExceededException;
+import com.scheduler.service.TemplateRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 主调度控制器
- * 提供/run接口用于接收和调度GitHub Action
+ * 提供/run接口用于接收和调度GitHub Action，以及工作流模板的注册和触发、Job日志的写入和读取
  */
 @RestController
 @RequestMapping("/api/v1")
 @RequiredArgsConstructor
 public class SchedulerController {
     
+    static final String LOG_OFFSET_HEADER = "X-Log-Offset";
+    static final String LOG_NEXT_OFFSET_HEADER = "X-Log-Next-Offset";
+    static final String LOG_END_OFFSET_HEADER = "X-Log-End-Offset";
+    
     private final ActionSchedulerService actionSchedulerService;
+    private final RunRegistry runRegistry;
+    private final TemplateRegistry templateRegistry;
+    private final LogStore logStore;
     
     /**
      * 运行Action
      * POST /api/v1/run
      * 
+     * 完成解析并登记后立即返回runId，调度在后台进行
+     * 
      * @param request GitHub Action配置
-     * @return 调度结果
+     * @return 已受理的Run
      */
     @PostMapping("/run")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public Mono<RunResponse> runAction(@RequestBody ActionRequest request) {
-        return actionSchedulerService.parseAndSchedule(request);
+        return actionSchedulerService.submit(request);
+    }
+    
+    /**
+     * 查询Run状态
+     * GET /api/v1/runs/{id}
+     */
+    @GetMapping("/runs/{id}")
+    public Mono<RunResponse> getRun(@PathVariable String id) {
+        return Mono.justOrEmpty(runRegistry.find(id))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Run not found: " + id)));
+    }
+    
+    /**
+     * 取消Run
+     * DELETE /api/v1/runs/{id}
+     * 
+     * 中止Run的执行并立即释放其占用的Runner，返回取消后的状态；Run已经结束时返回409
+     */
+    @DeleteMapping("/runs/{id}")
+    public Mono<RunResponse> cancelRun(@PathVariable String id) {
+        return actionSchedulerService.cancel(id)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Run not found: " + id)))
+            .flatMap(run -> run.getStatus() == RunResponse.RunStatus.CANCELLED ? Mono.just(run)
+                : Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Run already finished: " + id + " (" + run.getStatus() + ")")));
+    }
+    
+    /**
+     * 追加Job日志
+     * POST /api/v1/runs/{id}/jobs/{job}/logs
+     * 
+     * 请求体为一段日志原文，返回追加后的末尾偏移
+     */
+    @PostMapping(value = "/runs/{id}/jobs/{job}/logs",
+        consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public Mono<Map<String, Long>> appendLogs(@PathVariable String id, @PathVariable String job,
+                                              @RequestBody Flux<DataBuffer> body) {
+        if (!logStore.isEnabled()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Log store is disabled"));
+        }
+        if (runRegistry.find(id).isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Run not found: " + id));
+        }
+        return DataBufferUtils.join(body, logStore.getMaxChunkSize())
+            .map(buffer -> {
+                try {
+                    byte[] chunk = new byte[buffer.readableByteCount()];
+                    buffer.read(chunk);
+                    return chunk;
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            })
+            .publishOn(Schedulers.boundedElastic())
+            .map(chunk -> {
+                try {
+                    return Map.of("offset", logStore.append(id, job, ByteBuffer.wrap(chunk)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+    
+    /**
+     * 读取Job日志
+     * GET /api/v1/runs/{id}/jobs/{job}/logs?offset=&limit=
+     * 
+     * 从offset开始返回一段日志（不超过limit和scheduler.logs.max-read-size），内容直接来自日志段文件的映射区域；
+     * 响应头X-Log-Offset为内容的起始偏移，X-Log-Next-Offset为下次读取的偏移，X-Log-End-Offset为当前末尾
+     */
+    @GetMapping(value = "/runs/{id}/jobs/{job}/logs")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> readLogs(@PathVariable String id, @PathVariable String job,
+                                                           @RequestParam(defaultValue = "0") long offset,
+                                                           @RequestParam(required = false) Long limit) {
+        return Mono.fromCallable(() -> logStore.read(id, job, offset, limit != null ? limit : Long.MAX_VALUE))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(Mono::justOrEmpty)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                "Logs not found: " + id + "/" + job)))
+            .map(slice -> ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN)
+                .header(LOG_OFFSET_HEADER, String.valueOf(slice.startOffset()))
+                .header(LOG_NEXT_OFFSET_HEADER, String.valueOf(slice.nextOffset()))
+                .header(LOG_END_OFFSET_HEADER, String.valueOf(slice.endOffset()))
+                .body(slice.content()));
+    }
+    
+    /**
+     * 注册工作流模板
+     * POST /api/v1/templates
+     * 
+     * 注册时完成校验和编译，之后通过模板ID触发
+     */
+    @PostMapping("/templates")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<TemplateResponse> registerTemplate(@RequestBody ActionRequest request) {
+        return Mono.fromCallable(() -> toResponse(templateRegistry.register(request)));
+    }
+    
+    /**
+     * 查询工作流模板
+     * GET /api/v1/templates/{id}
+     */
+    @GetMapping("/templates/{id}")
+    public Mono<TemplateResponse> getTemplate(@PathVariable String id) {
+        return Mono.justOrEmpty(templateRegistry.find(id))
+            .map(SchedulerController::toResponse)
+            .switchIfEmpty(Mono.error(templateNotFound(id)));
+    }
+    
+    /**
+     * 删除工作流模板
+     * DELETE /api/v1/templates/{id}
+     */
+    @DeleteMapping("/templates/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteTemplate(@PathVariable String id) {
+        return templateRegistry.remove(id) ? Mono.empty() : Mono.error(templateNotFound(id));
+    }
+    
+    /**
+     * 触发工作流模板
+     * POST /api/v1/templates/{id}/run
+     * 
+     * 请求体为可选的context覆盖项，与/run一样登记后立即返回runId
+     */
+    @PostMapping("/templates/{id}/run")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<RunResponse> runTemplate(@PathVariable String id,
+                                         @RequestBody(required = false) Map<String, Object> context) {
+        return Mono.justOrEmpty(templateRegistry.find(id))
+            .switchIfEmpty(Mono.error(templateNotFound(id)))
+            .flatMap(template -> actionSchedulerService.submit(template, context));
+    }
+    
+    /**
+     * Action配置不合法（如needs引用不存在的Job、循环依赖）
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidAction(IllegalArgumentException e) {
+        return Map.of("error", e.getMessage());
+    }
+    
+    /**
+     * 模板数量已达scheduler.run.max-templates，与工作流本身是否合法无关，返回409
+     */
+    @ExceptionHandler(TemplateLimitExceededException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleTemplateLimitExceeded(TemplateLimitExceededException e) {
+        return Map.of("error", e.getMessage());
+    }
+    
+    /**
+     * 请求体超过scheduler.request.max-payload-size
+     */
+    @ExceptionHandler(DataBufferLimitException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public Map<String, String> handlePayloadTooLarge(DataBufferLimitException e) {
+        return Map.of("error", e.getMessage());
+    }
+    
+    /**
+     * 准入队列已满，返回429并提示重试间隔
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleAdmissionRejected(AdmissionRejectedException e) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(Map.of("error", e.getMessage()));
+    }
+    
+    private static ResponseStatusException templateNotFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Template not found: " + id);
+    }
+    
+    private static TemplateResponse toResponse(TemplateRegistry.Template template) {
+        Set<String> labels = new LinkedHashSet<>();
+        template.plan().getGraph().getNodes().forEach(node -> labels.add(node.getRequirement().getRunsOn()));
+        return new TemplateResponse(
+            template.templateId(),
+            template.plan().getName(),
+            template.plan().getGraph().size(),
+            new ArrayList<>(labels),
+            template.plan().getActions(),
+            template.plan().getContext(),
+            template.createdAt()
+        );
     }
 }
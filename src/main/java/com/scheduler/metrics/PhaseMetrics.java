@@ -0,0 +1,100 @@
+package com.scheduler.metrics;
+
+import com.scheduler.runner.RunnerTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * 调度各阶段耗时指标
+ * 统一记录到scheduler.phase计时器，按phase、runs_on和outcome打标签；
+ * 直方图和分位数通过management.metrics.distribution.*配置开启
+ */
+@Component
+public class PhaseMetrics {
+
+    public static final String METRIC = "scheduler.phase";
+
+    /**
+     * 与runs-on无关的阶段使用的标签值
+     */
+    public static final String NO_LABEL = "none";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String ERROR = "error";
+    public static final String TIMEOUT = "timeout";
+    public static final String CANCELLED = "cancelled";
+
+    private final MeterRegistry meterRegistry;
+
+    public PhaseMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 调度阶段
+     */
+    public enum Phase {
+        PARSE, ALLOCATE, CONNECT, EXECUTE;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * 记录Mono从订阅到结束的耗时，成功时结果为success
+     */
+    public <T> Mono<T> timed(Phase phase, String runsOn, Mono<T> source) {
+        return timed(phase, runsOn, source, value -> SUCCESS);
+    }
+
+    /**
+     * 记录Mono从订阅到结束的耗时
+     *
+     * @param outcome 根据结果判断outcome标签
+     */
+    public <T> Mono<T> timed(Phase phase, String runsOn, Mono<T> source, Function<T, String> outcome) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source
+                .doOnSuccess(value -> record(phase, runsOn, value != null ? outcome.apply(value) : SUCCESS, start))
+                .doOnError(error -> record(phase, runsOn, outcomeOf(error), start))
+                .doOnCancel(() -> record(phase, runsOn, CANCELLED, start));
+        });
+    }
+
+    /**
+     * 记录从start（System.nanoTime()）到现在的耗时
+     */
+    public void record(Phase phase, String runsOn, String outcome, long start) {
+        timer(phase, runsOn, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer(Phase phase, String runsOn, String outcome) {
+        return Timer.builder(METRIC)
+            .description("调度各阶段耗时")
+            .tag("phase", phase.tag())
+            .tag("runs_on", runsOn != null ? runsOn : NO_LABEL)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * 根据异常判断outcome标签：超时为timeout，其他为error
+     */
+    public static String outcomeOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RunnerTimeoutException || cause instanceof TimeoutException) {
+                return TIMEOUT;
+            }
+        }
+        return ERROR;
+    }
+}
@@ -1,10 +1,17 @@
 package com.scheduler.model;
 
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,6 +41,18 @@ public class ActionRequest {
     @JsonProperty("context")
     private Map<String, Object> context;
     
+    /**
+     * 优先级，未指定时按context中的ref和event_name推断
+     */
+    @JsonProperty("priority")
+    private RunPriority priority;
+    
+    /**
+     * 工作流级并发组，同一组内最多一个执行中和一个等待中的Run
+     */
+    @JsonProperty("concurrency")
+    private Concurrency concurrency;
+    
     /**
      * Job模型
      */
@@ -52,6 +71,110 @@ public class ActionRequest {
          */
         @JsonProperty("steps")
         private Step[] steps;
+        
+        /**
+         * 依赖的Job（支持单个字符串或数组）
+         */
+        @JsonProperty("needs")
+        @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+        private List<String> needs;
+        
+        /**
+         * 策略配置（matrix等）
+         */
+        @JsonProperty("strategy")
+        private Strategy strategy;
+        
+        /**
+         * Job级并发组，同一组内最多一个执行中和一个等待中的Job
+         */
+        @JsonProperty("concurrency")
+        private Concurrency concurrency;
+    }
+    
+    /**
+     * 并发组配置
+     * 支持字符串简写（只指定组名）或对象形式；组名可以引用${{ github.xxx }}和${{ matrix.xxx }}
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Concurrency {
+        /**
+         * 组名
+         */
+        @JsonProperty("group")
+        private String group;
+        
+        /**
+         * 新的Run（Job）进入组时是否取消组内执行中的Run（Job）
+         */
+        @JsonProperty("cancel-in-progress")
+        private boolean cancelInProgress;
+        
+        /**
+         * 字符串简写
+         */
+        public Concurrency(String group) {
+            this.group = group;
+        }
+    }
+    
+    /**
+     * Strategy模型
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Strategy {
+        /**
+         * 矩阵配置
+         */
+        @JsonProperty("matrix")
+        private Matrix matrix;
+        
+        /**
+         * 矩阵组合同时运行的上限
+         */
+        @JsonProperty("max-parallel")
+        private Integer maxParallel;
+    }
+    
+    /**
+     * Matrix模型
+     * 除include/exclude外的每个key都是一个维度，值为该维度的取值列表
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Matrix {
+        /**
+         * 维度及取值
+         */
+        @JsonIgnore
+        private Map<String, List<Object>> dimensions = new LinkedHashMap<>();
+        
+        /**
+         * 额外加入或扩展的组合
+         */
+        @JsonProperty("include")
+        private List<Map<String, Object>> include;
+        
+        /**
+         * 排除的组合（部分匹配即排除）
+         */
+        @JsonProperty("exclude")
+        private List<Map<String, Object>> exclude;
+        
+        @JsonAnySetter
+        public void setDimension(String name, Object values) {
+            dimensions.put(name, values instanceof List<?> list ? new ArrayList<>(list) : List.of(values));
+        }
+        
+        @JsonAnyGetter
+        public Map<String, List<Object>> getDimensions() {
+            return dimensions;
+        }
     }
     
     /**
@@ -0,0 +1,33 @@
+package com.scheduler.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+/**
+ * Run的优先级
+ * 排队时优先级高的Run和Job先出队，低优先级的等待时间越长优先级越高（老化），不会被饿死
+ */
+public enum RunPriority {
+    LOW,
+    NORMAL,
+    HIGH,
+    CRITICAL;
+
+    /**
+     * 按名称解析，不区分大小写
+     *
+     * @throws IllegalArgumentException 未知的优先级
+     */
+    @JsonCreator
+    public static RunPriority from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown priority: " + value);
+        }
+    }
+}
@@ -45,6 +45,26 @@ public class RunResponse {
      */
     private String message;
     
+    /**
+     * 触发的工作流模板ID，直接提交的Run为null
+     */
+    private String templateId;
+    
+    /**
+     * 优先级
+     */
+    private RunPriority priority;
+    
+    /**
+     * 复用本Run中其他Job的Runner的次数
+     */
+    private int reusedRunners;
+    
+    /**
+     * Runner复用率：复用次数占本Run获取Runner次数的比例
+     */
+    private double runnerReuseRate;
+    
     /**
      * 运行状态枚举
      */
@@ -0,0 +1,55 @@
+package com.scheduler.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Runner批量申请响应
+ * 各请求独立成功或失败，结果顺序与请求顺序一致
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunnerBatchAllocateResponse {
+    
+    /**
+     * 每个请求的结果
+     */
+    private List<Result> results;
+    
+    /**
+     * 成功数量
+     */
+    private int allocated;
+    
+    /**
+     * 失败数量
+     */
+    private int failed;
+    
+    /**
+     * 单个请求的结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        /**
+         * 请求在批次中的序号
+         */
+        private int index;
+        
+        /**
+         * 申请成功时的Runner信息
+         */
+        private RunnerAllocateResponse runner;
+        
+        /**
+         * 申请失败时的原因
+         */
+        private String error;
+    }
+}
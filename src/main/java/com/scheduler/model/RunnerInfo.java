@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Runner信息模型
@@ -39,6 +40,16 @@ public class RunnerInfo {
      */
     private LocalDateTime completedAt;
     
+    /**
+     * 运行环境（runs-on label）
+     */
+    private String runsOn;
+    
+    /**
+     * 各Step的执行状态，开始执行时创建
+     */
+    private List<StepState> steps;
+    
     /**
      * Runner状态枚举
      */
@@ -51,4 +62,35 @@ public class RunnerInfo {
         FAILED,
         RELEASED
     }
+    
+    /**
+     * Step执行状态
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StepState {
+        
+        /**
+         * Step序号（从0开始）
+         */
+        private int index;
+        
+        private StepStatus status;
+        
+        private LocalDateTime startedAt;
+        
+        private LocalDateTime completedAt;
+    }
+    
+    /**
+     * Step状态枚举
+     */
+    public enum StepStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        SKIPPED
+    }
 }
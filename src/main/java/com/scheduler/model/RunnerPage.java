@@ -0,0 +1,26 @@
+package com.scheduler.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Runner分页查询结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RunnerPage {
+    
+    /**
+     * 当前页的Runner
+     */
+    private List<RunnerInfo> runners;
+    
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+}
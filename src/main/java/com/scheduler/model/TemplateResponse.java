@@ -0,0 +1,53 @@
+package com.scheduler.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作流模板信息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateResponse {
+
+    /**
+     * 模板ID
+     */
+    private String templateId;
+
+    /**
+     * 工作流名称
+     */
+    private String name;
+
+    /**
+     * 需要Runner的Job数量
+     */
+    private int jobs;
+
+    /**
+     * 使用的Runner label（去重）
+     */
+    private List<String> labels;
+
+    /**
+     * 引用的action（去重）
+     */
+    private List<String> actions;
+
+    /**
+     * 默认context
+     */
+    private Map<String, Object> context;
+
+    /**
+     * 注册时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,276 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.StoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 有界、按TTL淘汰的状态存储
+ * 条目进入终态并超过保留时间后被淘汰；条目数超过上限时，优先淘汰最早进入终态的条目，
+ * 未进入终态的条目不会被淘汰。可选地为被淘汰的条目保留一份精简摘要，供事后查询。
+ *
+ * @param <V> 存储的值类型
+ */
+public class BoundedStateStore<V> {
+
+    private final String name;
+    private final StoreProperties.Retention retention;
+    private final Predicate<V> terminal;
+    private final UnaryOperator<V> summarizer;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<String, V> summaries;
+
+    private final List<Consumer<V>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 状态日志，未启用持久化时为null
+     */
+    private StateJournal journal;
+
+    private final Counter ttlEvictions;
+    private final Counter capacityEvictions;
+
+    BoundedStateStore(String name, StoreProperties.Retention retention, Predicate<V> terminal,
+                      UnaryOperator<V> summarizer, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.retention = retention;
+        this.terminal = terminal;
+        this.summarizer = summarizer;
+        this.nanoClock = nanoClock;
+        this.summaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > retention.getSummaryMaxEntries();
+            }
+        };
+
+        Gauge.builder("scheduler.store.size", entries, Map::size)
+            .description("状态存储中的条目数")
+            .tag("store", name)
+            .register(meterRegistry);
+        Gauge.builder("scheduler.store.summaries", this, BoundedStateStore::summaryCount)
+            .description("已淘汰条目保留的摘要数")
+            .tag("store", name)
+            .register(meterRegistry);
+        this.ttlEvictions = Counter.builder("scheduler.store.evictions")
+            .description("状态存储淘汰的条目数")
+            .tag("store", name)
+            .tag("reason", "ttl")
+            .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("scheduler.store.evictions")
+            .description("状态存储淘汰的条目数")
+            .tag("store", name)
+            .tag("reason", "capacity")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 注册淘汰监听器，条目被淘汰后回调
+     */
+    public void addEvictionListener(Consumer<V> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * 写入或更新条目，并刷新其最后更新时间（终态保留时间从此刻起算）
+     * 与其他写入一样在该键的锁内记录日志，同一条目的并发写入在存储和日志中的先后顺序一致
+     */
+    public void put(String key, V value) {
+        entries.compute(key, (k, current) -> {
+            if (journal != null) {
+                journal.appendPut(name, key, value);
+            }
+            return new Entry<>(value, nanoClock.getAsLong());
+        });
+    }
+
+    /**
+     * 写入或更新条目，并在该键的锁内回调此前的值
+     * 同一条目的并发写入依次执行，回调看到的此前值与写入顺序一致
+     *
+     * @param onPut 写入后在键的锁内回调，参数为此前的值（不存在时为null），用于维护与值一致的派生状态（如计数）
+     */
+    public void put(String key, V value, Consumer<V> onPut) {
+        entries.compute(key, (k, current) -> {
+            if (journal != null) {
+                journal.appendPut(name, key, value);
+            }
+            onPut.accept(current != null ? current.value : null);
+            return new Entry<>(value, nanoClock.getAsLong());
+        });
+    }
+
+    /**
+     * 比较并替换：仅当条目的当前值仍是expected（同一对象）时替换为updated，并刷新其最后更新时间
+     * 替换、日志记录和回调都在该键的锁内完成，同一条目的并发替换在存储、日志和派生状态中的先后顺序一致
+     *
+     * @param onReplaced 替换成功后在键的锁内回调，用于维护与值一致的派生状态（如索引）
+     * @return 条目不存在或已被并发更新时为false
+     */
+    public boolean compareAndSet(String key, V expected, V updated, Runnable onReplaced) {
+        boolean[] replaced = {false};
+        entries.computeIfPresent(key, (k, current) -> {
+            if (current.value != expected) {
+                return current;
+            }
+            if (journal != null) {
+                journal.appendPut(name, key, updated);
+            }
+            onReplaced.run();
+            replaced[0] = true;
+            return new Entry<>(updated, nanoClock.getAsLong());
+        });
+        return replaced[0];
+    }
+
+    /**
+     * 写入从状态日志恢复的条目，不再重复记录日志
+     */
+    void restore(String key, V value) {
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+    }
+
+    /**
+     * 之后的写入和淘汰都记录到状态日志
+     */
+    void journalTo(StateJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * 遍历所有未被淘汰的条目
+     */
+    void forEachLive(BiConsumer<String, V> action) {
+        entries.forEach((key, entry) -> action.accept(key, entry.value));
+    }
+
+    /**
+     * 获取条目；已被淘汰时返回其摘要（若启用），都没有时返回null
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            return entry.value;
+        }
+        if (!retention.isSummaryEnabled()) {
+            return null;
+        }
+        synchronized (summaries) {
+            return summaries.get(key);
+        }
+    }
+
+    /**
+     * 获取未被淘汰的条目
+     */
+    public V getLive(String key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 所有未被淘汰的条目
+     */
+    public Collection<V> values() {
+        return entries.values().stream().map(entry -> entry.value).toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 淘汰过期的终态条目，并在超出容量时淘汰最早进入终态的条目
+     */
+    public void evict() {
+        long now = nanoClock.getAsLong();
+        long ttlNanos = retention.getTtl().toNanos();
+        List<Map.Entry<String, Entry<V>>> terminalEntries = new ArrayList<>();
+
+        for (Map.Entry<String, Entry<V>> e : entries.entrySet()) {
+            Entry<V> entry = e.getValue();
+            if (!terminal.test(entry.value)) {
+                continue;
+            }
+            if (now - entry.updatedAt >= ttlNanos) {
+                if (remove(e.getKey(), entry)) {
+                    ttlEvictions.increment();
+                }
+            } else {
+                terminalEntries.add(e);
+            }
+        }
+
+        int excess = entries.size() - retention.getMaxEntries();
+        if (excess <= 0) {
+            return;
+        }
+        terminalEntries.sort(Comparator.comparingLong(e -> e.getValue().updatedAt));
+        for (int i = 0; i < terminalEntries.size() && excess > 0; i++) {
+            Map.Entry<String, Entry<V>> e = terminalEntries.get(i);
+            if (remove(e.getKey(), e.getValue())) {
+                capacityEvictions.increment();
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * 仅当条目未被并发更新时才移除，并记录摘要
+     */
+    private boolean remove(String key, Entry<V> entry) {
+        boolean[] removed = {false};
+        // 在键的锁内记录删除，保证与并发写入在日志中的先后顺序一致
+        entries.computeIfPresent(key, (k, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            if (journal != null) {
+                journal.appendRemove(name, key);
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (!removed[0]) {
+            return false;
+        }
+        evictionListeners.forEach(listener -> listener.accept(entry.value));
+        if (retention.isSummaryEnabled()) {
+            V summary = summarizer.apply(entry.value);
+            synchronized (summaries) {
+                summaries.put(key, summary);
+            }
+        }
+        return true;
+    }
+
+    private int summaryCount() {
+        synchronized (summaries) {
+            return summaries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long updatedAt) {
+    }
+}
@@ -0,0 +1,463 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.LogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Job日志存储
+ * 每个Run的每个Job是一条只追加的日志流，按字节偏移寻址。日志流的内容依次写入滚动的日志段文件，
+ * 文件名为该段第一个字节的偏移，段内字节与偏移一一对应；内存中只保留各段的起始偏移（稀疏索引），
+ * 读取时二分定位到日志段后把文件区域直接映射为{@link DataBuffer}返回，不经过堆内存复制。
+ *
+ * <p>目录结构：{directory}/{runId}/{job}/{起始偏移}.log，runId和Job名称以URL安全的Base64编码。
+ * 保留策略按日志段最后一次写入的时间和所有日志的总大小删除最早的日志段，被删除的范围不再可读。
+ */
+@Slf4j
+@Component
+public class LogStore {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final LogProperties properties;
+    private final Path directory;
+    private final long segmentSize;
+    private final LongSupplier clock;
+    private final Map<StreamKey, LogStream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Disposable retention;
+
+    private final Counter appendedBytes;
+    private final Counter deletedByAge;
+    private final Counter deletedBySize;
+
+    @Autowired
+    public LogStore(LogProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    LogStore(LogProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentSize = properties.getSegmentSize().toBytes();
+        this.clock = clock;
+        this.appendedBytes = Counter.builder("scheduler.logs.appended")
+            .description("写入的Job日志字节数")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.deletedByAge = Counter.builder("scheduler.logs.segments.deleted")
+            .description("保留策略删除的日志段数")
+            .tag("reason", "age")
+            .register(meterRegistry);
+        this.deletedBySize = Counter.builder("scheduler.logs.segments.deleted")
+            .description("保留策略删除的日志段数")
+            .tag("reason", "size")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.logs.size", totalBytes, AtomicLong::get)
+            .description("保留的Job日志总字节数")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            recover();
+            this.retention = Flux.interval(properties.getRetentionInterval())
+                .onBackpressureDrop()
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(tick -> enforceRetention());
+        } else {
+            this.retention = Disposables.disposed();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 单次追加的最大字节数
+     */
+    public int getMaxChunkSize() {
+        return (int) Math.min(Integer.MAX_VALUE, properties.getMaxChunkSize().toBytes());
+    }
+
+    /**
+     * 追加一段日志
+     *
+     * @return 追加后日志流的末尾偏移
+     * @throws IllegalArgumentException runId或Job名称为空，或超过单次追加的大小上限
+     */
+    public long append(String runId, String job, ByteBuffer chunk) throws IOException {
+        if (chunk.remaining() > getMaxChunkSize()) {
+            throw new IllegalArgumentException("Log chunk exceeds limit of " + properties.getMaxChunkSize());
+        }
+        StreamKey key = StreamKey.of(runId, job);
+        while (true) {
+            LogStream stream = streams.computeIfAbsent(key, k -> new LogStream(streamDirectory(k)));
+            synchronized (stream) {
+                // 加锁前已被保留策略移除时重新创建
+                if (streams.get(key) == stream) {
+                    return stream.append(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * 追加一段文本日志
+     */
+    public long append(String runId, String job, String text) throws IOException {
+        return append(runId, job, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 从指定偏移开始读取日志
+     * 偏移早于已保留的最早位置时从最早位置开始；每次最多返回maxBytes字节，且不跨越未写入的范围
+     *
+     * @return 日志流不存在时为空
+     */
+    public Optional<LogSlice> read(String runId, String job, long offset, long maxBytes) throws IOException {
+        LogStream stream = streams.get(StreamKey.of(runId, job));
+        if (stream == null) {
+            return Optional.empty();
+        }
+        return Optional.of(stream.read(Math.max(0, offset),
+            Math.max(0, Math.min(maxBytes, properties.getMaxReadSize().toBytes()))));
+    }
+
+    /**
+     * 保留的日志总字节数
+     */
+    public long size() {
+        return totalBytes.get();
+    }
+
+    /**
+     * 执行保留策略：删除超过保留时间的日志段，总大小超出上限时再按写入时间从早到晚删除，
+     * 同时关闭空闲日志流的文件句柄并移除已无日志段的空闲日志流
+     */
+    void enforceRetention() {
+        long now = clock.getAsLong();
+        long expireBefore = now - properties.getMaxAge().toMillis();
+        long idleBefore = now - properties.getRetentionInterval().toMillis();
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<StreamKey, LogStream> entry : streams.entrySet()) {
+            LogStream stream = entry.getValue();
+            synchronized (stream) {
+                for (Segment segment : stream.segments) {
+                    if (segment.lastModified < expireBefore) {
+                        stream.delete(segment);
+                        deletedByAge.increment();
+                    } else {
+                        candidates.add(new Candidate(stream, segment, segment.lastModified));
+                    }
+                }
+                if (stream.lastWrite < idleBefore) {
+                    stream.closeChannel();
+                    if (stream.segments.isEmpty() && streams.remove(entry.getKey(), stream)) {
+                        deleteQuietly(stream.directory);
+                        deleteQuietly(stream.directory.getParent());
+                    }
+                }
+            }
+        }
+
+        long maxTotal = properties.getMaxTotalSize().toBytes();
+        if (totalBytes.get() <= maxTotal) {
+            return;
+        }
+        candidates.sort(Comparator.comparingLong(Candidate::lastModified));
+        for (Candidate candidate : candidates) {
+            if (totalBytes.get() <= maxTotal) {
+                break;
+            }
+            synchronized (candidate.stream()) {
+                if (candidate.stream().segments.contains(candidate.segment())) {
+                    candidate.stream().delete(candidate.segment());
+                    deletedBySize.increment();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        retention.dispose();
+        for (LogStream stream : streams.values()) {
+            synchronized (stream) {
+                stream.closeChannel();
+            }
+        }
+    }
+
+    /**
+     * 启动时扫描目录重建各日志流的日志段索引
+     */
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> runs = Files.list(directory)) {
+                for (Path runDirectory : runs.filter(Files::isDirectory).toList()) {
+                    try (Stream<Path> jobs = Files.list(runDirectory)) {
+                        for (Path jobDirectory : jobs.filter(Files::isDirectory).toList()) {
+                            recover(runDirectory, jobDirectory);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open log store at " + directory, e);
+        }
+    }
+
+    private void recover(Path runDirectory, Path jobDirectory) throws IOException {
+        StreamKey key;
+        try {
+            key = new StreamKey(decode(runDirectory.getFileName().toString()),
+                decode(jobDirectory.getFileName().toString()));
+        } catch (IllegalArgumentException e) {
+            log.warn("忽略无法识别的日志目录: {}", jobDirectory);
+            return;
+        }
+        LogStream stream = new LogStream(jobDirectory);
+        try (Stream<Path> files = Files.list(jobDirectory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted().toList()) {
+                String name = file.getFileName().toString();
+                Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())),
+                    file, Files.getLastModifiedTime(file).toMillis());
+                segment.size = Files.size(file);
+                stream.segments.add(segment);
+                totalBytes.addAndGet(segment.size);
+            }
+        }
+        if (!stream.segments.isEmpty()) {
+            Segment last = stream.segments.get(stream.segments.size() - 1);
+            stream.end = last.base + last.size;
+            stream.lastWrite = last.lastModified;
+            streams.put(key, stream);
+        }
+    }
+
+    private Path streamDirectory(StreamKey key) {
+        return directory.resolve(encode(key.runId())).resolve(encode(key.job()));
+    }
+
+    private static String encode(String name) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String name) {
+        return new String(Base64.getUrlDecoder().decode(name), StandardCharsets.UTF_8);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // 目录非空（其他Job仍有日志）或已被删除
+        }
+    }
+
+    /**
+     * 一条日志流：一个Run中一个Job的日志
+     * 写入和删除在日志流上加锁；读取不加锁，只读取已完成写入的范围
+     */
+    private final class LogStream {
+
+        private final Path directory;
+        private final List<Segment> segments = new CopyOnWriteArrayList<>();
+        private FileChannel channel;
+        private volatile long end;
+        private volatile long lastWrite;
+
+        private LogStream(Path directory) {
+            this.directory = directory;
+        }
+
+        private long append(ByteBuffer chunk) throws IOException {
+            int length = chunk.remaining();
+            if (length == 0) {
+                return end;
+            }
+            Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (active == null || active.base + active.size != end
+                    || (active.size > 0 && active.size + length > segmentSize)) {
+                // 写满或已被保留策略删除时滚动到新的日志段
+                closeChannel();
+                Files.createDirectories(directory);
+                active = new Segment(end, directory.resolve(String.format("%020d", end) + SEGMENT_SUFFIX),
+                    clock.getAsLong());
+                segments.add(active);
+            }
+            if (channel == null) {
+                channel = FileChannel.open(active.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            }
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            active.size += length;
+            active.lastModified = clock.getAsLong();
+            lastWrite = active.lastModified;
+            end += length;
+            totalBytes.addAndGet(length);
+            appendedBytes.increment(length);
+            return end;
+        }
+
+        private LogSlice read(long offset, long maxBytes) throws IOException {
+            long limit = end;
+            List<Segment> snapshot = List.copyOf(segments);
+            long start = snapshot.isEmpty() ? limit : Math.max(offset, snapshot.get(0).base);
+            if (start >= limit || maxBytes == 0) {
+                return new LogSlice(Math.min(start, limit), Math.min(start, limit), limit, List.of());
+            }
+            long until = Math.min(limit, start + maxBytes);
+            List<ByteBuffer> regions = new ArrayList<>();
+            long position = start;
+            for (int i = floor(snapshot, start); i < snapshot.size() && position < until; i++) {
+                Segment segment = snapshot.get(i);
+                long regionEnd = Math.min(until, segment.base + segment.size);
+                if (regionEnd <= position) {
+                    continue;
+                }
+                try (FileChannel file = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                    MappedByteBuffer region = file.map(FileChannel.MapMode.READ_ONLY,
+                        position - segment.base, regionEnd - position);
+                    regions.add(region);
+                } catch (NoSuchFileException e) {
+                    // 读取期间被保留策略删除：尚未读到内容时跳过该段，否则到此为止
+                    if (regions.isEmpty()) {
+                        start = position = segment.base + segment.size;
+                        continue;
+                    }
+                    break;
+                }
+                position = regionEnd;
+            }
+            return new LogSlice(start, position, limit, regions);
+        }
+
+        /**
+         * 包含指定偏移的日志段下标（稀疏索引二分查找）
+         */
+        private static int floor(List<Segment> segments, long offset) {
+            int low = 0;
+            int high = segments.size() - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (segments.get(mid).base <= offset) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private void delete(Segment segment) {
+            if (segments.indexOf(segment) == segments.size() - 1) {
+                closeChannel();
+            }
+            segments.remove(segment);
+            totalBytes.addAndGet(-segment.size);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("删除日志段失败: {}: {}", segment.path, e.getMessage());
+            }
+        }
+
+        private void closeChannel() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("关闭日志段失败: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * 日志段：文件名为起始偏移，文件内容即该段的全部字节
+     */
+    private static final class Segment {
+
+        private final long base;
+        private final Path path;
+        private volatile long size;
+        private volatile long lastModified;
+
+        private Segment(long base, Path path, long lastModified) {
+            this.base = base;
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private record StreamKey(String runId, String job) {
+
+        static StreamKey of(String runId, String job) {
+            if (runId == null || runId.isBlank() || job == null || job.isBlank()) {
+                throw new IllegalArgumentException("runId and job are required");
+            }
+            return new StreamKey(runId, job);
+        }
+    }
+
+    private record Candidate(LogStream stream, Segment segment, long lastModified) {
+    }
+
+    /**
+     * 一次读取的结果
+     *
+     * @param startOffset 返回内容的起始偏移（请求的偏移已被删除时大于请求的偏移）
+     * @param nextOffset  下次读取的偏移
+     * @param endOffset   读取时日志流的末尾偏移
+     * @param regions     映射的文件区域，按偏移顺序排列
+     */
+    public record LogSlice(long startOffset, long nextOffset, long endOffset, List<ByteBuffer> regions) {
+
+        /**
+         * 以文件映射区域包装的DataBuffer，不复制内容
+         */
+        public Flux<DataBuffer> content() {
+            return Flux.fromIterable(regions).map(DefaultDataBufferFactory.sharedInstance::wrap);
+        }
+    }
+}
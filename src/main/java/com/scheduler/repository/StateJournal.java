@@ -0,0 +1,507 @@
+package com.scheduler.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.scheduler.config.JournalProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 状态日志（write-ahead journal）
+ * 状态存储的每次写入和淘汰都以追加方式写入内存映射的日志段文件，由单个写线程按批组提交，
+ * 每批只刷盘一次。定期生成快照并删除已被快照覆盖的日志段；启动时先加载最新快照，
+ * 再按顺序重放其后的日志段，重建各状态存储。
+ *
+ * <p>记录格式：[长度 int][CRC32C int][类型 byte][存储名][键][值JSON]，长度为0表示段结束，
+ * 校验失败的尾部记录（写到一半时崩溃）被丢弃。
+ */
+@Slf4j
+@Component
+public class StateJournal {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER_BYTES = 8;
+
+    private final JournalProperties properties;
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    /**
+     * 启动时恢复出的各存储最新状态（值为编码后的JSON），被对应存储取走后清除
+     */
+    private final Map<String, Map<String, byte[]>> recovered = new HashMap<>();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Path directory;
+    private final long segmentSize;
+    private Segment segment;
+    private volatile boolean closed;
+
+    private final Counter records;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private final Timer recoveryTimer;
+
+    public StateJournal(JournalProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentSize = properties.getSegmentSize().toBytes();
+        this.records = Counter.builder("scheduler.journal.records")
+            .description("写入状态日志的记录数")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("scheduler.journal.batch.size")
+            .description("每次组提交的记录数")
+            .register(meterRegistry);
+        this.commitTimer = Timer.builder("scheduler.journal.commit")
+            .description("每次组提交的写入和刷盘耗时")
+            .register(meterRegistry);
+        this.recoveryTimer = Timer.builder("scheduler.journal.recovery")
+            .description("启动时重放快照和日志的耗时")
+            .register(meterRegistry);
+
+        if (properties.isEnabled()) {
+            open();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Duration getSnapshotInterval() {
+        return properties.getSnapshotInterval();
+    }
+
+    /**
+     * 取走启动时恢复出的指定存储的状态，键按最后写入的顺序排列
+     */
+    public synchronized Map<String, byte[]> takeRecovered(String store) {
+        Map<String, byte[]> entries = recovered.remove(store);
+        return entries != null ? entries : Map.of();
+    }
+
+    /**
+     * 追加一条写入记录，由写线程异步组提交
+     */
+    public void appendPut(String store, String key, Object value) {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        byte[] encoded = encode(value);
+        if (encoded != null) {
+            queue.add(frame(PUT, store, key, encoded));
+        }
+    }
+
+    /**
+     * 追加一条删除记录，由写线程异步组提交
+     */
+    public void appendRemove(String store, String key) {
+        if (isEnabled() && !closed) {
+            queue.add(frame(REMOVE, store, key, new byte[0]));
+        }
+    }
+
+    public <V> V decode(byte[] payload, Class<V> type) throws IOException {
+        return objectMapper.readValue(payload, type);
+    }
+
+    /**
+     * 等待此前追加的记录全部提交
+     */
+    public void flush() {
+        if (isEnabled() && !closed) {
+            barrier(Barrier.Kind.FLUSH).join();
+        }
+    }
+
+    /**
+     * 生成快照并压缩日志
+     * 先切换到新日志段，再写出当前全部状态；快照之后的变化都在新段中，
+     * 因此快照加上新段及其后的日志即为完整状态，旧段可以删除。
+     *
+     * @param contents 写出当前状态
+     */
+    public synchronized void snapshot(Consumer<SnapshotWriter> contents) {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        long boundary = barrier(Barrier.Kind.ROTATE).join();
+        Path target = directory.resolve(snapshotName(boundary));
+        Path temp = directory.resolve(snapshotName(boundary) + ".tmp");
+        int[] count = {0};
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            contents.accept((store, key, value) -> {
+                byte[] encoded = encode(value);
+                if (encoded != null) {
+                    writeUnchecked(out, frame(PUT, store, key, encoded));
+                    count[0]++;
+                }
+            });
+            out.write(new byte[4]);
+            out.flush();
+            channel.force(true);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("状态日志快照失败: {}", e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            // 快照之前的日志段和快照都已被覆盖
+            for (Path path : list()) {
+                long index = indexOf(path);
+                if (index >= 0 && index < boundary) {
+                    deleteQuietly(path);
+                }
+            }
+            log.info("状态日志快照完成, records={}, segment={}", count[0], boundary);
+        } catch (IOException e) {
+            log.warn("状态日志快照失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        CompletableFuture<Long> done = barrier(Barrier.Kind.CLOSE);
+        closed = true;
+        done.join();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            long nextSegment = recover();
+            segment = Segment.create(directory.resolve(segmentName(nextSegment)), nextSegment, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开状态日志: " + directory, e);
+        }
+        Thread.ofPlatform().name("state-journal").daemon().start(this::writeLoop);
+    }
+
+    /**
+     * 加载最新快照并重放其后的日志段
+     *
+     * @return 下一个可用的日志段编号
+     */
+    private long recover() throws IOException {
+        long start = System.nanoTime();
+        long snapshotIndex = -1;
+        List<Long> segments = new ArrayList<>();
+        for (Path path : list()) {
+            String name = path.getFileName().toString();
+            if (name.startsWith("snapshot-") && name.endsWith(".bin")) {
+                snapshotIndex = Math.max(snapshotIndex, indexOf(path));
+            } else if (name.startsWith("snapshot-") && name.endsWith(".tmp")) {
+                deleteQuietly(path);
+            } else if (name.startsWith("segment-")) {
+                segments.add(indexOf(path));
+            }
+        }
+        segments.sort(null);
+
+        long replayed = 0;
+        if (snapshotIndex >= 0) {
+            replayed += replay(directory.resolve(snapshotName(snapshotIndex)));
+        }
+        long next = Math.max(snapshotIndex, 0);
+        for (long index : segments) {
+            if (index >= snapshotIndex) {
+                replayed += replay(directory.resolve(segmentName(index)));
+            }
+            next = Math.max(next, index + 1);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        recoveryTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        if (replayed > 0) {
+            log.info("状态日志恢复完成, records={}, elapsed={}ms", replayed, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return next;
+    }
+
+    /**
+     * 重放一个文件中的记录，遇到段结束标记或校验失败的尾部记录时停止
+     */
+    private long replay(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0) {
+                break;
+            }
+            int checksum = buffer.getInt();
+            if (length > buffer.remaining()) {
+                log.warn("状态日志尾部记录不完整, file={}", path.getFileName());
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("状态日志记录校验失败, file={}", path.getFileName());
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            apply(payload);
+            count++;
+        }
+        return count;
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte type = payload.get();
+        String store = readString(payload);
+        String key = readString(payload);
+        Map<String, byte[]> entries = recovered.computeIfAbsent(store, name -> new LinkedHashMap<>());
+        // 先删除再插入，使键保持最后写入的顺序
+        entries.remove(key);
+        if (type == PUT) {
+            byte[] value = new byte[payload.remaining()];
+            payload.get(value);
+            entries.put(key, value);
+        }
+    }
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(properties.getMaxBatchSize());
+        List<Barrier> barriers = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+
+            long start = System.nanoTime();
+            int appended = 0;
+            try {
+                for (Object item : batch) {
+                    if (item instanceof byte[] record) {
+                        write(record);
+                        appended++;
+                    } else {
+                        barriers.add((Barrier) item);
+                    }
+                }
+                commit();
+            } catch (IOException | RuntimeException e) {
+                log.error("状态日志写入失败: {}", e.getMessage());
+            }
+            if (appended > 0) {
+                commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSize.record(appended);
+                records.increment(appended);
+            }
+
+            boolean stop = false;
+            for (Barrier barrier : barriers) {
+                try {
+                    if (barrier.kind() == Barrier.Kind.ROTATE) {
+                        rotate();
+                    }
+                    stop |= barrier.kind() == Barrier.Kind.CLOSE;
+                    barrier.done().complete(segment.index);
+                } catch (IOException | RuntimeException e) {
+                    barrier.done().completeExceptionally(e);
+                }
+            }
+            batch.clear();
+            barriers.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void write(byte[] record) throws IOException {
+        if (record.length + 4 > segmentSize) {
+            log.error("状态日志记录超过日志段大小, bytes={}", record.length);
+            return;
+        }
+        if (segment.buffer.remaining() < record.length + 4) {
+            commit();
+            rotate();
+        }
+        segment.buffer.put(record);
+    }
+
+    /**
+     * 将本批写入的区间刷盘
+     */
+    private void commit() {
+        int position = segment.buffer.position();
+        if (properties.isForceOnCommit() && position > segment.committed) {
+            segment.buffer.force(segment.committed, position - segment.committed);
+        }
+        segment.committed = position;
+    }
+
+    private void rotate() throws IOException {
+        long next = segment.index + 1;
+        segment = Segment.create(directory.resolve(segmentName(next)), next, segmentSize);
+    }
+
+    private CompletableFuture<Long> barrier(Barrier.Kind kind) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        queue.add(new Barrier(kind, done));
+        return done;
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            log.warn("状态日志编码失败, type={}: {}", value.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] frame(byte type, String store, String key, byte[] value) {
+        byte[] storeBytes = store.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + storeBytes.length + 2 + keyBytes.length + value.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length);
+        buffer.putInt(length).putInt(0)
+            .put(type)
+            .putShort((short) storeBytes.length).put(storeBytes)
+            .putShort((short) keyBytes.length).put(keyBytes)
+            .put(value);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, length);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUnchecked(OutputStream out, byte[] bytes) {
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.toList();
+        }
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        int start = name.indexOf('-') + 1;
+        int end = name.indexOf('.');
+        try {
+            return Long.parseLong(name.substring(start, end));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static String segmentName(long index) {
+        return String.format("segment-%020d.log", index);
+    }
+
+    private static String snapshotName(long index) {
+        return String.format("snapshot-%020d.bin", index);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除状态日志文件失败, file={}: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 快照写出器
+     */
+    @FunctionalInterface
+    public interface SnapshotWriter {
+
+        void write(String store, String key, Object value);
+    }
+
+    /**
+     * 写线程上的控制请求：刷盘、切换日志段或关闭
+     */
+    private record Barrier(Kind kind, CompletableFuture<Long> done) {
+
+        enum Kind {
+            FLUSH, ROTATE, CLOSE
+        }
+    }
+
+    /**
+     * 当前写入的内存映射日志段
+     */
+    private static final class Segment {
+
+        private final long index;
+        private final MappedByteBuffer buffer;
+        private int committed;
+
+        private Segment(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path path, long index, long size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(index, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.StoreProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 状态存储工厂
+ * 创建具名的{@link BoundedStateStore}，并在后台按固定间隔统一执行淘汰；
+ * 启用状态日志时，持久化的存储在创建时从日志恢复，并定期生成快照压缩日志
+ */
+@Slf4j
+@Component
+public class StateStores {
+
+    private final StateJournal journal;
+    private final MeterRegistry meterRegistry;
+    private final List<BoundedStateStore<?>> stores = new CopyOnWriteArrayList<>();
+    private final List<BoundedStateStore<?>> journaled = new CopyOnWriteArrayList<>();
+    private final Disposable sweeper;
+    private final Disposable compactor;
+
+    public StateStores(StoreProperties storeProperties, StateJournal journal, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.meterRegistry = meterRegistry;
+        this.sweeper = Flux.interval(storeProperties.getSweepInterval())
+            .subscribe(tick -> sweep());
+        this.compactor = journal.isEnabled()
+            ? Flux.interval(journal.getSnapshotInterval())
+                .onBackpressureDrop()
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(tick -> compact())
+            : Disposables.disposed();
+    }
+
+    /**
+     * 创建状态存储
+     *
+     * @param name       存储名称（指标中的store标签）
+     * @param retention  保留策略
+     * @param terminal   判断条目是否已进入终态
+     * @param summarizer 生成淘汰后保留的精简摘要
+     */
+    public <V> BoundedStateStore<V> create(String name, StoreProperties.Retention retention,
+                                           Predicate<V> terminal, UnaryOperator<V> summarizer) {
+        BoundedStateStore<V> store = new BoundedStateStore<>(
+            name, retention, terminal, summarizer, meterRegistry, System::nanoTime);
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * 创建持久化的状态存储
+     * 先从状态日志恢复已有条目，之后的写入和淘汰都记录到日志
+     *
+     * @param type 值类型，用于解码日志中的条目
+     */
+    public <V> BoundedStateStore<V> create(String name, StoreProperties.Retention retention,
+                                           Predicate<V> terminal, UnaryOperator<V> summarizer, Class<V> type) {
+        BoundedStateStore<V> store = create(name, retention, terminal, summarizer);
+        if (!journal.isEnabled()) {
+            return store;
+        }
+        journal.takeRecovered(name).forEach((key, payload) -> {
+            try {
+                store.restore(key, journal.decode(payload, type));
+            } catch (IOException e) {
+                log.warn("状态日志条目解码失败, store={}, key={}: {}", name, key, e.getMessage());
+            }
+        });
+        store.journalTo(journal);
+        journaled.add(store);
+        return store;
+    }
+
+    /**
+     * 为所有持久化的存储生成快照并压缩状态日志
+     */
+    public void compact() {
+        journal.snapshot(writer -> {
+            for (BoundedStateStore<?> store : journaled) {
+                store.forEachLive((key, value) -> writer.write(store.getName(), key, value));
+            }
+        });
+    }
+
+    /**
+     * 对所有存储执行一次淘汰
+     */
+    public void sweep() {
+        for (BoundedStateStore<?> store : stores) {
+            try {
+                store.evict();
+            } catch (RuntimeException e) {
+                log.warn("状态存储淘汰失败, store={}: {}", store.getName(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void dispose() {
+        sweeper.dispose();
+        compactor.dispose();
+    }
+}
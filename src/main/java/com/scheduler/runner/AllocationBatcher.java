@@ -0,0 +1,90 @@
+package com.scheduler.runner;
+
+import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerAllocateResponse;
+import com.scheduler.model.RunnerBatchAllocateResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runner申请合并器
+ * 将时间窗口内的多个单次申请合并为一次{@link RunnerService#allocateRunners}调用，
+ * 再把批量结果分发回各个申请方。每个Run使用独立的实例，Run结束时释放。
+ * 申请方在结果返回前取消时，分配到的Runner立即释放。
+ */
+public class AllocationBatcher implements Disposable {
+
+    private final RunnerService runnerService;
+    private final Sinks.Many<Pending> pending = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable subscription;
+
+    public AllocationBatcher(RunnerService runnerService, int maxBatchSize, Duration window) {
+        this.runnerService = runnerService;
+        this.subscription = pending.asFlux()
+            .bufferTimeout(Math.max(1, maxBatchSize), window)
+            .flatMap(this::allocate)
+            .subscribe();
+    }
+
+    /**
+     * 申请一个Runner，与同一窗口内的其他申请合并提交
+     */
+    public Mono<RunnerAllocateResponse> allocate(RunnerAllocateRequest request) {
+        return Mono.defer(() -> {
+            Pending entry = new Pending(request, Sinks.one(), new AtomicBoolean());
+            Sinks.EmitResult emitResult;
+            // 多个Job可能在不同线程同时申请，串行写入
+            synchronized (pending) {
+                emitResult = pending.tryEmitNext(entry);
+            }
+            if (emitResult.isFailure()) {
+                return Mono.error(new IllegalStateException("Allocation batcher is closed"));
+            }
+            return entry.result().asMono().doOnCancel(() -> entry.claimed().set(true));
+        });
+    }
+
+    private Mono<Void> allocate(List<Pending> batch) {
+        List<RunnerAllocateRequest> requests = batch.stream().map(Pending::request).toList();
+        return runnerService.allocateRunners(requests)
+            .doOnNext(response -> {
+                for (RunnerBatchAllocateResponse.Result result : response.getResults()) {
+                    Pending entry = batch.get(result.getIndex());
+                    Sinks.One<RunnerAllocateResponse> sink = entry.result();
+                    if (result.getRunner() != null) {
+                        if (entry.claimed().compareAndSet(false, true)) {
+                            sink.tryEmitValue(result.getRunner());
+                        } else {
+                            runnerService.releaseRunner(result.getRunner().getRunnerId()).subscribe();
+                        }
+                    } else {
+                        sink.tryEmitError(new RuntimeException("Runner allocation failed: " + result.getError()));
+                    }
+                }
+            })
+            .doOnError(error -> batch.forEach(p -> p.result().tryEmitError(error)))
+            .onErrorResume(error -> Mono.empty())
+            .then();
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (pending) {
+            pending.tryEmitComplete();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return subscription.isDisposed();
+    }
+
+    private record Pending(RunnerAllocateRequest request, Sinks.One<RunnerAllocateResponse> result,
+                           AtomicBoolean claimed) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.scheduler.runner;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 最近N次耗时的滑动窗口
+ * 用于估算近期的延迟分位数（如对冲申请的触发阈值）
+ */
+class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private long count;
+
+    LatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[Math.max(1, windowSize)];
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * 记录一次耗时
+     */
+    synchronized void record(long nanos) {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * 窗口内耗时的分位数，样本不足时返回null
+     *
+     * @param quantile 分位数（0~1）
+     */
+    Duration percentile(double quantile) {
+        long[] window;
+        synchronized (this) {
+            if (count < minSamples) {
+                return null;
+            }
+            window = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+        }
+        Arrays.sort(window);
+        int index = (int) Math.ceil(quantile * window.length) - 1;
+        return Duration.ofNanos(window[Math.max(0, Math.min(index, window.length - 1))]);
+    }
+}
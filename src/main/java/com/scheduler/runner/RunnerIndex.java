@@ -0,0 +1,126 @@
+package com.scheduler.runner;
+
+import com.scheduler.model.RunnerInfo;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runner二级索引
+ * 按(label, 状态)维护有序的runnerId集合，同时维护仅按label、仅按状态以及全部Runner的集合，
+ * 因此任意条件组合的查询都只需读取一个集合。集合按runnerId排序，以runnerId作为分页游标。
+ * 另外按状态维护计数，供指标读取（跳表集合的size()需要遍历）。
+ */
+class RunnerIndex {
+
+    private final Map<Key, NavigableSet<String>> sets = new ConcurrentHashMap<>();
+    private final Map<RunnerInfo.RunnerStatus, LongAdder> counts = new EnumMap<>(RunnerInfo.RunnerStatus.class);
+
+    RunnerIndex() {
+        for (RunnerInfo.RunnerStatus status : RunnerInfo.RunnerStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * 加入新的Runner
+     */
+    void add(String runnerId, String label, RunnerInfo.RunnerStatus status) {
+        set(new Key(label, status)).add(runnerId);
+        set(new Key(label, null)).add(runnerId);
+        if (set(new Key(null, status)).add(runnerId)) {
+            counts.get(status).increment();
+        }
+        set(new Key(null, null)).add(runnerId);
+    }
+
+    /**
+     * Runner状态变化
+     */
+    void move(String runnerId, String label, RunnerInfo.RunnerStatus from, RunnerInfo.RunnerStatus to) {
+        if (from == to) {
+            return;
+        }
+        // 先加后删，查询期间不会漏掉该Runner
+        set(new Key(label, to)).add(runnerId);
+        if (set(new Key(null, to)).add(runnerId)) {
+            counts.get(to).increment();
+        }
+        set(new Key(label, from)).remove(runnerId);
+        if (set(new Key(null, from)).remove(runnerId)) {
+            counts.get(from).decrement();
+        }
+    }
+
+    /**
+     * 移除Runner
+     */
+    void remove(String runnerId, String label, RunnerInfo.RunnerStatus status) {
+        set(new Key(label, status)).remove(runnerId);
+        set(new Key(label, null)).remove(runnerId);
+        if (set(new Key(null, status)).remove(runnerId)) {
+            counts.get(status).decrement();
+        }
+        set(new Key(null, null)).remove(runnerId);
+    }
+
+    /**
+     * 指定状态的Runner数量
+     */
+    long count(RunnerInfo.RunnerStatus status) {
+        return counts.get(status).sum();
+    }
+
+    /**
+     * 获取任意一个符合条件的Runner，没有时返回null
+     *
+     * @param label  runs-on label，null表示不限
+     * @param status 状态，null表示不限
+     */
+    String findAny(String label, RunnerInfo.RunnerStatus status) {
+        NavigableSet<String> set = sets.get(new Key(label, status));
+        if (set == null) {
+            return null;
+        }
+        Iterator<String> iterator = set.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * 按runnerId顺序分页列出符合条件的Runner
+     *
+     * @param after 游标，返回严格大于该值的runnerId；null表示从头开始
+     */
+    List<String> page(String label, RunnerInfo.RunnerStatus status, String after, int limit) {
+        NavigableSet<String> set = sets.get(new Key(label, status));
+        if (set == null) {
+            return List.of();
+        }
+        NavigableSet<String> tail = after != null ? set.tailSet(after, false) : set;
+        List<String> page = new ArrayList<>(Math.min(limit, 256));
+        for (String runnerId : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(runnerId);
+        }
+        return page;
+    }
+
+    private NavigableSet<String> set(Key key) {
+        return sets.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>());
+    }
+
+    /**
+     * 索引键，字段为null表示该维度不限
+     */
+    private record Key(String label, RunnerInfo.RunnerStatus status) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.scheduler.runner;
+
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预热Runner池
+ * 按runs-on label保存一批已完成申请和连接（CONNECTED）的Runner，
+ * 调度时优先从池中获取，跳过申请和连接的耗时
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunnerPool {
+
+    private final RunnerService runnerService;
+    private final RunnerProperties runnerProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 各label的空闲Runner
+     */
+    private final Map<String, LabelPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 应用启动后为配置的label预热Runner
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!runnerProperties.getPool().isEnabled()) {
+            return;
+        }
+        runnerProperties.getPool().getLabels().keySet()
+            .forEach(label -> refill(pool(label), runnerProperties.getPool().sizeFor(label).getMinSize()));
+    }
+
+    /**
+     * 从池中获取一个已连接的Runner
+     * 命中时返回该Runner，未命中时返回空，由调用方回退到冷申请
+     */
+    public Mono<RunnerInfo> acquire(String runsOn) {
+        if (!runnerProperties.getPool().isEnabled() || runsOn == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            LabelPool pool = pool(runsOn);
+            RunnerInfo runner = pool.idle.poll();
+            RunnerProperties.Size size = runnerProperties.getPool().sizeFor(runsOn);
+            if (runner != null) {
+                pool.idleCount.decrementAndGet();
+                pool.hits.increment();
+                refill(pool, size.getMinSize());
+                return Mono.just(runner);
+            }
+            pool.misses.increment();
+            // 未命中说明需求超过常驻容量，按需扩容至上限
+            refill(pool, Math.min(pool.idleCount.get() + pool.refilling.get() + 1, size.getMaxSize()));
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * 获取指定label当前的空闲Runner数量
+     */
+    public int idleCount(String runsOn) {
+        LabelPool pool = pools.get(runsOn);
+        return pool == null ? 0 : pool.idleCount.get();
+    }
+
+    /**
+     * 补充Runner直到空闲数与补充中的数量之和达到目标值
+     */
+    private void refill(LabelPool pool, int target) {
+        int pending;
+        while (pool.idleCount.get() + (pending = pool.refilling.get()) < target) {
+            if (pool.refilling.compareAndSet(pending, pending + 1)) {
+                refillOne(pool);
+            }
+        }
+    }
+
+    /**
+     * 申请并连接一个Runner放入池中
+     */
+    private void refillOne(LabelPool pool) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        runnerService.allocateRunner(new RunnerAllocateRequest(pool.label, null))
+            .flatMap(response -> runnerService.connectRunner(response.getRunnerId()))
+            .subscribe(runner -> {
+                sample.stop(pool.refillTimer);
+                pool.idle.offer(runner);
+                pool.idleCount.incrementAndGet();
+                pool.refilling.decrementAndGet();
+            }, error -> {
+                pool.refilling.decrementAndGet();
+                log.warn("Runner池补充失败, label={}: {}", pool.label, error.getMessage());
+            });
+    }
+
+    private LabelPool pool(String label) {
+        return pools.computeIfAbsent(label, this::createPool);
+    }
+
+    private LabelPool createPool(String label) {
+        LabelPool pool = new LabelPool(label,
+            Counter.builder("scheduler.runner.pool.requests")
+                .description("从预热池获取Runner的次数")
+                .tag("label", label)
+                .tag("result", "hit")
+                .register(meterRegistry),
+            Counter.builder("scheduler.runner.pool.requests")
+                .description("从预热池获取Runner的次数")
+                .tag("label", label)
+                .tag("result", "miss")
+                .register(meterRegistry),
+            Timer.builder("scheduler.runner.pool.refill")
+                .description("预热池补充一个Runner（申请+连接）的耗时")
+                .tag("label", label)
+                .register(meterRegistry));
+        Gauge.builder("scheduler.runner.pool.idle", pool.idleCount, AtomicInteger::get)
+            .description("预热池中的空闲Runner数量")
+            .tag("label", label)
+            .register(meterRegistry);
+        return pool;
+    }
+
+    /**
+     * 单个label的池
+     */
+    @RequiredArgsConstructor
+    private static class LabelPool {
+        private final String label;
+        private final Counter hits;
+        private final Counter misses;
+        private final Timer refillTimer;
+        private final Queue<RunnerInfo> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final AtomicInteger refilling = new AtomicInteger();
+    }
+}
@@ -1,18 +1,30 @@
 package com.scheduler.runner;
 
+import com.scheduler.config.ExecutionSchedulers;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.metrics.PhaseMetrics;
 import com.scheduler.model.RunnerAllocateRequest;
 import com.scheduler.model.RunnerAllocateResponse;
+import com.scheduler.model.RunnerBatchAllocateResponse;
 import com.scheduler.model.RunnerInfo;
+import com.scheduler.model.RunnerPage;
+import com.scheduler.repository.BoundedStateStore;
+import com.scheduler.repository.StateStores;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
 
 /**
  * Runner管理服务
@@ -21,114 +33,401 @@ import java.util.concurrent.Executors;
 @Service
 public class RunnerService {
     
+    private final ExecutionSchedulers executionSchedulers;
+    private final RunnerProperties runnerProperties;
+    private final PhaseMetrics phaseMetrics;
+    
     /**
      * Runner存储（模拟数据库）
+     * 保存不可变的{@link RunnerState}，每次变化以比较并替换的方式写入；
+     * 进入终态（COMPLETED/FAILED/RELEASED）的Runner超过保留时间后淘汰
+     */
+    private final BoundedStateStore<RunnerState> runners;
+    
+    /**
+     * 按label和状态的二级索引，随状态变化和淘汰同步维护
      */
-    private final Map<String, RunnerInfo> runners = new ConcurrentHashMap<>();
+    private final RunnerIndex index = new RunnerIndex();
+    
+    /**
+     * 近期单次申请耗时，用于计算对冲阈值
+     */
+    private final LatencyTracker allocationLatency;
+    
+    /**
+     * 模拟执行时单个Step的耗时分布
+     */
+    private final StepDurationModel stepDurations;
+    
+    private final Counter hedgedAllocations;
+    private final Counter hedgeWins;
+    private final Counter rejectedTransitions;
+    
+    public RunnerService(ExecutionSchedulers executionSchedulers, RunnerProperties runnerProperties,
+                         StateStores stateStores, StoreProperties storeProperties, PhaseMetrics phaseMetrics,
+                         MeterRegistry meterRegistry) {
+        this.executionSchedulers = executionSchedulers;
+        this.runnerProperties = runnerProperties;
+        this.phaseMetrics = phaseMetrics;
+        RunnerProperties.Hedge hedge = runnerProperties.getHedge();
+        this.allocationLatency = new LatencyTracker(hedge.getWindowSize(), hedge.getMinSamples());
+        this.stepDurations = StepDurationModel.of(runnerProperties.getSimulation().getStep());
+        this.hedgedAllocations = Counter.builder("scheduler.runner.allocation.hedged")
+            .description("发起的对冲申请次数")
+            .register(meterRegistry);
+        this.hedgeWins = Counter.builder("scheduler.runner.allocation.hedge.wins")
+            .description("由对冲申请先完成的申请次数")
+            .register(meterRegistry);
+        this.rejectedTransitions = Counter.builder("scheduler.runner.transitions.rejected")
+            .description("因不符合状态机而被拒绝的Runner状态变化次数")
+            .register(meterRegistry);
+        this.runners = stateStores.create("runners", storeProperties.getRunners(),
+            RunnerState::isTerminal, RunnerState::summary, RunnerState.class);
+        // 从状态日志恢复的Runner重建索引
+        for (RunnerState runner : runners.values()) {
+            index.add(runner.runnerId(), runner.runsOn(), runner.status());
+        }
+        // 淘汰只移除终态条目，且在状态变化（键的锁内维护索引）之后发生
+        this.runners.addEvictionListener(runner -> index.remove(runner.runnerId(), runner.runsOn(), runner.status()));
+        // 从状态日志恢复的未释放Runner已无执行流程，直接释放（正在执行的Step标记为FAILED），以便按保留时间淘汰
+        for (RunnerState runner : runners.values()) {
+            if (!runner.isTerminal()) {
+                transition(runner.runnerId(), RunnerInfo.RunnerStatus.RELEASED);
+            }
+        }
+        for (RunnerInfo.RunnerStatus status : RunnerInfo.RunnerStatus.values()) {
+            Gauge.builder("scheduler.runners", index, idx -> idx.count(status))
+                .description("各状态的Runner数量")
+                .tag("status", status.name().toLowerCase())
+                .register(meterRegistry);
+        }
+    }
     
     /**
      * 申请Runner
      * 模拟向资源服务申请Runner的过程
-     * 使用虚拟线程和响应式编程
+     * 在配置的执行调度器上处理；启用对冲时，耗时超过近期分位数后再发起一次申请，
+     * 取先完成者，落后的一方若已分配则立即释放
      */
     public Mono<RunnerAllocateResponse> allocateRunner(RunnerAllocateRequest request) {
-        return Mono.delay(Duration.ofMillis(100))
-            .publishOn(Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor()))
+        Duration timeout = runnerProperties.getAllocationTimeout();
+        RunnerProperties.Hedge hedge = runnerProperties.getHedge();
+        Duration hedgeDelay = hedge.isEnabled() ? allocationLatency.percentile(hedge.getPercentile()) : null;
+        
+        AtomicBoolean claimed = new AtomicBoolean();
+        Mono<RunnerAllocateResponse> allocation = allocateAttempt(request, claimed);
+        if (hedgeDelay != null && hedgeDelay.compareTo(timeout) < 0) {
+            Mono<RunnerAllocateResponse> hedged = Mono.delay(hedgeDelay)
+                .doOnNext(tick -> hedgedAllocations.increment())
+                .then(allocateAttempt(request, claimed))
+                .doOnNext(response -> hedgeWins.increment());
+            allocation = Mono.firstWithValue(allocation, hedged);
+        }
+        // 超时或被取消后，仍在进行的申请不再交付结果，已分配的Runner立即释放
+        allocation = allocation.doOnCancel(() -> claimed.set(true));
+        return phaseMetrics.timed(PhaseMetrics.Phase.ALLOCATE, request.getRunsOn(), allocation
+            .timeout(timeout, Mono.error(() -> new RunnerTimeoutException("allocation", request.getRunsOn(), timeout))));
+    }
+    
+    /**
+     * 单次申请
+     * 只有先认领成功的一次申请返回结果；落后一方尚未分配时直接放弃，已分配时立即释放
+     */
+    private Mono<RunnerAllocateResponse> allocateAttempt(RunnerAllocateRequest request, AtomicBoolean claimed) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return simulate(runnerProperties.getSimulation().getAllocateDelay())
+                .publishOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.ALLOCATE))
+                .handle((delay, sink) -> {
+                    if (claimed.get()) {
+                        return;
+                    }
+                    RunnerAllocateResponse response = createRunner(request);
+                    allocationLatency.record(System.nanoTime() - start);
+                    if (claimed.compareAndSet(false, true)) {
+                        sink.next(response);
+                    } else {
+                        release(response.getRunnerId());
+                    }
+                });
+        });
+    }
+    
+    /**
+     * 批量申请Runner
+     * 一次往返完成整批申请，每个请求独立成功或失败；超过单批上限的请求直接失败
+     */
+    public Mono<RunnerBatchAllocateResponse> allocateRunners(List<RunnerAllocateRequest> requests) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return allocateBatch(requests)
+                // 每个请求按各自的label记录一次申请耗时
+                .doOnSuccess(response -> response.getResults().forEach(result -> {
+                    RunnerAllocateRequest request = requests.get(result.getIndex());
+                    phaseMetrics.record(PhaseMetrics.Phase.ALLOCATE, request != null ? request.getRunsOn() : null,
+                        result.getError() == null ? PhaseMetrics.SUCCESS : PhaseMetrics.ERROR, start);
+                }))
+                .doOnError(error -> requests.forEach(request -> phaseMetrics.record(PhaseMetrics.Phase.ALLOCATE,
+                    request != null ? request.getRunsOn() : null, PhaseMetrics.outcomeOf(error), start)));
+        });
+    }
+    
+    private Mono<RunnerBatchAllocateResponse> allocateBatch(List<RunnerAllocateRequest> requests) {
+        return simulate(runnerProperties.getSimulation().getAllocateDelay())
+            .publishOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.ALLOCATE))
             .map(delay -> {
-                // 生成Runner ID
-                String runnerId = "runner-" + UUID.randomUUID().toString().substring(0, 8);
-                
-                // 创建Runner信息
-                RunnerInfo runnerInfo = new RunnerInfo(
-                    runnerId,
-                    RunnerInfo.RunnerStatus.ALLOCATED,
-                    LocalDateTime.now(),
-                    null,
-                    null
-                );
-                
-                // 存储Runner
-                runners.put(runnerId, runnerInfo);
-                
-                // 返回响应
-                return new RunnerAllocateResponse(
-                    runnerId,
-                    RunnerInfo.RunnerStatus.ALLOCATED,
-                    LocalDateTime.now(),
-                    "http://runner-service/runners/" + runnerId + "/connect"
-                );
-            });
+                int maxSize = runnerProperties.getBatch().getMaxSize();
+                List<RunnerBatchAllocateResponse.Result> results = new ArrayList<>(requests.size());
+                int allocated = 0;
+                for (int i = 0; i < requests.size(); i++) {
+                    RunnerAllocateRequest request = requests.get(i);
+                    if (i >= maxSize) {
+                        results.add(new RunnerBatchAllocateResponse.Result(i, null,
+                            "Batch size limit exceeded: " + maxSize));
+                    } else if (request == null || request.getRunsOn() == null) {
+                        results.add(new RunnerBatchAllocateResponse.Result(i, null, "runsOn is required"));
+                    } else {
+                        results.add(new RunnerBatchAllocateResponse.Result(i, createRunner(request), null));
+                        allocated++;
+                    }
+                }
+                return new RunnerBatchAllocateResponse(results, allocated, requests.size() - allocated);
+            })
+            .timeout(runnerProperties.getAllocationTimeout(), Mono.error(() -> new RunnerTimeoutException(
+                "batch allocation", requests.size() + " requests", runnerProperties.getAllocationTimeout())));
+    }
+    
+    /**
+     * 创建并登记一个已分配的Runner
+     */
+    private RunnerAllocateResponse createRunner(RunnerAllocateRequest request) {
+        // 生成Runner ID
+        String runnerId = "runner-" + UUID.randomUUID().toString().substring(0, 8);
+        
+        // 创建Runner状态
+        RunnerState runner = RunnerState.allocated(runnerId, request.getRunsOn(), RunnerState.now());
+        
+        // 存储Runner并建立索引
+        runners.put(runnerId, runner);
+        index.add(runnerId, runner.runsOn(), runner.status());
+        
+        // 返回响应
+        return new RunnerAllocateResponse(
+            runnerId,
+            RunnerInfo.RunnerStatus.ALLOCATED,
+            LocalDateTime.now(),
+            "http://runner-service/runners/" + runnerId + "/connect"
+        );
     }
     
     /**
      * 查询Runner状态
-     * 使用虚拟线程执行
+     * 在配置的执行调度器上处理
      */
     public Mono<RunnerInfo> getRunnerStatus(String runnerId) {
         return Mono.fromCallable(() -> {
-            RunnerInfo runner = runners.get(runnerId);
+            RunnerState runner = runners.get(runnerId);
             if (runner == null) {
                 throw new RuntimeException("Runner not found: " + runnerId);
             }
-            return runner;
-        }).subscribeOn(Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor()));
+            return runner.toInfo();
+        }).subscribeOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.STATUS));
     }
     
     /**
      * 模拟Runner连接
-     * 使用虚拟线程和响应式编程
+     * 在配置的执行调度器上处理
      */
     public Mono<RunnerInfo> connectRunner(String runnerId) {
-        return Mono.delay(Duration.ofMillis(200))
-            .publishOn(Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor()))
-            .map(delay -> {
-                RunnerInfo runner = runners.get(runnerId);
-                if (runner == null) {
-                    throw new RuntimeException("Runner not found: " + runnerId);
-                }
-                
-                // 更新Runner状态
-                runner.setStatus(RunnerInfo.RunnerStatus.CONNECTED);
-                runner.setConnectedAt(LocalDateTime.now());
-                
-                return runner;
-            });
+        Duration timeout = runnerProperties.getConnectionTimeout();
+        return phaseMetrics.timed(PhaseMetrics.Phase.CONNECT, labelOf(runnerId), simulate(runnerProperties.getSimulation().getConnectDelay())
+            .publishOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.CONNECT))
+            .map(delay -> current(transition(runnerId, RunnerInfo.RunnerStatus.CONNECTED), runnerId).toInfo())
+            .timeout(timeout, Mono.error(() -> new RunnerTimeoutException("connection", runnerId, timeout))));
     }
     
     /**
-     * 模拟Runner执行
-     * 使用虚拟线程和响应式编程
+     * 模拟Runner执行（单个Step）
      */
     public Mono<RunnerInfo> executeRunner(String runnerId) {
-        return Mono.delay(Duration.ofMillis(500))
-            .publishOn(Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor()))
-            .map(delay -> {
-                RunnerInfo runner = runners.get(runnerId);
+        return executeRunner(runnerId, 1);
+    }
+    
+    /**
+     * 模拟Runner执行
+     * 在配置的执行调度器上处理：先经过Job级固定开销，再按顺序执行各Step，每个Step的耗时从配置的分布中采样；
+     * 执行超时随Step数量增长，超过执行超时的Runner标记为FAILED，正在执行的Step标记为FAILED，其余未执行的Step标记为SKIPPED
+     * 
+     * @param stepCount Job的Step数量
+     */
+    public Mono<RunnerInfo> executeRunner(String runnerId, int stepCount) {
+        Duration timeout = runnerProperties.executionTimeoutFor(stepCount);
+        Mono<RunnerInfo> execution = simulate(runnerProperties.getSimulation().getExecuteDelay())
+            .publishOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.EXECUTE))
+            .flatMap(delay -> {
+                // 更新Runner状态并创建各Step的状态
+                RunnerState started = transition(runnerId, RunnerInfo.RunnerStatus.RUNNING,
+                    current -> current.start(stepCount));
+                if (started == null) {
+                    // 当前状态不允许执行（如已被释放），不再执行Step
+                    return Mono.fromCallable(() -> current(null, runnerId).toInfo());
+                }
+                return Flux.range(0, stepCount)
+                    .concatMap(step -> executeStep(runnerId, step))
+                    .then(Mono.fromCallable(() -> {
+                        // 所有Step完成后更新状态
+                        return current(transition(runnerId, RunnerInfo.RunnerStatus.COMPLETED), runnerId).toInfo();
+                    }));
+            })
+            .timeout(timeout, Mono.error(() -> new RunnerTimeoutException("execution", runnerId, timeout)));
+        return phaseMetrics.timed(PhaseMetrics.Phase.EXECUTE, labelOf(runnerId), execution,
+                runner -> runner.getStatus() == RunnerInfo.RunnerStatus.COMPLETED
+                    ? PhaseMetrics.SUCCESS : PhaseMetrics.FAILURE)
+            .onErrorResume(RunnerTimeoutException.class, error -> Mono.fromCallable(() -> {
+                RunnerState failed = transition(runnerId, RunnerInfo.RunnerStatus.FAILED);
+                RunnerState runner = failed != null ? failed : runners.getLive(runnerId);
                 if (runner == null) {
-                    throw new RuntimeException("Runner not found: " + runnerId);
+                    throw error;
                 }
-                
-                // 更新Runner状态
-                runner.setStatus(RunnerInfo.RunnerStatus.RUNNING);
-                // 模拟执行完成后更新状态
-                runner.setStatus(RunnerInfo.RunnerStatus.COMPLETED);
-                runner.setCompletedAt(LocalDateTime.now());
-                
-                return runner;
-            });
+                return runner.toInfo();
+            }));
+    }
+    
+    /**
+     * 执行单个Step
+     * Runner不再处于执行中（已被释放或已失败）时跳过
+     */
+    private Mono<Void> executeStep(String runnerId, int step) {
+        return Mono.defer(() -> {
+            long startedAt = RunnerState.now();
+            if (update(runnerId, current -> current.withStep(step, RunnerInfo.StepStatus.RUNNING, startedAt)) == null) {
+                return Mono.empty();
+            }
+            return simulate(stepDurations.sample()).doOnNext(delay -> {
+                long completedAt = RunnerState.now();
+                update(runnerId, current -> current.withStep(step, RunnerInfo.StepStatus.COMPLETED, completedAt));
+            }).then();
+        });
     }
     
     /**
      * 释放Runner
      */
     public Mono<Void> releaseRunner(String runnerId) {
-        return Mono.fromRunnable(() -> {
-            RunnerInfo runner = runners.get(runnerId);
-            if (runner != null) {
-                runner.setStatus(RunnerInfo.RunnerStatus.RELEASED);
-                // 可以选择删除或保留历史记录
-                // runners.remove(runnerId);
+        return Mono.fromRunnable(() -> release(runnerId));
+    }
+    
+    private void release(String runnerId) {
+        // 执行中被释放时中止未完成的Step；保留历史记录，超过保留时间后由状态存储淘汰
+        transition(runnerId, RunnerInfo.RunnerStatus.RELEASED);
+    }
+    
+    /**
+     * 按label和状态分页查询Runner
+     * 
+     * @param label  runs-on label，null表示不限
+     * @param status 状态，null表示不限
+     * @param cursor 上一页返回的游标，null表示第一页
+     * @param limit  每页数量
+     */
+    public Mono<RunnerPage> queryRunners(String label, RunnerInfo.RunnerStatus status, String cursor, int limit) {
+        return Mono.fromCallable(() -> {
+            // 多取一条用于判断是否还有下一页
+            List<String> ids = index.page(label, status, cursor, limit + 1);
+            boolean hasMore = ids.size() > limit;
+            List<RunnerInfo> page = new ArrayList<>(Math.min(ids.size(), limit));
+            for (String runnerId : hasMore ? ids.subList(0, limit) : ids) {
+                RunnerState runner = runners.getLive(runnerId);
+                if (runner != null) {
+                    page.add(runner.toInfo());
+                }
             }
+            return new RunnerPage(page, hasMore ? ids.get(limit - 1) : null);
+        }).subscribeOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.STATUS));
+    }
+    
+    /**
+     * 查找任意一个指定label和状态的Runner，没有时返回空
+     */
+    public Mono<RunnerInfo> findRunner(String label, RunnerInfo.RunnerStatus status) {
+        return Mono.fromSupplier(() -> {
+            String runnerId = index.findAny(label, status);
+            RunnerState runner = runnerId != null ? runners.getLive(runnerId) : null;
+            return runner != null ? runner.toInfo() : null;
         });
     }
+    
+    /**
+     * 模拟资源服务的耗时，为0时立即完成
+     */
+    private static Mono<Long> simulate(Duration delay) {
+        return delay.isZero() ? Mono.just(0L) : Mono.delay(delay);
+    }
+    
+    /**
+     * Runner的label，用于指标标签
+     */
+    private String labelOf(String runnerId) {
+        RunnerState runner = runners.getLive(runnerId);
+        return runner != null ? runner.runsOn() : null;
+    }
+    
+    /**
+     * 按状态机变更Runner状态
+     * 
+     * @return 变更后的状态；Runner不存在、已处于该状态或变化不合法时为null
+     */
+    private RunnerState transition(String runnerId, RunnerInfo.RunnerStatus status) {
+        long now = RunnerState.now();
+        return transition(runnerId, status, current -> current.moveTo(status, now));
+    }
+    
+    private RunnerState transition(String runnerId, RunnerInfo.RunnerStatus status, UnaryOperator<RunnerState> change) {
+        return update(runnerId, current -> {
+            RunnerState next = change.apply(current);
+            if (next == null && current.status() != status) {
+                // 例如已释放的Runner不再变化，避免被取消前已开始的连接或执行覆盖
+                rejectedTransitions.increment();
+            }
+            return next;
+        });
+    }
+    
+    /**
+     * 以比较并替换的方式更新Runner状态，并同步索引和存储
+     * 基于读到的状态计算新状态，写入时状态已被并发修改则基于最新状态重新计算
+     * 
+     * @param change 计算新状态，返回null表示不变更
+     * @return 更新后的状态；Runner不存在或不变更时为null
+     */
+    private RunnerState update(String runnerId, UnaryOperator<RunnerState> change) {
+        while (true) {
+            RunnerState current = runners.getLive(runnerId);
+            if (current == null) {
+                return null;
+            }
+            RunnerState next = change.apply(current);
+            if (next == null) {
+                return null;
+            }
+            if (runners.compareAndSet(runnerId, current, next,
+                    () -> index.move(runnerId, current.runsOn(), current.status(), next.status()))) {
+                return next;
+            }
+        }
+    }
+    
+    /**
+     * 变更后的状态，未变更时取当前状态
+     */
+    private RunnerState current(RunnerState updated, String runnerId) {
+        if (updated != null) {
+            return updated;
+        }
+        RunnerState runner = runners.getLive(runnerId);
+        if (runner == null) {
+            throw new RuntimeException("Runner not found: " + runnerId);
+        }
+        return runner;
+    }
 }
@@ -0,0 +1,187 @@
+package com.scheduler.runner;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.scheduler.model.RunnerInfo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runner的内部状态
+ * 不可变记录，时间以纪元纳秒（0表示未发生）保存，各Step的状态和时间压缩为基本类型数组，
+ * 每次变化生成新的记录，由{@link RunnerService}以比较并替换的方式写入存储。
+ * 对外的{@link RunnerInfo}只在API边界由{@link #toInfo()}生成。
+ *
+ * <p>状态机：ALLOCATED→CONNECTED→RUNNING→COMPLETED/FAILED→RELEASED。
+ * 任意未释放的状态都可以直接释放；连接后执行前超时可以直接失败；
+ * COMPLETED的Runner可以再次执行（同一Run内复用）；其他变化都不合法。
+ *
+ * @param stepStatuses 各Step的状态（{@link RunnerInfo.StepStatus}的序号），未开始执行时为null
+ * @param stepTimes    各Step的开始和完成时间，第i个Step位于2i和2i+1，未开始执行时为null
+ */
+public record RunnerState(
+    String runnerId,
+    String runsOn,
+    RunnerInfo.RunnerStatus status,
+    long allocatedAt,
+    long connectedAt,
+    long completedAt,
+    byte[] stepStatuses,
+    long[] stepTimes
+) {
+
+    private static final RunnerInfo.StepStatus[] STEP_STATUSES = RunnerInfo.StepStatus.values();
+
+    /**
+     * 新分配的Runner
+     */
+    public static RunnerState allocated(String runnerId, String runsOn, long at) {
+        return new RunnerState(runnerId, runsOn, RunnerInfo.RunnerStatus.ALLOCATED, at, 0, 0, null, null);
+    }
+
+    /**
+     * 当前时间（纪元纳秒）
+     */
+    public static long now() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /**
+     * 状态变化是否合法
+     */
+    public static boolean canMove(RunnerInfo.RunnerStatus from, RunnerInfo.RunnerStatus to) {
+        return switch (from) {
+            case PENDING -> to == RunnerInfo.RunnerStatus.ALLOCATED || to == RunnerInfo.RunnerStatus.RELEASED;
+            case ALLOCATED -> to == RunnerInfo.RunnerStatus.CONNECTED || to == RunnerInfo.RunnerStatus.RELEASED;
+            case CONNECTED -> to == RunnerInfo.RunnerStatus.RUNNING || to == RunnerInfo.RunnerStatus.FAILED
+                || to == RunnerInfo.RunnerStatus.RELEASED;
+            case RUNNING -> to == RunnerInfo.RunnerStatus.COMPLETED || to == RunnerInfo.RunnerStatus.FAILED
+                || to == RunnerInfo.RunnerStatus.RELEASED;
+            case COMPLETED -> to == RunnerInfo.RunnerStatus.RUNNING || to == RunnerInfo.RunnerStatus.RELEASED;
+            case FAILED -> to == RunnerInfo.RunnerStatus.RELEASED;
+            case RELEASED -> false;
+        };
+    }
+
+    /**
+     * 变更到指定状态（开始执行使用{@link #start(int)}）
+     * 失败或释放时，正在执行的Step标记为FAILED，未开始的Step标记为SKIPPED
+     *
+     * @return 新状态；变化不合法时为null
+     */
+    public RunnerState moveTo(RunnerInfo.RunnerStatus to, long at) {
+        if (to == RunnerInfo.RunnerStatus.RUNNING || !canMove(status, to)) {
+            return null;
+        }
+        return switch (to) {
+            case CONNECTED -> new RunnerState(runnerId, runsOn, to, allocatedAt, at, completedAt,
+                stepStatuses, stepTimes);
+            case COMPLETED -> new RunnerState(runnerId, runsOn, to, allocatedAt, connectedAt, at,
+                stepStatuses, stepTimes);
+            case FAILED -> aborted(to, at, at);
+            case RELEASED -> aborted(to, completedAt, at);
+            default -> new RunnerState(runnerId, runsOn, to, allocatedAt, connectedAt, completedAt,
+                stepStatuses, stepTimes);
+        };
+    }
+
+    /**
+     * 开始执行：变更为RUNNING并创建各Step的状态（均为PENDING）
+     *
+     * @return 新状态；当前状态不允许执行时为null
+     */
+    public RunnerState start(int stepCount) {
+        if (!canMove(status, RunnerInfo.RunnerStatus.RUNNING)) {
+            return null;
+        }
+        byte[] statuses = new byte[stepCount];
+        Arrays.fill(statuses, (byte) RunnerInfo.StepStatus.PENDING.ordinal());
+        return new RunnerState(runnerId, runsOn, RunnerInfo.RunnerStatus.RUNNING, allocatedAt, connectedAt, 0,
+            statuses, new long[stepCount * 2]);
+    }
+
+    /**
+     * 更新单个Step的状态：RUNNING记录开始时间，其余状态记录完成时间
+     *
+     * @return 新状态；Runner不在执行中时为null
+     */
+    public RunnerState withStep(int index, RunnerInfo.StepStatus stepStatus, long at) {
+        if (status != RunnerInfo.RunnerStatus.RUNNING || stepStatuses == null || index >= stepStatuses.length) {
+            return null;
+        }
+        byte[] statuses = stepStatuses.clone();
+        long[] times = stepTimes.clone();
+        statuses[index] = (byte) stepStatus.ordinal();
+        times[index * 2 + (stepStatus == RunnerInfo.StepStatus.RUNNING ? 0 : 1)] = at;
+        return new RunnerState(runnerId, runsOn, status, allocatedAt, connectedAt, completedAt, statuses, times);
+    }
+
+    public int stepCount() {
+        return stepStatuses != null ? stepStatuses.length : 0;
+    }
+
+    public RunnerInfo.StepStatus stepStatus(int index) {
+        return STEP_STATUSES[stepStatuses[index]];
+    }
+
+    /**
+     * 是否已进入终态（COMPLETED/FAILED/RELEASED）
+     */
+    @JsonIgnore
+    public boolean isTerminal() {
+        return status == RunnerInfo.RunnerStatus.COMPLETED
+            || status == RunnerInfo.RunnerStatus.FAILED
+            || status == RunnerInfo.RunnerStatus.RELEASED;
+    }
+
+    /**
+     * 淘汰后保留的摘要：只保留ID、最终状态、完成时间和label
+     */
+    public RunnerState summary() {
+        return new RunnerState(runnerId, runsOn, status, 0, 0, completedAt, null, null);
+    }
+
+    /**
+     * 生成对外的Runner信息
+     */
+    public RunnerInfo toInfo() {
+        List<RunnerInfo.StepState> steps = null;
+        if (stepStatuses != null) {
+            steps = new ArrayList<>(stepStatuses.length);
+            for (int i = 0; i < stepStatuses.length; i++) {
+                steps.add(new RunnerInfo.StepState(i, stepStatus(i), toDateTime(stepTimes[i * 2]),
+                    toDateTime(stepTimes[i * 2 + 1])));
+            }
+        }
+        return new RunnerInfo(runnerId, status, toDateTime(allocatedAt), toDateTime(connectedAt),
+            toDateTime(completedAt), runsOn, steps);
+    }
+
+    private RunnerState aborted(RunnerInfo.RunnerStatus to, long finishedAt, long at) {
+        byte[] statuses = stepStatuses;
+        long[] times = stepTimes;
+        if (statuses != null) {
+            statuses = statuses.clone();
+            times = times.clone();
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] == RunnerInfo.StepStatus.RUNNING.ordinal()) {
+                    statuses[i] = (byte) RunnerInfo.StepStatus.FAILED.ordinal();
+                    times[i * 2 + 1] = at;
+                } else if (statuses[i] == RunnerInfo.StepStatus.PENDING.ordinal()) {
+                    statuses[i] = (byte) RunnerInfo.StepStatus.SKIPPED.ordinal();
+                }
+            }
+        }
+        return new RunnerState(runnerId, runsOn, to, allocatedAt, connectedAt, finishedAt, statuses, times);
+    }
+
+    private static LocalDateTime toDateTime(long epochNanos) {
+        return epochNanos == 0 ? null
+            : LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,13 @@
+package com.scheduler.runner;
+
+import java.time.Duration;
+
+/**
+ * Runner操作超时
+ */
+public class RunnerTimeoutException extends RuntimeException {
+
+    public RunnerTimeoutException(String phase, String target, Duration timeout) {
+        super("Runner " + phase + " timed out after " + timeout.toMillis() + "ms: " + target);
+    }
+}
@@ -0,0 +1,137 @@
+package com.scheduler.runner;
+
+import com.scheduler.config.RunnerProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 模拟Runner中单个Step的耗时分布
+ * 支持固定值、正态分布、对数正态分布和从直方图文件加载的经验分布
+ */
+public interface StepDurationModel {
+
+    /**
+     * 采样一个Step的耗时
+     */
+    Duration sample();
+
+    /**
+     * 按配置构建耗时模型，超过上限的样本截断到上限
+     *
+     * @throws IllegalArgumentException 配置不合法或直方图文件格式错误
+     */
+    static StepDurationModel of(RunnerProperties.StepDuration config) {
+        StepDurationModel model = switch (config.getModel()) {
+            case FIXED -> fixed(config.getDuration());
+            case NORMAL -> normal(config.getDuration(), config.getStddev());
+            case LOG_NORMAL -> logNormal(config.getDuration(), config.getSigma());
+            case HISTOGRAM -> histogram(config.getHistogramFile());
+        };
+        Duration max = config.getMax();
+        if (max == null || max.isZero() || max.isNegative()) {
+            return model;
+        }
+        return () -> {
+            Duration sample = model.sample();
+            return sample.compareTo(max) > 0 ? max : sample;
+        };
+    }
+
+    static StepDurationModel fixed(Duration duration) {
+        return () -> duration;
+    }
+
+    /**
+     * 正态分布，负值截断为0
+     */
+    static StepDurationModel normal(Duration mean, Duration stddev) {
+        long meanNanos = mean.toNanos();
+        long stddevNanos = stddev.toNanos();
+        return () -> Duration.ofNanos(Math.max(0L,
+            Math.round(meanNanos + stddevNanos * ThreadLocalRandom.current().nextGaussian())));
+    }
+
+    /**
+     * 对数正态分布：median * exp(sigma * Z)
+     */
+    static StepDurationModel logNormal(Duration median, double sigma) {
+        long medianNanos = median.toNanos();
+        return () -> Duration.ofNanos(Math.round(
+            medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian())));
+    }
+
+    /**
+     * 从直方图文件加载的经验分布，按权重选择耗时
+     * 文件每行为"耗时 权重"，耗时格式同配置（如250ms、2s，纯数字为毫秒），空行和#开头的行忽略
+     */
+    static StepDurationModel histogram(Resource file) {
+        if (file == null) {
+            throw new IllegalArgumentException("histogram-file is required for histogram step duration model");
+        }
+        List<Duration> durations = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("[\\s,]+");
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException("Invalid histogram line " + lineNumber + ": " + line);
+                }
+                long weight = Long.parseLong(fields[1]);
+                if (weight < 0) {
+                    throw new IllegalArgumentException("Negative weight on histogram line " + lineNumber);
+                }
+                durations.add(DurationStyle.detectAndParse(fields[0]));
+                weights.add(weight);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read step duration histogram: " + file, e);
+        }
+        return histogram(durations, weights.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * 按权重选择耗时的离散分布
+     */
+    static StepDurationModel histogram(List<Duration> durations, long[] weights) {
+        // 跳过权重为0的耗时，保证累计权重严格递增
+        List<Duration> values = new ArrayList<>();
+        long[] cumulative = new long[weights.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                total += weights[i];
+                cumulative[values.size()] = total;
+                values.add(durations.get(i));
+            }
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("Step duration histogram is empty");
+        }
+        long[] bounds = Arrays.copyOf(cumulative, values.size());
+        Duration[] samples = values.toArray(new Duration[0]);
+        long sum = total;
+        return () -> {
+            int i = Arrays.binarySearch(bounds, ThreadLocalRandom.current().nextLong(sum) + 1);
+            return samples[i >= 0 ? i : -i - 1];
+        };
+    }
+}
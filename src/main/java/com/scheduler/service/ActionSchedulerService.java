@@ -1,105 +1,607 @@
 package com.scheduler.service;
 
 import com.scheduler.action.ActionParser;
+import com.scheduler.action.JobGraph;
+import com.scheduler.action.PlanCache;
+import com.scheduler.action.WorkflowPlan;
+import com.scheduler.config.RunProperties;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.metrics.PhaseMetrics;
 import com.scheduler.model.ActionRequest;
 import com.scheduler.model.RunResponse;
 import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerAllocateResponse;
 import com.scheduler.model.RunnerInfo;
+import com.scheduler.repository.LogStore;
+import com.scheduler.runner.AllocationBatcher;
+import com.scheduler.runner.RunnerPool;
 import com.scheduler.runner.RunnerService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * Action调度服务
  * 负责解析Action配置并调度Runner执行
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ActionSchedulerService {
     
     private final ActionParser actionParser;
     private final RunnerService runnerService;
+    private final RunnerPool runnerPool;
+    private final RunProperties runProperties;
+    private final RunnerProperties runnerProperties;
+    private final RunRegistry runRegistry;
+    private final AdmissionController admissionController;
+    private final FairShareDispatcher fairShareDispatcher;
+    private final ConcurrencyGroups concurrencyGroups;
+    private final PriorityClassifier priorityClassifier;
+    private final PhaseMetrics phaseMetrics;
+    private final PlanCache planCache;
+    private final LogStore logStore;
+    private final Counter reuseHits;
+    private final Counter reuseMisses;
+    private final DistributionSummary runReuse;
+    private final Timer cancelRelease;
     
     /**
-     * 解析并调度Action
+     * 正在执行的Run，Run结束时移除
+     */
+    private final Map<String, ActiveRun> activeRuns = new ConcurrentHashMap<>();
+    
+    public ActionSchedulerService(ActionParser actionParser, RunnerService runnerService, RunnerPool runnerPool,
+                                  RunProperties runProperties, RunnerProperties runnerProperties,
+                                  RunRegistry runRegistry, AdmissionController admissionController,
+                                  FairShareDispatcher fairShareDispatcher, ConcurrencyGroups concurrencyGroups,
+                                  PriorityClassifier priorityClassifier, PhaseMetrics phaseMetrics,
+                                  PlanCache planCache, LogStore logStore, MeterRegistry meterRegistry) {
+        this.actionParser = actionParser;
+        this.runnerService = runnerService;
+        this.runnerPool = runnerPool;
+        this.runProperties = runProperties;
+        this.runnerProperties = runnerProperties;
+        this.runRegistry = runRegistry;
+        this.admissionController = admissionController;
+        this.fairShareDispatcher = fairShareDispatcher;
+        this.concurrencyGroups = concurrencyGroups;
+        this.priorityClassifier = priorityClassifier;
+        this.phaseMetrics = phaseMetrics;
+        this.planCache = planCache;
+        this.logStore = logStore;
+        this.reuseHits = Counter.builder("scheduler.runner.reuse.requests")
+            .description("Job从本Run其他Job复用Runner的次数")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.reuseMisses = Counter.builder("scheduler.runner.reuse.requests")
+            .description("Job从本Run其他Job复用Runner的次数")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.runReuse = DistributionSummary.builder("scheduler.run.runner.reuse")
+            .description("每个Run中复用本Run其他Job的Runner的比例")
+            .register(meterRegistry);
+        this.cancelRelease = Timer.builder("scheduler.run.cancel.release")
+            .description("取消Run到释放其全部Runner的耗时")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * 提交Action
+     * 完成解析、通过准入并登记Run后立即返回，调度在后台进行，进度通过{@link RunRegistry}查询
+     * 
+     * @throws AdmissionRejectedException 准入队列已满
+     */
+    public Mono<RunResponse> submit(ActionRequest request) {
+        return Mono.fromCallable(() -> start(prepare(request)));
+    }
+    
+    /**
+     * 触发已注册的工作流模板
+     * 直接使用模板预编译的计划，不再解析；context为模板默认值与覆盖项的合并结果
+     * 
+     * @throws AdmissionRejectedException 准入队列已满
+     */
+    public Mono<RunResponse> submit(TemplateRegistry.Template template, Map<String, Object> contextOverrides) {
+        return Mono.fromCallable(() -> {
+            WorkflowPlan plan = template.plan();
+            Map<String, Object> context = plan.context(contextOverrides);
+            RunResponse response = newResponse();
+            response.setTemplateId(template.templateId());
+            response.setPriority(priorityClassifier.classify(plan.getPriority(), context));
+            return start(prepare(plan.getGraph(), context, plan.getConcurrency(), response));
+        });
+    }
+    
+    /**
+     * 后台执行已登记的Run，返回登记时的状态
+     */
+    private RunResponse start(PreparedRun run) {
+        // 失败信息已写入注册表，这里不再向外传播
+        execute(run).onErrorResume(error -> Mono.empty()).subscribe();
+        return runRegistry.find(run.runId()).orElseThrow();
+    }
+    
+    /**
+     * 解析并调度Action，Run结束后返回最终结果
      */
     public Mono<RunResponse> parseAndSchedule(ActionRequest request) {
-        String runId = "run-" + UUID.randomUUID().toString().substring(0, 8);
-        LocalDateTime startTime = LocalDateTime.now();
+        return Mono.defer(() -> execute(prepare(request)));
+    }
+    
+    /**
+     * 取消Run
+     * 中止Run的执行流程（排队中的准入、进行中的申请、连接和执行），并立即释放Run占用的Runner；
+     * 从取消到Runner全部释放的耗时记录到scheduler.run.cancel.release
+     * 
+     * @return Run的最新状态，Run不存在时为空；Run已经结束时状态保持不变
+     */
+    public Mono<RunResponse> cancel(String runId) {
+        return cancel(runId, "Run cancelled");
+    }
+    
+    /**
+     * 取消Run，message为Run结束时的说明
+     */
+    private Mono<RunResponse> cancel(String runId, String message) {
+        return Mono.defer(() -> {
+            ActiveRun active = activeRuns.get(runId);
+            if (active == null) {
+                return Mono.justOrEmpty(runRegistry.find(runId));
+            }
+            long start = System.nanoTime();
+            List<String> held = active.cancel(message);
+            return Flux.fromIterable(held)
+                .concatMap(runnerService::releaseRunner)
+                .then(Mono.fromCallable(() -> {
+                    long elapsed = System.nanoTime() - start;
+                    cancelRelease.record(elapsed, TimeUnit.NANOSECONDS);
+                    log.info("Run已取消, runId={}, released={}, elapsed={}us", runId, held.size(),
+                        TimeUnit.NANOSECONDS.toMicros(elapsed));
+                    return runRegistry.find(runId).orElseThrow();
+                }));
+        });
+    }
+    
+    /**
+     * 解析Job依赖图（校验needs及循环依赖）、申请准入并登记Run
+     */
+    private PreparedRun prepare(ActionRequest request) {
+        RunResponse response = newResponse();
+        response.setPriority(priorityClassifier.classify(request.getPriority(), request.getContext()));
+        return prepare(parse(request), request.getContext(), request.getConcurrency(), response);
+    }
+    
+    /**
+     * 按Run的优先级申请准入、加入工作流级并发组并登记Run
+     * 按提交顺序加入并发组，因此同组中后提交的Run取代先提交的Run
+     */
+    private PreparedRun prepare(JobGraph graph, Map<String, Object> context, ActionRequest.Concurrency concurrency,
+                                RunResponse response) {
+        // 按矩阵展开后的Job数申请准入，大矩阵不会只按一个Job计
+        AdmissionController.Admission admission = graph.isEmpty() ? null
+            : admissionController.enqueue((int) Math.min(Integer.MAX_VALUE, graph.getMaxJobCount()),
+                response.getPriority());
+        String group = graph.isEmpty() ? null : ConcurrencyGroups.resolve(concurrency, context);
+        ConcurrencyGroups.Member member = group == null ? null
+            : concurrencyGroups.join(group, concurrency.isCancelInProgress());
         
-        // 解析Runner需求
-        List<ActionParser.RunnerRequirement> requirements = actionParser.parseRunnerRequirements(request);
+        if (graph.isEmpty()) {
+            response.setStatus(RunResponse.RunStatus.SUCCESS);
+            response.setEndTime(LocalDateTime.now());
+            response.setMessage("No jobs to execute");
+        }
         
-        // 创建初始响应
+        runRegistry.update(response);
+        return new PreparedRun(response.getRunId(), graph, context, response, admission, member);
+    }
+    
+    /**
+     * 创建初始响应
+     */
+    private static RunResponse newResponse() {
         RunResponse response = new RunResponse();
-        response.setRunId(runId);
+        response.setRunId("run-" + UUID.randomUUID().toString().substring(0, 8));
         response.setStatus(RunResponse.RunStatus.PENDING);
-        response.setStartTime(startTime);
+        response.setStartTime(LocalDateTime.now());
         response.setRunners(new ArrayList<>());
-        
-        if (requirements.isEmpty()) {
-            response.setStatus(RunResponse.RunStatus.SUCCESS);
-            response.setEndTime(LocalDateTime.now());
-            response.setMessage("No jobs to execute");
+        return response;
+    }
+    
+    /**
+     * 解析Job依赖图并记录解析耗时
+     * 相同结构的工作流复用缓存的依赖图
+     */
+    private JobGraph parse(ActionRequest request) {
+        long start = System.nanoTime();
+        try {
+            JobGraph graph = planCache.get(request, actionParser::parseJobGraph);
+            phaseMetrics.record(PhaseMetrics.Phase.PARSE, null, PhaseMetrics.SUCCESS, start);
+            return graph;
+        } catch (RuntimeException e) {
+            phaseMetrics.record(PhaseMetrics.Phase.PARSE, null, PhaseMetrics.ERROR, start);
+            throw e;
+        }
+    }
+    
+    /**
+     * 获准后执行已登记的Run，状态变化同步写入注册表
+     */
+    private Mono<RunResponse> execute(PreparedRun run) {
+        RunResponse response = run.response();
+        if (run.graph().isEmpty()) {
             return Mono.just(response);
         }
         
-        // 申请所有Runner
-        return Flux.fromIterable(requirements)
-            .flatMap(requirement -> {
-                RunnerAllocateRequest allocateRequest = new RunnerAllocateRequest(
-                    requirement.getRunsOn(),
-                    runId
-                );
-                return runnerService.allocateRunner(allocateRequest);
+        // 需要多个Runner时，合并同一时间窗口内的冷申请为批量申请
+        AllocationBatcher batcher = needsMultipleRunners(run.graph()) ? new AllocationBatcher(runnerService,
+            runnerProperties.getBatch().getMaxSize(), runnerProperties.getBatch().getWindow()) : null;
+        Function<RunnerAllocateRequest, Mono<RunnerAllocateResponse>> allocator =
+            batcher != null ? batcher::allocate : runnerService::allocateRunner;
+        
+        // 需要多个Runner时，Job执行完的Runner交给本Run中后续相同label的Job
+        RunnerHandoff handoff = batcher != null && runnerProperties.isReuse() ? new RunnerHandoff(run.graph()) : null;
+        
+        ActiveRun active = new ActiveRun();
+        activeRuns.put(run.runId(), active);
+        String tenant = fairShareDispatcher.tenantOf(run.context());
+        ConcurrencyGroups.Member member = run.concurrency();
+        if (member != null) {
+            // 被同组的新Run取代时走取消流程，释放已占用的Runner
+            member.superseded()
+                .then(Mono.defer(() -> cancel(run.runId(),
+                    "Run cancelled: superseded in concurrency group '" + member.getGroup() + "'")))
+                .subscribe();
+        }
+        
+        // 按依赖顺序执行：每个Job按矩阵惰性展开，每个组合先按租户公平地（租户内按优先级）取得Runner名额，
+        // 再获取已连接的Runner（优先预热池，未命中时冷申请）并逐个执行Step；
+        // 有Job级并发组的Job中一个组合被取消时，其余组合继续执行完
+        JobGraphExecution execution = new JobGraphExecution(run.graph(),
+            node -> {
+                Flux<ActionParser.RunnerRequirement> combinations = actionParser.expandMatrix(node.getRequirement());
+                Function<ActionParser.RunnerRequirement, Mono<RunnerInfo>> runner =
+                    requirement -> runCombination(requirement, node, run, tenant, allocator, active, handoff);
+                int maxParallel = maxParallel(node.getRequirement());
+                Flux<RunnerInfo> job = node.getRequirement().getConcurrency() != null
+                    ? combinations.flatMapDelayError(runner, maxParallel, Queues.XS_BUFFER_SIZE)
+                    : combinations.flatMap(runner, maxParallel);
+                return handoff == null ? job
+                    : job.doOnTerminate(() -> releaseUnused(active, handoff.finished(node.getRequirement())));
+            },
+            runProperties.getMaxParallelJobs());
+        
+        // 有并发组时先等到成为组内执行中的Run
+        Mono<AdmissionController.Admission> admitted = member != null
+            ? member.active().then(run.admission().admitted())
+            : run.admission().admitted();
+        return admitted
+            .flatMap(admission -> {
+                response.setStatus(RunResponse.RunStatus.RUNNING);
+                runRegistry.update(response);
+                return execution.execute();
             })
-            .collectList()
-            .flatMap(allocateResponses -> {
-                // 更新响应中的Runner信息
-                List<RunnerInfo> runnerInfos = allocateResponses.stream()
-                    .map(resp -> {
-                        RunnerInfo info = new RunnerInfo();
-                        info.setRunnerId(resp.getRunnerId());
-                        info.setStatus(resp.getStatus());
-                        info.setAllocatedAt(resp.getAllocatedAt());
-                        return info;
-                    })
-                    .collect(Collectors.toList());
+            .map(result -> {
+                // 检查所有Runner是否成功完成；执行过的Job都成功、只有Job被取消时Run记为已取消
+                boolean completed = result.runners().stream()
+                    .allMatch(r -> r.getStatus() == RunnerInfo.RunnerStatus.COMPLETED);
+                boolean allSuccess = completed && result.skippedJobs().isEmpty() && result.cancelledJobs().isEmpty();
+                boolean cancelled = completed && !result.cancelledJobs().isEmpty();
                 
-                response.setRunners(runnerInfos);
-                response.setStatus(RunResponse.RunStatus.RUNNING);
+                response.setStatus(allSuccess ? RunResponse.RunStatus.SUCCESS :
+                    cancelled ? RunResponse.RunStatus.CANCELLED : RunResponse.RunStatus.FAILURE);
+                response.setEndTime(LocalDateTime.now());
+                response.setMessage(allSuccess ? 
+                    "All jobs completed successfully" : 
+                    (cancelled ? "Some jobs cancelled" : "Some jobs failed")
+                        + (result.cancelledJobs().isEmpty() ? "" :
+                            ", cancelled: " + String.join(", ", result.cancelledJobs()))
+                        + (result.skippedJobs().isEmpty() ? "" :
+                            ", skipped: " + String.join(", ", result.skippedJobs())));
+                response.setRunners(new ArrayList<>(result.runners()));
                 
-                // 连接并执行所有Runner
-                return Flux.fromIterable(allocateResponses)
-                    .flatMap(allocateResponse -> 
-                        runnerService.connectRunner(allocateResponse.getRunnerId())
-                            .flatMap(runner -> runnerService.executeRunner(runner.getRunnerId()))
-                    )
-                    .collectList()
-                    .map(completedRunners -> {
-                        // 检查所有Runner是否成功完成
-                        boolean allSuccess = completedRunners.stream()
-                            .allMatch(r -> r.getStatus() == RunnerInfo.RunnerStatus.COMPLETED);
-                        
-                        response.setStatus(allSuccess ? 
-                            RunResponse.RunStatus.SUCCESS : 
-                            RunResponse.RunStatus.FAILURE);
-                        response.setEndTime(LocalDateTime.now());
-                        response.setMessage(allSuccess ? 
-                            "All jobs completed successfully" : 
-                            "Some jobs failed");
-                        response.setRunners(completedRunners);
-                        
-                        return response;
-                    });
+                return response;
+            })
+            // 取消时上游的申请、连接和执行随之中止
+            .takeUntilOther(active.cancelled())
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                response.setStatus(RunResponse.RunStatus.CANCELLED);
+                response.setEndTime(LocalDateTime.now());
+                response.setMessage(active.message());
+                return response;
+            }))
+            .doOnError(error -> {
+                response.setStatus(RunResponse.RunStatus.FAILURE);
+                response.setEndTime(LocalDateTime.now());
+                response.setMessage("Run failed: " + error.getMessage());
+            })
+            .doOnTerminate(() -> {
+                if (handoff != null) {
+                    recordReuse(response, handoff);
+                }
+            })
+            .doFinally(signal -> {
+                if (batcher != null) {
+                    batcher.dispose();
+                }
+                run.admission().release();
+                if (member != null) {
+                    member.release();
+                }
+                if (handoff != null) {
+                    releaseUnused(active, handoff.drain());
+                }
+                activeRuns.remove(run.runId(), active);
+                runRegistry.update(response);
             });
     }
+    
+    /**
+     * 执行一个Job（矩阵组合）
+     * 有Job级并发组时先加入并发组，成为组内执行中的Job后再取得Runner名额；被同组的新Job取代时
+     * 释放已占用的Runner，并以{@link JobCancelledException}结束，后续Job随之跳过
+     */
+    private Mono<RunnerInfo> runCombination(ActionParser.RunnerRequirement requirement, JobGraph.Node node,
+                                            PreparedRun run, String tenant,
+                                            Function<RunnerAllocateRequest, Mono<RunnerAllocateResponse>> allocator,
+                                            ActiveRun active, RunnerHandoff handoff) {
+        AtomicReference<String> held = new AtomicReference<>();
+        Mono<RunnerInfo> job = fairShareDispatcher.acquire(tenant, run.response().getPriority())
+            .flatMap(slot -> (handoff != null
+                    ? obtainRunner(requirement, run.runId(), allocator, active, held, handoff)
+                    : obtainConnectedRunner(requirement, run.runId(), allocator, active, held))
+                .flatMap(runner -> runnerService.executeRunner(runner.getRunnerId(), requirement.getStepCount()))
+                .doFinally(signal -> slot.release()))
+            .map(runner -> {
+                boolean reusable = handoff != null && runner.getStatus() == RunnerInfo.RunnerStatus.COMPLETED;
+                // RunnerService每次返回新的快照，交出后Runner被其他Job继续使用也不影响本Job的结果
+                appendJobLog(run.runId(), requirement.getJobName(), runner);
+                if (reusable && handoff.offer(runner, requirement.getRunsOn(), node.getRequirement())) {
+                    held.compareAndSet(runner.getRunnerId(), null);
+                } else {
+                    active.finish(runner.getRunnerId());
+                }
+                return runner;
+            });
+        
+        String group = ConcurrencyGroups.resolve(requirement.getConcurrency(), run.context());
+        if (group == null) {
+            return job;
+        }
+        return Mono.using(
+            () -> concurrencyGroups.join(group, requirement.getConcurrency().isCancelInProgress()),
+            member -> member.active().then(job)
+                .takeUntilOther(member.superseded())
+                .switchIfEmpty(Mono.defer(() -> {
+                    String runnerId = held.get();
+                    Mono<Void> release = runnerId != null && active.finish(runnerId)
+                        ? runnerService.releaseRunner(runnerId).then() : Mono.empty();
+                    return release.then(Mono.error(new JobCancelledException("Job '" + requirement.getJobName()
+                        + "' cancelled: superseded in concurrency group '" + group + "'")));
+                })),
+            ConcurrencyGroups.Member::release);
+    }
+    
+    /**
+     * 把Runner的执行结果写入Job日志
+     * 日志写入失败不影响Run的结果
+     */
+    private void appendJobLog(String runId, String jobName, RunnerInfo runner) {
+        if (!logStore.isEnabled()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        String prefix = "[" + runner.getRunnerId() + "] ";
+        if (runner.getSteps() != null) {
+            for (RunnerInfo.StepState step : runner.getSteps()) {
+                text.append(prefix).append("step ").append(step.getIndex() + 1).append('/')
+                    .append(runner.getSteps().size()).append(' ').append(step.getStatus().name().toLowerCase());
+                if (step.getStartedAt() != null && step.getCompletedAt() != null) {
+                    long millis = Duration.between(step.getStartedAt(), step.getCompletedAt()).toMillis();
+                    text.append(" in ").append(millis).append("ms");
+                }
+                text.append('\n');
+            }
+        }
+        text.append(prefix).append("job ").append(runner.getStatus().name().toLowerCase())
+            .append(" on ").append(runner.getRunsOn()).append('\n');
+        try {
+            logStore.append(runId, jobName, text.toString());
+        } catch (IOException | RuntimeException e) {
+            log.warn("写入Job日志失败, runId={}, job={}: {}", runId, jobName, e.getMessage());
+        }
+    }
+    
+    /**
+     * 矩阵组合同时运行的上限，未配置max-parallel时使用scheduler.run.max-parallel-jobs
+     */
+    private int maxParallel(ActionParser.RunnerRequirement requirement) {
+        ActionRequest.Strategy strategy = requirement.getStrategy();
+        if (strategy != null && strategy.getMaxParallel() != null && strategy.getMaxParallel() > 0) {
+            return strategy.getMaxParallel();
+        }
+        return Math.max(1, runProperties.getMaxParallelJobs());
+    }
+    
+    /**
+     * Run是否需要多个Runner（多个Job或包含矩阵）
+     */
+    private static boolean needsMultipleRunners(JobGraph graph) {
+        return graph.size() > 1 || graph.getNodes().stream()
+            .anyMatch(node -> node.getRequirement().getStrategy() != null);
+    }
+    
+    /**
+     * 获取Runner，优先复用本Run中其他Job交出的Runner
+     * 有暂存的同label Runner时直接取用；否则在冷获取（预热池或申请+连接）的同时等待其他Job交出Runner，
+     * 取先到者：交出的Runner先到时取消冷获取，已申请到的Runner随即释放
+     */
+    private Mono<RunnerInfo> obtainRunner(ActionParser.RunnerRequirement requirement, String runId,
+                                          Function<RunnerAllocateRequest, Mono<RunnerAllocateResponse>> allocator,
+                                          ActiveRun active, AtomicReference<String> held, RunnerHandoff handoff) {
+        return Mono.defer(() -> {
+            RunnerInfo parked = handoff.poll(requirement.getRunsOn());
+            if (parked != null) {
+                return Mono.just(acquired(parked, held, handoff, true));
+            }
+            AtomicReference<String> obtained = new AtomicReference<>();
+            Mono<RunnerInfo> fresh = obtainConnectedRunner(requirement, runId, allocator, active, obtained)
+                .doOnCancel(() -> releaseUnused(active, obtained.get()))
+                .map(runner -> acquired(runner, held, handoff, false));
+            Mono<RunnerInfo> handedOff = handoff.await(requirement.getRunsOn())
+                .map(runner -> acquired(runner, held, handoff, true));
+            return Mono.firstWithSignal(handedOff, fresh);
+        });
+    }
+    
+    /**
+     * 记录获取到的Runner及其来源
+     */
+    private RunnerInfo acquired(RunnerInfo runner, AtomicReference<String> held, RunnerHandoff handoff,
+                              boolean wasReused) {
+        held.set(runner.getRunnerId());
+        handoff.record(wasReused);
+        (wasReused ? reuseHits : reuseMisses).increment();
+        return runner;
+    }
+    
+    /**
+     * 记录Run的Runner复用次数和复用率
+     */
+    private void recordReuse(RunResponse response, RunnerHandoff handoff) {
+        response.setReusedRunners(handoff.reused());
+        response.setRunnerReuseRate(handoff.reuseRate());
+        if (handoff.acquired() > 0) {
+            runReuse.record(handoff.reuseRate());
+        }
+    }
+    
+    /**
+     * 释放Run中不再使用的Runner
+     */
+    private void releaseUnused(ActiveRun active, List<RunnerInfo> runners) {
+        runners.forEach(runner -> releaseUnused(active, runner.getRunnerId()));
+    }
+    
+    private void releaseUnused(ActiveRun active, String runnerId) {
+        if (runnerId != null && active.finish(runnerId)) {
+            runnerService.releaseRunner(runnerId).subscribe();
+        }
+    }
+    
+    /**
+     * 获取已连接的Runner
+     * 先从预热池获取，未命中时回退到申请+连接；获得的Runner记录到Run上，Run取消时释放
+     */
+    private Mono<RunnerInfo> obtainConnectedRunner(ActionParser.RunnerRequirement requirement, String runId,
+                                                   Function<RunnerAllocateRequest, Mono<RunnerAllocateResponse>> allocator,
+                                                   ActiveRun active, AtomicReference<String> held) {
+        return runnerPool.acquire(requirement.getRunsOn())
+            .flatMap(runner -> hold(active, held, runner.getRunnerId(), runner))
+            .switchIfEmpty(Mono.defer(() -> {
+                RunnerAllocateRequest allocateRequest = new RunnerAllocateRequest(
+                    requirement.getRunsOn(),
+                    runId
+                );
+                return allocator.apply(allocateRequest)
+                    .flatMap(allocateResponse -> hold(active, held, allocateResponse.getRunnerId(), allocateResponse))
+                    .flatMap(allocateResponse -> runnerService.connectRunner(allocateResponse.getRunnerId()));
+            }));
+    }
+    
+    /**
+     * 把Runner记录到Run和所属的Job上；Run已取消时直接释放该Runner
+     */
+    private <T> Mono<T> hold(ActiveRun active, AtomicReference<String> held, String runnerId, T value) {
+        if (!active.hold(runnerId)) {
+            return runnerService.releaseRunner(runnerId).then(Mono.empty());
+        }
+        held.set(runnerId);
+        return Mono.just(value);
+    }
+    
+    /**
+     * 已解析并登记、等待执行的Run，concurrency为加入的工作流级并发组（没有时为null）
+     */
+    private record PreparedRun(String runId, JobGraph graph, Map<String, Object> context, RunResponse response,
+                               AdmissionController.Admission admission, ConcurrencyGroups.Member concurrency) {
+    }
+    
+    /**
+     * 执行中的Run：取消信号和Run当前占用（已申请、尚未执行完）的Runner
+     */
+    private static final class ActiveRun {
+        
+        private final Sinks.One<Boolean> cancelSignal = Sinks.one();
+        private final Set<String> held = new HashSet<>();
+        private boolean cancelled;
+        private volatile String message;
+        
+        Mono<Boolean> cancelled() {
+            return cancelSignal.asMono();
+        }
+        
+        /**
+         * 记录占用的Runner，已取消时返回false
+         */
+        synchronized boolean hold(String runnerId) {
+            if (cancelled) {
+                return false;
+            }
+            held.add(runnerId);
+            return true;
+        }
+        
+        /**
+         * Runner不再由Run占用，返回该Runner此前是否仍被占用
+         */
+        synchronized boolean finish(String runnerId) {
+            return held.remove(runnerId);
+        }
+        
+        /**
+         * 取消时的说明
+         */
+        String message() {
+            return message;
+        }
+        
+        /**
+         * 发出取消信号，返回需要释放的Runner
+         */
+        List<String> cancel(String message) {
+            List<String> runners;
+            synchronized (this) {
+                if (!cancelled) {
+                    this.message = message;
+                }
+                cancelled = true;
+                runners = List.copyOf(held);
+                held.clear();
+            }
+            cancelSignal.tryEmitValue(true);
+            return runners;
+        }
+    }
 }
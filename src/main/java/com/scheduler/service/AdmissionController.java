@@ -0,0 +1,200 @@
+package com.scheduler.service;
+
+import com.scheduler.config.AdmissionProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 准入控制
+ * 限制同时执行的Run数和Job数，超出时Run进入有界的优先级队列等待（带老化，见{@link AgingQueue}），队列满时直接拒绝。
+ * 排队等待时间与执行时间分别记录为独立的指标。
+ */
+@Component
+public class AdmissionController {
+
+    private final AdmissionProperties properties;
+    private final AgingQueue<Admission> queue;
+    private int inFlightRuns;
+    private int inFlightJobs;
+
+    private final Timer queueWait;
+    private final Map<RunPriority, Timer> priorityWait;
+    private final Timer execution;
+    private final Counter rejected;
+
+    public AdmissionController(AdmissionProperties properties, PriorityProperties priorityProperties,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new AgingQueue<>(priorityProperties.getAgingInterval());
+        this.priorityWait = AgingQueue.queueTimers(meterRegistry, "admission");
+        this.queueWait = Timer.builder("scheduler.admission.queue.wait")
+            .description("Run在准入队列中的等待时间")
+            .register(meterRegistry);
+        this.execution = Timer.builder("scheduler.admission.execution")
+            .description("Run从获准执行到结束的时间")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("scheduler.admission.rejected")
+            .description("因准入队列已满被拒绝的Run数")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.admission.queued", this, AdmissionController::queuedRuns)
+            .description("准入队列中等待的Run数")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.admission.in.flight.runs", this, AdmissionController::inFlightRuns)
+            .description("正在执行的Run数")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.admission.in.flight.jobs", this, AdmissionController::inFlightJobs)
+            .description("正在执行的Run包含的Job数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 申请准入
+     * 容量足够且无人排队时立即获准，否则进入队列；队列已满时抛出异常
+     *
+     * @param jobCount Run包含的Job数
+     * @throws AdmissionRejectedException 准入队列已满
+     */
+    public Admission enqueue(int jobCount) {
+        return enqueue(jobCount, RunPriority.NORMAL);
+    }
+
+    /**
+     * 按优先级申请准入
+     * 排队时优先级高的Run先出队，等待越久的Run优先级越高
+     *
+     * @param jobCount Run包含的Job数
+     * @param priority Run的优先级
+     * @throws AdmissionRejectedException 准入队列已满
+     */
+    public Admission enqueue(int jobCount, RunPriority priority) {
+        Admission admission = new Admission(Math.max(1, Math.min(jobCount, properties.getMaxInFlightJobs())),
+            priority != null ? priority : RunPriority.NORMAL);
+        if (!properties.isEnabled()) {
+            admission.state = State.ADMITTED;
+            admission.grant();
+            return admission;
+        }
+        synchronized (this) {
+            if (queue.isEmpty() && fits(admission)) {
+                admit(admission);
+            } else if (queue.size() < properties.getMaxQueuedRuns()) {
+                queue.add(admission, admission.priority, admission.enqueuedAt);
+                return admission;
+            } else {
+                rejected.increment();
+                throw new AdmissionRejectedException(
+                    "Admission queue is full (" + queue.size() + " runs waiting)", properties.getRetryAfter());
+            }
+        }
+        admission.grant();
+        return admission;
+    }
+
+    private boolean fits(Admission admission) {
+        return inFlightRuns < properties.getMaxInFlightRuns()
+            && inFlightJobs + admission.jobs <= properties.getMaxInFlightJobs();
+    }
+
+    private void admit(Admission admission) {
+        inFlightRuns++;
+        inFlightJobs += admission.jobs;
+        admission.state = State.ADMITTED;
+        admission.counted = true;
+    }
+
+    private void release(Admission admission) {
+        List<Admission> granted = new ArrayList<>();
+        synchronized (this) {
+            if (admission.state == State.RELEASED) {
+                return;
+            }
+            if (admission.state == State.QUEUED) {
+                queue.remove(admission);
+            } else {
+                execution.record(System.nanoTime() - admission.admittedAt, TimeUnit.NANOSECONDS);
+                if (admission.counted) {
+                    inFlightRuns--;
+                    inFlightJobs -= admission.jobs;
+                }
+            }
+            admission.state = State.RELEASED;
+            // 只放行队首，容量不足时后面的Run不插队，避免大Run被持续插队饿死
+            while (!queue.isEmpty() && fits(queue.peek())) {
+                Admission next = queue.poll();
+                admit(next);
+                granted.add(next);
+            }
+        }
+        granted.forEach(Admission::grant);
+    }
+
+    private synchronized int queuedRuns() {
+        return queue.size();
+    }
+
+    private synchronized int inFlightRuns() {
+        return inFlightRuns;
+    }
+
+    private synchronized int inFlightJobs() {
+        return inFlightJobs;
+    }
+
+    private enum State {
+        QUEUED,
+        ADMITTED,
+        RELEASED
+    }
+
+    /**
+     * 一次准入申请
+     * 获准后必须调用{@link #release()}归还容量；排队中调用则退出队列
+     */
+    public final class Admission {
+        private final int jobs;
+        private final RunPriority priority;
+        private final long enqueuedAt = System.nanoTime();
+        private final Sinks.One<Admission> admitted = Sinks.one();
+        private State state = State.QUEUED;
+        private boolean counted;
+        private volatile long admittedAt;
+
+        private Admission(int jobs, RunPriority priority) {
+            this.jobs = jobs;
+            this.priority = priority;
+        }
+
+        /**
+         * 获准执行时发出
+         */
+        public Mono<Admission> admitted() {
+            return admitted.asMono();
+        }
+
+        /**
+         * 归还容量或退出队列，可重复调用
+         */
+        public void release() {
+            AdmissionController.this.release(this);
+        }
+
+        private void grant() {
+            admittedAt = System.nanoTime();
+            queueWait.record(admittedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+            priorityWait.get(priority).record(admittedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+            admitted.tryEmitValue(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.scheduler.service;
+
+import java.time.Duration;
+
+/**
+ * 准入队列已满，Run被拒绝
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 建议的重试间隔
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
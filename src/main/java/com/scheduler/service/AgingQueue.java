@@ -0,0 +1,86 @@
+package com.scheduler.service;
+
+import com.scheduler.model.RunPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 带老化的优先级队列
+ * 元素每等待一个老化间隔，有效优先级提升一级。所有元素以相同速率老化，比较有效优先级等价于比较
+ * "入队时间 - 优先级 × 老化间隔"（虚拟入队时间），该值入队时即确定，因此直接用二叉堆实现，
+ * 入队和出队均为O(log n)。老化间隔为0时严格按优先级出队；虚拟入队时间相同时先进先出。
+ *
+ * <p>非线程安全，由调用方加锁。
+ */
+final class AgingQueue<T> {
+
+    private final long agingNanos;
+    private final PriorityQueue<Entry<T>> heap = new PriorityQueue<>();
+    private long sequence;
+
+    AgingQueue(Duration agingInterval) {
+        this.agingNanos = agingInterval != null ? Math.max(0, agingInterval.toNanos()) : 0;
+    }
+
+    /**
+     * 注册各优先级的排队时间指标scheduler.queue.time，按stage和priority打标签
+     */
+    static Map<RunPriority, Timer> queueTimers(MeterRegistry meterRegistry, String stage) {
+        Map<RunPriority, Timer> timers = new EnumMap<>(RunPriority.class);
+        for (RunPriority priority : RunPriority.values()) {
+            timers.put(priority, Timer.builder("scheduler.queue.time")
+                .description("各优先级的排队时间")
+                .tag("stage", stage)
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry));
+        }
+        return timers;
+    }
+
+    /**
+     * @param enqueuedAt 入队时间（System.nanoTime）
+     */
+    void add(T item, RunPriority priority, long enqueuedAt) {
+        long key = agingNanos > 0 ? enqueuedAt - priority.ordinal() * agingNanos : -priority.ordinal();
+        heap.add(new Entry<>(item, key, sequence++));
+    }
+
+    T peek() {
+        Entry<T> head = heap.peek();
+        return head != null ? head.item() : null;
+    }
+
+    T poll() {
+        Entry<T> head = heap.poll();
+        return head != null ? head.item() : null;
+    }
+
+    /**
+     * 移除指定元素，O(n)
+     */
+    boolean remove(T item) {
+        return heap.removeIf(entry -> entry.item() == item);
+    }
+
+    int size() {
+        return heap.size();
+    }
+
+    boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    private record Entry<T>(T item, long key, long sequence) implements Comparable<Entry<T>> {
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            int result = Long.compare(key, other.key);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
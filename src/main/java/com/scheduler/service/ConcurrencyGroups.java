@@ -0,0 +1,189 @@
+package com.scheduler.service;
+
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 并发组
+ * 同一组内最多一个执行中和一个等待中的成员（Run或Job）：新成员加入时，组内等待中的成员被取代；
+ * 组配置了cancel-in-progress时，执行中的成员也被取代。执行中的成员离开后等待中的成员转为执行中。
+ *
+ * <p>组按名称存放在{@link ConcurrentHashMap}中，加入和离开只在该组的键上原子更新（compute），
+ * 不同组之间互不阻塞；没有成员的组立即移除，因此查找开销与活跃组的数量无关。
+ * 组名按context中的repository隔离，不同仓库的同名组互不影响。
+ */
+@Component
+public class ConcurrencyGroups {
+
+    private static final Pattern CONTEXT_EXPRESSION =
+        Pattern.compile("\\$\\{\\{\\s*(?:github|context)\\.([\\w-]+)\\s*}}");
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final Counter supersededPending;
+    private final Counter supersededInProgress;
+
+    public ConcurrencyGroups(MeterRegistry meterRegistry) {
+        this.supersededPending = Counter.builder("scheduler.concurrency.superseded")
+            .description("被同组新成员取代的成员数")
+            .tag("state", "pending")
+            .register(meterRegistry);
+        this.supersededInProgress = Counter.builder("scheduler.concurrency.superseded")
+            .description("被同组新成员取代的成员数")
+            .tag("state", "in_progress")
+            .register(meterRegistry);
+        Gauge.builder("scheduler.concurrency.groups", groups, Map::size)
+            .description("有成员的并发组数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 解析组名：替换${{ github.xxx }}（或${{ context.xxx }}）为context中的值，并按repository隔离
+     *
+     * @return 组名为空时返回null
+     */
+    public static String resolve(ActionRequest.Concurrency concurrency, Map<String, Object> context) {
+        if (concurrency == null || concurrency.getGroup() == null || concurrency.getGroup().isBlank()) {
+            return null;
+        }
+        Matcher matcher = CONTEXT_EXPRESSION.matcher(concurrency.getGroup());
+        StringBuilder group = new StringBuilder();
+        Object repository = context != null ? context.get("repository") : null;
+        if (repository != null) {
+            group.append(repository).append(':');
+        }
+        while (matcher.find()) {
+            Object value = context != null ? context.get(matcher.group(1)) : null;
+            matcher.appendReplacement(group, Matcher.quoteReplacement(value != null ? value.toString() : ""));
+        }
+        matcher.appendTail(group);
+        return group.toString();
+    }
+
+    /**
+     * 加入并发组
+     * 组内没有执行中的成员时立即转为执行中，否则取代组内等待中的成员后等待；
+     * 成员结束（包括被取代）后必须调用{@link Member#release()}离开
+     *
+     * @param cancelInProgress 是否同时取代组内执行中的成员
+     */
+    public Member join(String group, boolean cancelInProgress) {
+        Member member = new Member(group);
+        List<Member> superseded = new ArrayList<>(2);
+        boolean[] activated = new boolean[1];
+        groups.compute(group, (key, current) -> {
+            Group state = current != null ? current : new Group();
+            if (state.active == null) {
+                state.active = member;
+                activated[0] = true;
+                return state;
+            }
+            if (state.pending != null) {
+                superseded.add(state.pending);
+            }
+            state.pending = member;
+            if (cancelInProgress && !state.active.cancelRequested) {
+                state.active.cancelRequested = true;
+                superseded.add(state.active);
+            }
+            return state;
+        });
+        // 信号在组锁外发出，订阅者的处理不占用该组的锁
+        for (Member previous : superseded) {
+            (previous.cancelRequested ? supersededInProgress : supersededPending).increment();
+            previous.supersededSignal.tryEmitEmpty();
+        }
+        if (activated[0]) {
+            member.activeSignal.tryEmitEmpty();
+        }
+        return member;
+    }
+
+    /**
+     * 有成员的组数
+     */
+    public int size() {
+        return groups.size();
+    }
+
+    private void leave(Member member) {
+        Member[] promoted = new Member[1];
+        groups.computeIfPresent(member.group, (key, state) -> {
+            if (state.active == member) {
+                state.active = state.pending;
+                state.pending = null;
+                promoted[0] = state.active;
+            } else if (state.pending == member) {
+                state.pending = null;
+            }
+            return state.active == null && state.pending == null ? null : state;
+        });
+        if (promoted[0] != null) {
+            promoted[0].activeSignal.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * 组内状态，只在该组的compute中读写
+     */
+    private static final class Group {
+        private Member active;
+        private Member pending;
+    }
+
+    /**
+     * 并发组成员
+     */
+    public final class Member {
+
+        private final String group;
+        private final Sinks.Empty<Void> activeSignal = Sinks.empty();
+        private final Sinks.Empty<Void> supersededSignal = Sinks.empty();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean cancelRequested;
+
+        private Member(String group) {
+            this.group = group;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        /**
+         * 转为执行中时完成
+         */
+        public Mono<Void> active() {
+            return activeSignal.asMono();
+        }
+
+        /**
+         * 被同组新成员取代时完成
+         */
+        public Mono<Void> superseded() {
+            return supersededSignal.asMono();
+        }
+
+        /**
+         * 离开并发组，组内等待中的成员随之转为执行中；可重复调用
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                leave(this);
+            }
+        }
+    }
+}
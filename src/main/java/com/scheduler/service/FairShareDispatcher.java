@@ -0,0 +1,300 @@
+package com.scheduler.service;
+
+import com.scheduler.config.FairShareProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 租户公平调度
+ * Job获取Runner前先申请一个Runner名额。名额不足时Job按租户排队，空出的名额按赤字轮转（DRR）
+ * 在有Job排队的租户间分配：每轮租户获得与权重相等的额度，每个Job消耗1，额度用完后轮到下一个租户；
+ * 达到自身上限的租户本轮跳过。单个租户的大矩阵因此无法占满全部Runner。
+ * 同一租户内按Run的优先级出队，等待越久的Job优先级越高（见{@link AgingQueue}）。
+ *
+ * <p>租户取自Run的context（repository或owner），没有时归入{@value #DEFAULT_TENANT}。
+ * 租户没有排队的Job且不占用名额时即移除，并注销其指标，租户数和指标数只与活跃租户数相关。
+ */
+@Component
+public class FairShareDispatcher {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private final FairShareProperties properties;
+    private final PriorityProperties priorityProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<RunPriority, Timer> priorityWait;
+    private final Map<String, Tenant> tenants = new HashMap<>();
+
+    /**
+     * 有Job排队的租户，按轮转顺序排列
+     */
+    private final Deque<Tenant> rotation = new ArrayDeque<>();
+    private int running;
+
+    public FairShareDispatcher(FairShareProperties properties, PriorityProperties priorityProperties,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.priorityProperties = priorityProperties;
+        this.meterRegistry = meterRegistry;
+        this.priorityWait = AgingQueue.queueTimers(meterRegistry, "runner");
+        Gauge.builder("scheduler.fairshare.running.total", this, FairShareDispatcher::running)
+            .description("所有租户占用的Runner名额")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 从Run的context中取租户
+     */
+    public String tenantOf(Map<String, Object> context) {
+        String repository = stringValue(context, "repository");
+        if (properties.getTenantKey() == FairShareProperties.TenantKey.OWNER) {
+            String owner = stringValue(context, "repository_owner");
+            if (owner == null && repository != null) {
+                int slash = repository.indexOf('/');
+                owner = slash > 0 ? repository.substring(0, slash) : repository;
+            }
+            return owner != null ? owner : DEFAULT_TENANT;
+        }
+        return repository != null ? repository : DEFAULT_TENANT;
+    }
+
+    /**
+     * 申请一个Runner名额
+     * 获得名额时发出，用完后必须调用{@link Slot#release()}归还；排队中取消订阅则退出队列
+     */
+    public Mono<Slot> acquire(String tenant) {
+        return acquire(tenant, RunPriority.NORMAL);
+    }
+
+    /**
+     * 按优先级申请一个Runner名额
+     * 同一租户排队的Job中优先级高的先获得名额
+     */
+    public Mono<Slot> acquire(String tenant, RunPriority priority) {
+        if (!properties.isEnabled()) {
+            return Mono.just(new Slot(null));
+        }
+        return Mono.create(sink -> {
+            List<Waiter> granted;
+            Waiter waiter;
+            synchronized (this) {
+                Tenant owner = tenant(tenant);
+                waiter = new Waiter(owner, priority != null ? priority : RunPriority.NORMAL, sink);
+                owner.waiters.add(waiter, waiter.priority, waiter.enqueuedAt);
+                if (!owner.scheduled) {
+                    owner.scheduled = true;
+                    rotation.addLast(owner);
+                }
+                granted = dispatch();
+            }
+            sink.onCancel(() -> cancel(waiter));
+            granted.forEach(Waiter::grant);
+        });
+    }
+
+    /**
+     * 按赤字轮转分配空出的名额，返回获得名额的Job
+     * 调用方持有锁，并在释放锁后通知获得名额的Job
+     */
+    private List<Waiter> dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        // 连续因达到租户上限而跳过的次数，等于轮转中的租户数时说明没有可分配的租户
+        int blocked = 0;
+        while (running < properties.getMaxRunners() && !rotation.isEmpty() && blocked < rotation.size()) {
+            Tenant tenant = rotation.peekFirst();
+            if (tenant.waiters.isEmpty()) {
+                rotation.pollFirst();
+                tenant.scheduled = false;
+                tenant.deficit = 0;
+                retireIfIdle(tenant);
+                continue;
+            }
+            if (tenant.atLimit()) {
+                // 达到上限的租户不累积额度
+                tenant.deficit = 0;
+                rotation.addLast(rotation.pollFirst());
+                blocked++;
+                continue;
+            }
+            if (tenant.deficit <= 0) {
+                tenant.deficit += Math.max(1, tenant.share.getWeight());
+            }
+            Waiter waiter = tenant.waiters.poll();
+            waiter.slot = new Slot(tenant);
+            tenant.deficit--;
+            tenant.running++;
+            running++;
+            long waited = System.nanoTime() - waiter.enqueuedAt;
+            tenant.waitTimer.record(waited, TimeUnit.NANOSECONDS);
+            priorityWait.get(waiter.priority).record(waited, TimeUnit.NANOSECONDS);
+            granted.add(waiter);
+            blocked = 0;
+            if (tenant.deficit <= 0) {
+                rotation.addLast(rotation.pollFirst());
+            }
+        }
+        return granted;
+    }
+
+    private void cancel(Waiter waiter) {
+        Slot slot;
+        synchronized (this) {
+            slot = waiter.slot;
+            if (slot == null) {
+                Tenant tenant = waiter.tenant;
+                tenant.waiters.remove(waiter);
+                if (tenant.waiters.isEmpty() && tenant.scheduled) {
+                    rotation.remove(tenant);
+                    tenant.scheduled = false;
+                    tenant.deficit = 0;
+                }
+                retireIfIdle(tenant);
+            }
+        }
+        // 已获得名额但尚未交付时取消，直接归还
+        if (slot != null) {
+            slot.release();
+        }
+    }
+
+    private void release(Tenant tenant) {
+        List<Waiter> granted;
+        synchronized (this) {
+            tenant.running--;
+            running--;
+            granted = dispatch();
+            retireIfIdle(tenant);
+        }
+        granted.forEach(Waiter::grant);
+    }
+
+    /**
+     * 租户没有排队的Job且不占用名额时移除，并注销其指标；之后再申请会重新创建
+     * 调用方持有锁
+     */
+    private void retireIfIdle(Tenant tenant) {
+        if (tenant.scheduled || tenant.running > 0 || !tenant.waiters.isEmpty()) {
+            return;
+        }
+        if (tenants.remove(tenant.name, tenant)) {
+            tenant.meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    private Tenant tenant(String name) {
+        String key = name != null ? name : DEFAULT_TENANT;
+        return tenants.computeIfAbsent(key, Tenant::new);
+    }
+
+    private synchronized int running() {
+        return running;
+    }
+
+    private static String stringValue(Map<String, Object> context, String key) {
+        Object value = context != null ? context.get(key) : null;
+        return value instanceof String text && !text.isBlank() ? text : null;
+    }
+
+    /**
+     * Runner名额
+     */
+    public final class Slot {
+
+        private final Tenant tenant;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot(Tenant tenant) {
+            this.tenant = tenant;
+        }
+
+        /**
+         * 归还名额，可重复调用
+         */
+        public void release() {
+            if (tenant != null && released.compareAndSet(false, true)) {
+                FairShareDispatcher.this.release(tenant);
+            }
+        }
+    }
+
+    /**
+     * 排队等待名额的Job
+     */
+    private static final class Waiter {
+
+        private final Tenant tenant;
+        private final RunPriority priority;
+        private final MonoSink<Slot> sink;
+        private final long enqueuedAt = System.nanoTime();
+        private Slot slot;
+
+        private Waiter(Tenant tenant, RunPriority priority, MonoSink<Slot> sink) {
+            this.tenant = tenant;
+            this.priority = priority;
+            this.sink = sink;
+        }
+
+        private void grant() {
+            sink.success(slot);
+        }
+    }
+
+    /**
+     * 租户的排队和占用状态，由外层锁保护
+     */
+    private final class Tenant {
+
+        private final String name;
+        private final FairShareProperties.Share share;
+        private final AgingQueue<Waiter> waiters = new AgingQueue<>(priorityProperties.getAgingInterval());
+        private final Timer waitTimer;
+        private final List<Meter> meters;
+        private int running;
+        private int deficit;
+        private boolean scheduled;
+
+        private Tenant(String name) {
+            this.name = name;
+            this.share = properties.shareFor(name);
+            this.waitTimer = Timer.builder("scheduler.fairshare.wait")
+                .description("Job等待Runner名额的时间")
+                .tag("tenant", name)
+                .register(meterRegistry);
+            Gauge queued = Gauge.builder("scheduler.fairshare.queued", this, tenant -> tenant.count(true))
+                .description("等待Runner名额的Job数")
+                .tag("tenant", name)
+                .register(meterRegistry);
+            Gauge occupied = Gauge.builder("scheduler.fairshare.running", this, tenant -> tenant.count(false))
+                .description("租户占用的Runner名额")
+                .tag("tenant", name)
+                .register(meterRegistry);
+            this.meters = List.of(waitTimer, queued, occupied);
+        }
+
+        private boolean atLimit() {
+            return share.getMaxRunners() > 0 && running >= share.getMaxRunners();
+        }
+
+        private double count(boolean queued) {
+            synchronized (FairShareDispatcher.this) {
+                return queued ? waiters.size() : running;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.scheduler.service;
+
+/**
+ * Job被取消（被同一并发组的新Job取代），其后续Job随之跳过
+ */
+public class JobCancelledException extends RuntimeException {
+
+    public JobCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,204 @@
+package com.scheduler.service;
+
+import com.scheduler.action.JobGraph;
+import com.scheduler.model.RunnerInfo;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Job依赖图的一次执行
+ * Job在其依赖全部成功后立即启动；同时运行的Job达到上限时，
+ * 就绪Job按剩余关键路径长度排队，关键路径最长的优先启动。
+ * 依赖失败的Job及其后续Job会被跳过；以{@link JobCancelledException}结束的Job记为已取消，
+ * 其后续Job同样跳过，其余Job不受影响。
+ */
+class JobGraphExecution {
+
+    private final JobGraph graph;
+    private final Function<JobGraph.Node, Flux<RunnerInfo>> jobRunner;
+    private final int maxParallel;
+
+    private final PriorityQueue<JobGraph.Node> ready = new PriorityQueue<>(
+        Comparator.comparingLong(JobGraph.Node::getCriticalPath).reversed());
+    private final Map<JobGraph.Node, Integer> remainingDependencies = new HashMap<>();
+    private final Set<JobGraph.Node> skipped = new HashSet<>();
+    private final List<RunnerInfo> runners = new ArrayList<>();
+    private final List<String> skippedJobs = new ArrayList<>();
+    private final List<String> cancelledJobs = new ArrayList<>();
+    private final Disposable.Composite inflight = Disposables.composite();
+
+    private MonoSink<Result> sink;
+    private int running;
+    private int finished;
+    private boolean terminated;
+
+    JobGraphExecution(JobGraph graph, Function<JobGraph.Node, Flux<RunnerInfo>> jobRunner, int maxParallel) {
+        this.graph = graph;
+        this.jobRunner = jobRunner;
+        this.maxParallel = Math.max(1, maxParallel);
+    }
+
+    /**
+     * 执行依赖图，全部Job结束（完成、失败或跳过）后返回结果
+     * 取消订阅时会取消所有运行中的Job
+     */
+    Mono<Result> execute() {
+        return Mono.create(monoSink -> {
+            List<JobGraph.Node> toStart;
+            synchronized (this) {
+                sink = monoSink;
+                monoSink.onDispose(inflight);
+                for (JobGraph.Node node : graph.getNodes()) {
+                    remainingDependencies.put(node, node.getDependencyCount());
+                    if (node.getDependencyCount() == 0) {
+                        ready.add(node);
+                    }
+                }
+                toStart = pollStartable();
+            }
+            start(toStart);
+            completeIfDone();
+        });
+    }
+
+    private void start(List<JobGraph.Node> nodes) {
+        for (JobGraph.Node node : nodes) {
+            List<RunnerInfo> jobRunners = new ArrayList<>();
+            inflight.add(jobRunner.apply(node).subscribe(
+                jobRunners::add,
+                error -> {
+                    if (isCancellation(error)) {
+                        onJobCancelled(node, jobRunners);
+                    } else {
+                        fail(error);
+                    }
+                },
+                () -> onJobFinished(node, jobRunners)));
+        }
+    }
+
+    private void onJobFinished(JobGraph.Node node, List<RunnerInfo> jobRunners) {
+        List<JobGraph.Node> toStart;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            running--;
+            finished++;
+            runners.addAll(jobRunners);
+            boolean succeeded = jobRunners.stream()
+                .allMatch(r -> r.getStatus() == RunnerInfo.RunnerStatus.COMPLETED);
+            if (succeeded) {
+                for (JobGraph.Node dependent : node.getDependents()) {
+                    // 已因其他依赖失败而跳过的Job不再计数
+                    if (!skipped.contains(dependent)
+                            && remainingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            } else {
+                skipDependents(node);
+            }
+            toStart = pollStartable();
+        }
+        start(toStart);
+        completeIfDone();
+    }
+
+    private void onJobCancelled(JobGraph.Node node, List<RunnerInfo> jobRunners) {
+        List<JobGraph.Node> toStart;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            running--;
+            finished++;
+            runners.addAll(jobRunners);
+            cancelledJobs.add(node.getJobName());
+            skipDependents(node);
+            toStart = pollStartable();
+        }
+        start(toStart);
+        completeIfDone();
+    }
+
+    /**
+     * 错误（包括延迟合并的多个错误）是否全部为Job取消
+     */
+    private static boolean isCancellation(Throwable error) {
+        return Exceptions.unwrapMultiple(error).stream().allMatch(JobCancelledException.class::isInstance);
+    }
+
+    /**
+     * 跳过失败Job的所有后续Job（传递闭包）
+     */
+    private void skipDependents(JobGraph.Node failed) {
+        Deque<JobGraph.Node> pending = new ArrayDeque<>(failed.getDependents());
+        while (!pending.isEmpty()) {
+            JobGraph.Node node = pending.poll();
+            // 每个Job只跳过一次，多个依赖先后失败时不会重复计入
+            if (skipped.add(node)) {
+                skippedJobs.add(node.getJobName());
+                finished++;
+                pending.addAll(node.getDependents());
+            }
+        }
+    }
+
+    private List<JobGraph.Node> pollStartable() {
+        List<JobGraph.Node> toStart = new ArrayList<>();
+        while (running < maxParallel && !ready.isEmpty()) {
+            toStart.add(ready.poll());
+            running++;
+        }
+        return toStart;
+    }
+
+    private void completeIfDone() {
+        Result result;
+        synchronized (this) {
+            if (terminated || finished < graph.size()) {
+                return;
+            }
+            terminated = true;
+            result = new Result(List.copyOf(runners), List.copyOf(skippedJobs), List.copyOf(cancelledJobs));
+        }
+        sink.success(result);
+    }
+
+    private void fail(Throwable error) {
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+        }
+        sink.error(error);
+    }
+
+    /**
+     * 执行结果
+     *
+     * @param runners       已执行Job使用的Runner
+     * @param skippedJobs   因依赖失败或被取消而跳过的Job
+     * @param cancelledJobs 被取消的Job
+     */
+    record Result(List<RunnerInfo> runners, List<String> skippedJobs, List<String> cancelledJobs) {
+    }
+}
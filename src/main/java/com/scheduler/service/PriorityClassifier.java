@@ -0,0 +1,65 @@
+package com.scheduler.service;
+
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Map;
+
+/**
+ * Run优先级判定
+ * 依次取请求指定的priority、context.priority；都没有时按context.ref和context.event_name
+ * 匹配scheduler.priority中的规则，多个规则匹配时取最高，没有匹配时使用默认优先级
+ */
+@Component
+public class PriorityClassifier {
+
+    private final PriorityProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public PriorityClassifier(PriorityProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param requested 请求指定的优先级，可以为null
+     * @param context   Run的context，可以为null
+     * @throws IllegalArgumentException context.priority不是已知的优先级
+     */
+    public RunPriority classify(RunPriority requested, Map<String, Object> context) {
+        if (requested != null) {
+            return requested;
+        }
+        RunPriority explicit = RunPriority.from(stringValue(context, "priority"));
+        if (explicit != null) {
+            return explicit;
+        }
+        RunPriority matched = null;
+        String ref = stringValue(context, "ref");
+        if (ref != null) {
+            for (Map.Entry<String, RunPriority> rule : properties.getRefs().entrySet()) {
+                if (matcher.match(rule.getKey(), ref)) {
+                    matched = max(matched, rule.getValue());
+                }
+            }
+        }
+        String event = stringValue(context, "event_name");
+        if (event != null) {
+            matched = max(matched, properties.getEvents().get(event));
+        }
+        return matched != null ? matched : properties.getDefaultPriority();
+    }
+
+    private static RunPriority max(RunPriority current, RunPriority candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) > 0 ? candidate : current;
+    }
+
+    private static String stringValue(Map<String, Object> context, String key) {
+        Object value = context != null ? context.get(key) : null;
+        return value instanceof String text && !text.isBlank() ? text : null;
+    }
+}
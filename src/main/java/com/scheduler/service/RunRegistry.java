@@ -0,0 +1,120 @@
+package com.scheduler.service;
+
+import com.scheduler.config.StoreProperties;
+import com.scheduler.model.RunResponse;
+import com.scheduler.repository.BoundedStateStore;
+import com.scheduler.repository.StateStores;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Run注册表
+ * 按runId保存每个Run的最新状态快照，供状态查询接口使用。
+ * 每次状态变化都写入一份新的快照，读取时无需加锁，也不会看到写到一半的状态。
+ * 已结束的Run按scheduler.store.runs的保留策略淘汰；启用状态日志时重启后从日志恢复。
+ */
+@Component
+public class RunRegistry {
+
+    /**
+     * Run状态存储，结束的Run超过保留时间后淘汰，仅保留不含Runner列表的摘要
+     */
+    private final BoundedStateStore<RunResponse> runs;
+
+    /**
+     * 各状态的Run数量，随状态变化和淘汰同步维护
+     */
+    private final Map<RunResponse.RunStatus, LongAdder> counts = new EnumMap<>(RunResponse.RunStatus.class);
+
+    public RunRegistry(StateStores stateStores, StoreProperties storeProperties, MeterRegistry meterRegistry) {
+        for (RunResponse.RunStatus status : RunResponse.RunStatus.values()) {
+            LongAdder count = new LongAdder();
+            counts.put(status, count);
+            Gauge.builder("scheduler.runs", count, LongAdder::sum)
+                .description("各状态的Run数量")
+                .tag("status", status.name().toLowerCase())
+                .register(meterRegistry);
+        }
+        this.runs = stateStores.create("runs", storeProperties.getRuns(),
+            RunRegistry::isTerminal, RunRegistry::summarize, RunResponse.class);
+        this.runs.addEvictionListener(response -> counts.get(response.getStatus()).decrement());
+        for (RunResponse response : runs.values()) {
+            counts.get(response.getStatus()).increment();
+        }
+        // 从状态日志恢复的未结束Run已无执行流程，标记为失败
+        for (RunResponse response : runs.values()) {
+            if (!isTerminal(response)) {
+                RunResponse interrupted = snapshot(response);
+                interrupted.setStatus(RunResponse.RunStatus.FAILURE);
+                interrupted.setEndTime(LocalDateTime.now());
+                interrupted.setMessage("Interrupted by scheduler restart");
+                update(interrupted);
+            }
+        }
+    }
+
+    /**
+     * 记录Run的当前状态
+     */
+    public void update(RunResponse response) {
+        // 替换和计数在同一个键的锁内完成，同一Run的并发更新不会重复计数
+        runs.put(response.getRunId(), snapshot(response), previous -> {
+            if (previous == null || previous.getStatus() != response.getStatus()) {
+                if (previous != null) {
+                    counts.get(previous.getStatus()).decrement();
+                }
+                counts.get(response.getStatus()).increment();
+            }
+        });
+    }
+
+    /**
+     * 查询Run的最新状态
+     */
+    public Optional<RunResponse> find(String runId) {
+        return Optional.ofNullable(runs.get(runId));
+    }
+
+    /**
+     * 当前记录的Run数量
+     */
+    public int size() {
+        return runs.size();
+    }
+
+    private static boolean isTerminal(RunResponse response) {
+        return response.getStatus() == RunResponse.RunStatus.SUCCESS
+            || response.getStatus() == RunResponse.RunStatus.FAILURE
+            || response.getStatus() == RunResponse.RunStatus.CANCELLED;
+    }
+
+    private static RunResponse summarize(RunResponse response) {
+        return new RunResponse(response.getRunId(), response.getStatus(), response.getStartTime(),
+            response.getEndTime(), List.of(), response.getMessage(), response.getTemplateId(),
+            response.getPriority(), response.getReusedRunners(), response.getRunnerReuseRate());
+    }
+
+    private static RunResponse snapshot(RunResponse response) {
+        return new RunResponse(
+            response.getRunId(),
+            response.getStatus(),
+            response.getStartTime(),
+            response.getEndTime(),
+            response.getRunners() != null ? new ArrayList<>(response.getRunners()) : new ArrayList<>(),
+            response.getMessage(),
+            response.getTemplateId(),
+            response.getPriority(),
+            response.getReusedRunners(),
+            response.getRunnerReuseRate()
+        );
+    }
+}
@@ -0,0 +1,201 @@
+package com.scheduler.service;
+
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.JobGraph;
+import com.scheduler.model.RunnerInfo;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一次Run内的Runner复用
+ * Job执行成功后，它的Runner直接交给本Run中正在等待同一label的Runner的Job（跳过申请和连接）；
+ * 没有等待者但本Run还有未结束的Job可能使用该label时暂存起来，由下一个该label的Job直接取用。
+ * 不再有Job可能使用该label时，暂存的Runner交还调用方释放。
+ *
+ * <p>可能使用某个label的Job按依赖图中尚未结束的节点计算，runs-on为矩阵表达式的节点视为可能使用任意label。
+ */
+class RunnerHandoff {
+
+    private final Map<String, Integer> remaining = new HashMap<>();
+    private int anyLabel;
+    private final Map<String, Deque<RunnerInfo>> idle = new HashMap<>();
+    private final Map<String, Deque<Waiter>> waiters = new HashMap<>();
+    private int acquired;
+    private int reused;
+
+    RunnerHandoff(JobGraph graph) {
+        for (JobGraph.Node node : graph.getNodes()) {
+            String label = node.getRequirement().getRunsOn();
+            if (isExpression(label)) {
+                anyLabel++;
+            } else {
+                remaining.merge(label, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 取一个暂存的Runner，没有时为空
+     */
+    synchronized RunnerInfo poll(String label) {
+        Deque<RunnerInfo> runners = idle.get(label);
+        RunnerInfo runner = runners != null ? runners.poll() : null;
+        if (runners != null && runners.isEmpty()) {
+            idle.remove(label);
+        }
+        return runner;
+    }
+
+    /**
+     * 等待本Run中其他Job交出的Runner
+     * 取消订阅时退出等待；退出时恰好交到的Runner暂存起来，留给后续的Job
+     */
+    Mono<RunnerInfo> await(String label) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            synchronized (this) {
+                waiters.computeIfAbsent(label, key -> new ArrayDeque<>()).add(waiter);
+            }
+            sink.onCancel(() -> {
+                if (waiter.claimed.compareAndSet(false, true)) {
+                    synchronized (this) {
+                        Deque<Waiter> queue = waiters.get(label);
+                        if (queue != null && queue.remove(waiter) && queue.isEmpty()) {
+                            waiters.remove(label);
+                        }
+                    }
+                } else if (waiter.runner != null) {
+                    park(label, waiter.runner);
+                }
+            });
+        });
+    }
+
+    /**
+     * 交出执行成功的Runner
+     *
+     * @param label     Runner的label（Job的runs-on）
+     * @param finishing 交出Runner的Job（依赖图节点的需求）；矩阵Job还可能有后续组合，因此只有非矩阵Job不计入需求
+     * @return 交给了等待者或已暂存时为true，否则由调用方处理该Runner
+     */
+    boolean offer(RunnerInfo runner, String label, ActionParser.RunnerRequirement finishing) {
+        while (true) {
+            Waiter waiter;
+            synchronized (this) {
+                Deque<Waiter> queue = waiters.get(label);
+                waiter = queue != null ? queue.poll() : null;
+                if (queue != null && queue.isEmpty()) {
+                    waiters.remove(label);
+                }
+                if (waiter == null) {
+                    if (!wanted(label, finishing)) {
+                        return false;
+                    }
+                    park(label, runner);
+                    return true;
+                }
+            }
+            // 先记录再认领，认领失败说明等待者已取消
+            waiter.runner = runner;
+            if (waiter.claimed.compareAndSet(false, true)) {
+                waiter.sink.success(runner);
+                return true;
+            }
+        }
+    }
+
+    private synchronized void park(String label, RunnerInfo runner) {
+        idle.computeIfAbsent(label, key -> new ArrayDeque<>()).add(runner);
+    }
+
+    /**
+     * 一个Job（节点）结束，返回不再有Job可能使用的暂存Runner
+     */
+    synchronized List<RunnerInfo> finished(ActionParser.RunnerRequirement requirement) {
+        String label = requirement.getRunsOn();
+        if (isExpression(label)) {
+            anyLabel--;
+        } else {
+            remaining.merge(label, -1, Integer::sum);
+        }
+        List<RunnerInfo> unused = new ArrayList<>();
+        Iterator<Map.Entry<String, Deque<RunnerInfo>>> iterator = idle.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Deque<RunnerInfo>> entry = iterator.next();
+            if (!wanted(entry.getKey(), null)) {
+                unused.addAll(entry.getValue());
+                iterator.remove();
+            }
+        }
+        return unused;
+    }
+
+    /**
+     * 取出全部暂存的Runner（Run结束时释放）
+     */
+    synchronized List<RunnerInfo> drain() {
+        List<RunnerInfo> unused = new ArrayList<>();
+        idle.values().forEach(unused::addAll);
+        idle.clear();
+        return unused;
+    }
+
+    /**
+     * 记录一次获取Runner
+     *
+     * @param wasReused 是否复用了本Run中其他Job的Runner
+     */
+    synchronized void record(boolean wasReused) {
+        acquired++;
+        if (wasReused) {
+            reused++;
+        }
+    }
+
+    synchronized int acquired() {
+        return acquired;
+    }
+
+    synchronized int reused() {
+        return reused;
+    }
+
+    /**
+     * 复用的Runner占全部获取次数的比例，没有获取过Runner时为0
+     */
+    synchronized double reuseRate() {
+        return acquired == 0 ? 0 : (double) reused / acquired;
+    }
+
+    private boolean wanted(String label, ActionParser.RunnerRequirement finishing) {
+        int demand = remaining.getOrDefault(label, 0) + anyLabel;
+        if (finishing != null && finishing.getStrategy() == null && label.equals(finishing.getRunsOn())) {
+            // 交出Runner的非矩阵Job即将结束，不再需要
+            demand--;
+        }
+        return demand > 0;
+    }
+
+    private static boolean isExpression(String label) {
+        return label == null || label.contains("${{");
+    }
+
+    private static final class Waiter {
+        private final MonoSink<RunnerInfo> sink;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile RunnerInfo runner;
+
+        private Waiter(MonoSink<RunnerInfo> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.scheduler.service;
+
+/**
+ * 已注册的模板数量达到上限，新模板被拒绝
+ */
+public class TemplateLimitExceededException extends RuntimeException {
+
+    public TemplateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,103 @@
+package com.scheduler.service;
+
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.WorkflowPlan;
+import com.scheduler.config.RunProperties;
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工作流模板注册表
+ * 注册时校验并编译工作流计划，之后按模板ID触发，无需重复提交和解析完整的工作流定义
+ */
+@Component
+public class TemplateRegistry {
+
+    private final ActionParser actionParser;
+    private final int maxTemplates;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    /**
+     * 已占用的模板名额（已注册及正在编译的模板），并发注册时据此保证不超过上限
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    public TemplateRegistry(ActionParser actionParser, RunProperties runProperties, MeterRegistry meterRegistry) {
+        this.actionParser = actionParser;
+        this.maxTemplates = runProperties.getMaxTemplates();
+        Gauge.builder("scheduler.templates", templates, Map::size)
+            .description("已注册的工作流模板数量")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 注册工作流模板
+     *
+     * @throws IllegalArgumentException 工作流不合法（needs引用不存在的Job、循环依赖）
+     * @throws TemplateLimitExceededException 模板数量已达上限
+     */
+    public Template register(ActionRequest request) {
+        if (!reserve()) {
+            throw new TemplateLimitExceededException("Template limit reached: " + maxTemplates);
+        }
+        WorkflowPlan plan;
+        try {
+            plan = actionParser.compile(request);
+        } catch (RuntimeException e) {
+            reserved.decrementAndGet();
+            throw e;
+        }
+        String templateId = "tpl-" + UUID.randomUUID().toString().substring(0, 8);
+        Template template = new Template(templateId, plan, LocalDateTime.now());
+        templates.put(templateId, template);
+        return template;
+    }
+
+    /**
+     * 未达上限时占用一个名额
+     */
+    private boolean reserve() {
+        int current;
+        do {
+            current = reserved.get();
+            if (current >= maxTemplates) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public Optional<Template> find(String templateId) {
+        return Optional.ofNullable(templates.get(templateId));
+    }
+
+    /**
+     * 删除模板，已触发的Run不受影响
+     */
+    public boolean remove(String templateId) {
+        if (templates.remove(templateId) == null) {
+            return false;
+        }
+        reserved.decrementAndGet();
+        return true;
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * 已注册的模板
+     */
+    public record Template(String templateId, WorkflowPlan plan, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.scheduler.action;
+
+import com.scheduler.model.ActionRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobGraphTest {
+
+    private final ActionParser actionParser = new ActionParser();
+
+    @Test
+    void testCriticalPath() {
+        // build(2 steps) -> test(3 steps) -> deploy(1 step)
+        //             \-> lint(0 steps)
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        jobs.put("build", job(2));
+        jobs.put("test", job(3, "build"));
+        jobs.put("lint", job(0, "build"));
+        jobs.put("deploy", job(1, "test", "lint"));
+
+        JobGraph graph = actionParser.parseJobGraph(request(jobs));
+
+        assertThat(graph.size()).isEqualTo(4);
+        assertThat(graph.getNode("deploy").getCriticalPath()).isEqualTo(2);
+        assertThat(graph.getNode("test").getCriticalPath()).isEqualTo(6);
+        assertThat(graph.getNode("lint").getCriticalPath()).isEqualTo(3);
+        assertThat(graph.getNode("build").getCriticalPath()).isEqualTo(9);
+        assertThat(graph.getNode("deploy").getDependencyCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testUnknownDependencyIsRejected() {
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        jobs.put("test", job(1, "build"));
+
+        assertThatThrownBy(() -> actionParser.parseJobGraph(request(jobs)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unknown job 'build'");
+    }
+
+    @Test
+    void testCycleIsRejected() {
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        jobs.put("setup", job(1));
+        jobs.put("a", job(1, "setup", "c"));
+        jobs.put("b", job(1, "a"));
+        jobs.put("c", job(1, "b"));
+
+        assertThatThrownBy(() -> actionParser.parseJobGraph(request(jobs)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("cycle")
+            .hasMessageContaining("a, b, c")
+            .hasMessageNotContaining("setup");
+    }
+
+    @Test
+    void testNeedsResolvedThroughJobsWithoutRunner() {
+        // a -> b(没有runs-on) -> c：c仍需等待a
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        jobs.put("a", job(1));
+        ActionRequest.Job b = job(0, "a");
+        b.setRunsOn(null);
+        jobs.put("b", b);
+        jobs.put("c", job(1, "b"));
+        // 没有runs-on的Job之间的循环依赖不会导致无限递归
+        ActionRequest.Job x = job(0, "y", "a");
+        x.setRunsOn(null);
+        ActionRequest.Job y = job(0, "x");
+        y.setRunsOn(null);
+        jobs.put("x", x);
+        jobs.put("y", y);
+        jobs.put("d", job(1, "x"));
+
+        JobGraph graph = actionParser.parseJobGraph(request(jobs));
+
+        assertThat(graph.size()).isEqualTo(3);
+        assertThat(graph.getNode("c").getRequirement().getNeeds()).containsExactly("a");
+        assertThat(graph.getNode("c").getDependencyCount()).isEqualTo(1);
+        assertThat(graph.getNode("d").getRequirement().getNeeds()).containsExactly("a");
+        assertThat(graph.getNode("a").getCriticalPath()).isEqualTo(4);
+    }
+
+    private static ActionRequest request(Map<String, ActionRequest.Job> jobs) {
+        ActionRequest request = new ActionRequest();
+        request.setName("Graph Action");
+        request.setJobs(jobs);
+        return request;
+    }
+
+    @Test
+    void testMaxJobCountCountsMatrixLegs() {
+        ActionRequest.Matrix matrix = new ActionRequest.Matrix();
+        matrix.setDimension("os", List.of("ubuntu-latest", "windows-latest"));
+        matrix.setDimension("shard", List.of(1, 2, 3, 4, 5));
+        matrix.setExclude(List.of(Map.of("os", "windows-latest", "shard", 5)));
+        matrix.setInclude(List.of(Map.of("os", "macos-latest", "shard", 1)));
+        ActionRequest.Job test = job(1, "build");
+        test.setStrategy(new ActionRequest.Strategy(matrix, null));
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        jobs.put("build", job(1));
+        jobs.put("test", test);
+
+        JobGraph graph = actionParser.parseJobGraph(request(jobs));
+
+        // 2 x 5个组合加1个include，exclude不计入上限
+        assertThat(graph.size()).isEqualTo(2);
+        assertThat(graph.getNode("test").getMaxJobCount()).isEqualTo(11);
+        assertThat(graph.getMaxJobCount()).isEqualTo(12);
+    }
+
+    private static ActionRequest.Job job(int steps, String... needs) {
+        ActionRequest.Job job = new ActionRequest.Job();
+        job.setRunsOn("ubuntu-latest");
+        job.setSteps(new ActionRequest.Step[steps]);
+        job.setNeeds(List.of(needs));
+        return job;
+    }
+}
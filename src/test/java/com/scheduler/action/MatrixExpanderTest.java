@@ -0,0 +1,87 @@
+package com.scheduler.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.model.ActionRequest;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatrixExpanderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testIncludeAndExclude() throws Exception {
+        ActionRequest.Job job = objectMapper.readValue("""
+            {
+              "runs-on": "${{ matrix.os }}",
+              "concurrency": "build-${{ matrix.os }}",
+              "strategy": {
+                "max-parallel": 2,
+                "matrix": {
+                  "os": ["ubuntu-latest", "windows-latest"],
+                  "java": [17, 21],
+                  "exclude": [{"os": "windows-latest", "java": 17}],
+                  "include": [
+                    {"os": "ubuntu-latest", "experimental": true},
+                    {"os": "macos-latest", "java": 21}
+                  ]
+                }
+              }
+            }
+            """, ActionRequest.Job.class);
+
+        assertThat(job.getStrategy().getMaxParallel()).isEqualTo(2);
+        assertThat(job.getStrategy().getMatrix().getDimensions()).containsOnlyKeys("os", "java");
+
+        ActionParser.RunnerRequirement requirement = new ActionParser.RunnerRequirement(
+            "build", job.getRunsOn(), 1, List.of(), job.getStrategy(), job.getConcurrency());
+
+        StepVerifier.create(MatrixExpander.expand(requirement))
+            .assertNext(r -> {
+                assertThat(r.getJobName()).isEqualTo("build (ubuntu-latest, 17, true)");
+                assertThat(r.getRunsOn()).isEqualTo("ubuntu-latest");
+                assertThat(r.getConcurrency().getGroup()).isEqualTo("build-ubuntu-latest");
+            })
+            .assertNext(r -> assertThat(r.getJobName()).isEqualTo("build (ubuntu-latest, 21, true)"))
+            .assertNext(r -> assertThat(r.getRunsOn()).isEqualTo("windows-latest"))
+            .assertNext(r -> {
+                assertThat(r.getJobName()).isEqualTo("build (macos-latest, 21)");
+                assertThat(r.getRunsOn()).isEqualTo("macos-latest");
+                assertThat(r.getStrategy()).isNull();
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void testLargeMatrixIsExpandedLazily() {
+        // 1000 x 1000 x 1000 个组合，只取前3个
+        ActionRequest.Matrix matrix = new ActionRequest.Matrix();
+        List<Object> values = IntStream.range(0, 1000).boxed().map(Object.class::cast).toList();
+        matrix.setDimension("a", values);
+        matrix.setDimension("b", values);
+        matrix.setDimension("c", values);
+
+        StepVerifier.create(MatrixExpander.combinations(matrix).take(3))
+            .expectNext(Map.of("a", 0, "b", 0, "c", 0))
+            .expectNext(Map.of("a", 0, "b", 0, "c", 1))
+            .expectNext(Map.of("a", 0, "b", 0, "c", 2))
+            .expectComplete()
+            .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testJobWithoutMatrix() {
+        ActionParser.RunnerRequirement requirement = new ActionParser.RunnerRequirement("build", "ubuntu-latest", 1);
+
+        StepVerifier.create(MatrixExpander.expand(requirement))
+            .expectNext(requirement)
+            .verifyComplete();
+    }
+}
@@ -0,0 +1,118 @@
+package com.scheduler.action;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.config.RunProperties;
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanCacheTest {
+
+    private final ActionParser actionParser = new ActionParser();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RunProperties runProperties = new RunProperties();
+
+    @Test
+    void testSameStructureWithDifferentContextHits() {
+        PlanCache cache = newCache();
+
+        JobGraph first = cache.get(request("ubuntu-latest", Map.of("sha", "a")), actionParser::parseJobGraph);
+        JobGraph second = cache.get(request("ubuntu-latest", Map.of("sha", "b")), actionParser::parseJobGraph);
+
+        assertThat(second).isSameAs(first);
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testStructuralChangesMiss() {
+        PlanCache cache = newCache();
+        ActionRequest base = request("ubuntu-latest", null);
+        ActionRequest otherLabel = request("ubuntu-22.04", null);
+        ActionRequest otherStrategy = request("ubuntu-latest", null);
+        ActionRequest.Matrix matrix = new ActionRequest.Matrix();
+        matrix.getDimensions().put("java", List.of(17, 21));
+        otherStrategy.getJobs().get("test").setStrategy(new ActionRequest.Strategy(matrix, null));
+
+        assertThat(cache.key(base)).isNotEqualTo(cache.key(otherLabel)).isNotEqualTo(cache.key(otherStrategy));
+        JobGraph graph = cache.get(otherStrategy, actionParser::parseJobGraph);
+        assertThat(graph.getNode("test").getRequirement().getStrategy()).isNotNull();
+        assertThat(cache.get(base, actionParser::parseJobGraph)).isNotSameAs(graph);
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() {
+        runProperties.getPlanCache().setMaxEntries(2);
+        PlanCache cache = newCache();
+        ActionRequest a = request("a", null);
+        ActionRequest b = request("b", null);
+        ActionRequest c = request("c", null);
+
+        cache.get(a, actionParser::parseJobGraph);
+        cache.get(b, actionParser::parseJobGraph);
+        cache.get(a, actionParser::parseJobGraph);
+        cache.get(c, actionParser::parseJobGraph);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("scheduler.plan.cache.evictions").counter().count()).isEqualTo(1);
+        cache.get(a, actionParser::parseJobGraph);
+        assertThat(count("hit")).isEqualTo(2);
+        cache.get(b, actionParser::parseJobGraph);
+        assertThat(count("miss")).isEqualTo(4);
+    }
+
+    @Test
+    void testInvalidWorkflowNotCached() {
+        PlanCache cache = newCache();
+        ActionRequest request = request("ubuntu-latest", null);
+        request.getJobs().get("build").setNeeds(List.of("test"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cache.get(request, actionParser::parseJobGraph))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(cache.size()).isZero();
+        assertThat(count("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void testDisabled() {
+        runProperties.getPlanCache().setEnabled(false);
+        PlanCache cache = newCache();
+        ActionRequest request = request("ubuntu-latest", null);
+
+        assertThat(cache.get(request, actionParser::parseJobGraph))
+            .isNotSameAs(cache.get(request, actionParser::parseJobGraph));
+        assertThat(cache.size()).isZero();
+        assertThat(count("hit") + count("miss")).isZero();
+    }
+
+    private PlanCache newCache() {
+        return new PlanCache(runProperties, new ObjectMapper(), meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("scheduler.plan.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static ActionRequest request(String runsOn, Map<String, Object> context) {
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        ActionRequest.Job build = new ActionRequest.Job();
+        build.setRunsOn(runsOn);
+        build.setSteps(new ActionRequest.Step[]{new ActionRequest.Step("build", null, null, "mvn package")});
+        jobs.put("build", build);
+        ActionRequest.Job test = new ActionRequest.Job();
+        test.setRunsOn(runsOn);
+        test.setNeeds(List.of("build"));
+        jobs.put("test", test);
+        return new ActionRequest("ci", jobs, context, null, null);
+    }
+}
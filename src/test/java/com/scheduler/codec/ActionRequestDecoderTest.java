@@ -0,0 +1,166 @@
+package com.scheduler.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scheduler.config.RequestProperties;
+import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActionRequestDecoderTest {
+
+    private static final String WORKFLOW = """
+        {
+          "name": "ci",
+          "on": {"push": {"branches": ["main"]}},
+          "jobs": {
+            "build": {
+              "runs-on": "ubuntu-latest",
+              "env": {"A": "1", "nested": [{"x": [1, 2]}]},
+              "steps": [
+                {"name": "checkout", "uses": "actions/checkout@v4"},
+                {"name": "build \\"all\\" {}", "run": "mvn -B package", "with": {"k": "v"}}
+              ]
+            },
+            "test": {
+              "runs-on": "ubuntu-22.04",
+              "needs": "build",
+              "strategy": {"matrix": {"java": [17, 21]}, "max-parallel": 2},
+              "steps": [{"run": "mvn test"}]
+            },
+            "deploy": {
+              "runs-on": "self-hosted",
+              "needs": ["build", "test"],
+              "concurrency": {"group": "deploy-${{ github.ref }}", "cancel-in-progress": true}
+            }
+          },
+          "context": {"repository": "org/repo", "sha": "abc"},
+          "priority": "high",
+          "concurrency": "ci-${{ github.ref }}"
+        }
+        """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RequestProperties properties;
+    private ActionRequestDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestProperties();
+        decoder = new ActionRequestDecoder(objectMapper, properties);
+    }
+
+    @Test
+    void testDecodesSchedulingFields() {
+        ActionRequest request = decode(WORKFLOW, Integer.MAX_VALUE);
+
+        assertThat(request.getName()).isEqualTo("ci");
+        assertThat(request.getContext()).containsEntry("repository", "org/repo");
+        assertThat(request.getPriority()).isEqualTo(RunPriority.HIGH);
+        assertThat(request.getJobs()).containsOnlyKeys("build", "test", "deploy");
+        assertThat(request.getJobs().get("test").getNeeds()).containsExactly("build");
+        assertThat(request.getJobs().get("deploy").getNeeds()).containsExactly("build", "test");
+        assertThat(request.getJobs().get("deploy").getSteps()).isNull();
+        ActionRequest.Strategy strategy = request.getJobs().get("test").getStrategy();
+        assertThat(strategy.getMaxParallel()).isEqualTo(2);
+        assertThat(strategy.getMatrix().getDimensions()).containsEntry("java", List.of(17, 21));
+        assertThat(request.getConcurrency()).isEqualTo(new ActionRequest.Concurrency("ci-${{ github.ref }}", false));
+        assertThat(request.getJobs().get("deploy").getConcurrency())
+            .isEqualTo(new ActionRequest.Concurrency("deploy-${{ github.ref }}", true));
+    }
+
+    @Test
+    void testStepsDecodedLazily() throws Exception {
+        ActionRequest request = decode(WORKFLOW, Integer.MAX_VALUE);
+        ActionRequest.Step[] steps = request.getJobs().get("build").getSteps();
+
+        assertThat(steps).hasSize(2).allMatch(step -> step instanceof LazyStep lazy && !lazy.isDecoded());
+        LazyStep step = (LazyStep) steps[1];
+        assertThat(step.getName()).isEqualTo("build \"all\" {}");
+        assertThat(step.isDecoded()).isTrue();
+        assertThat(step.getWith()).containsEntry("k", "v");
+        assertThat(((LazyStep) steps[0]).isDecoded()).isFalse();
+
+        // 重新序列化输出原始片段
+        Map<?, ?> json = objectMapper.readValue(objectMapper.writeValueAsString(request), Map.class);
+        assertThat(json.get("jobs").toString()).contains("actions/checkout@v4");
+    }
+
+    @Test
+    void testArbitraryChunkBoundaries() {
+        ActionRequest expected = decode(WORKFLOW, Integer.MAX_VALUE);
+        for (int chunkSize : new int[]{1, 2, 7, 64}) {
+            ActionRequest request = decode(WORKFLOW, chunkSize);
+
+            assertThat(request.getJobs().keySet()).isEqualTo(expected.getJobs().keySet());
+            assertThat(request.getJobs().get("test").getStrategy())
+                .isEqualTo(expected.getJobs().get("test").getStrategy());
+            assertThat(Arrays.stream(request.getJobs().get("build").getSteps()).map(ActionRequest.Step::getName))
+                .containsExactly("checkout", "build \"all\" {}");
+        }
+    }
+
+    @Test
+    void testPayloadLimitEnforcedWhileStreaming() {
+        properties.setMaxPayloadSize(DataSize.ofBytes(100));
+
+        StepVerifier.create(decoder.decodeToMono(chunks(WORKFLOW, 64),
+                ResolvableType.forClass(ActionRequest.class), MediaType.APPLICATION_JSON, Map.of()))
+            .expectError(DataBufferLimitException.class)
+            .verify();
+    }
+
+    @Test
+    void testDepthLimitEnforced() {
+        properties.setMaxDepth(4);
+        String deep = "{\"jobs\":{\"a\":{\"env\":{\"b\":{\"c\":1}}}}}";
+
+        StepVerifier.create(decoder.decodeToMono(chunks(deep, 8),
+                ResolvableType.forClass(ActionRequest.class), MediaType.APPLICATION_JSON, Map.of()))
+            .expectError(DecodingException.class)
+            .verify();
+    }
+
+    @Test
+    void testMalformedInputRejected() {
+        for (String body : List.of("{\"jobs\": {\"a\": ", "[]", "{\"jobs\":{\"a\":{\"steps\":[1]}}}",
+                "{\"priority\": \"urgent\"}")) {
+            StepVerifier.create(decoder.decodeToMono(chunks(body, 4),
+                    ResolvableType.forClass(ActionRequest.class), MediaType.APPLICATION_JSON, Map.of()))
+                .expectError(DecodingException.class)
+                .verify();
+        }
+    }
+
+    private ActionRequest decode(String json, int chunkSize) {
+        return decoder.decodeToMono(chunks(json, chunkSize),
+            ResolvableType.forClass(ActionRequest.class), MediaType.APPLICATION_JSON, Map.of()).block();
+    }
+
+    private static Flux<DataBuffer> chunks(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance
+                .wrap(Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,90 @@
+package com.scheduler.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ExecutionSchedulersTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService virtualThreadExecutorService;
+    private ExecutionSchedulers executionSchedulers;
+
+    @BeforeEach
+    void setUp() {
+        ExecutionProperties properties = new ExecutionProperties();
+        properties.getPhases().put(ExecutionSchedulers.Phase.CONNECT, ExecutionSchedulers.Kind.PARALLEL);
+        properties.getParallel().setThreads(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        virtualThreadExecutorService = Executors.newVirtualThreadPerTaskExecutor();
+        executionSchedulers = new ExecutionSchedulers(properties, virtualThreadExecutorService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionSchedulers.dispose();
+        virtualThreadExecutorService.close();
+    }
+
+    @Test
+    void testDisposeLeavesInjectedExecutorToItsOwner() {
+        executionSchedulers.dispose();
+
+        assertThat(executionSchedulers.get(ExecutionSchedulers.Kind.PARALLEL).isDisposed()).isTrue();
+        assertThat(executionSchedulers.get(ExecutionSchedulers.Kind.BOUNDED_ELASTIC).isDisposed()).isTrue();
+        // 虚拟线程ExecutorService由Spring关闭，这里仍可继续使用
+        assertThat(virtualThreadExecutorService.isShutdown()).isFalse();
+        assertThat(executionSchedulers.get(ExecutionSchedulers.Kind.VIRTUAL).isDisposed()).isFalse();
+    }
+
+    @Test
+    void testPhaseSelection() {
+        assertThat(executionSchedulers.forPhase(ExecutionSchedulers.Phase.CONNECT))
+            .isSameAs(executionSchedulers.get(ExecutionSchedulers.Kind.PARALLEL));
+        // 未配置的阶段使用虚拟线程调度器
+        assertThat(executionSchedulers.forPhase(ExecutionSchedulers.Phase.EXECUTE))
+            .isSameAs(executionSchedulers.get(ExecutionSchedulers.Kind.VIRTUAL));
+
+        StepVerifier.create(Mono.fromCallable(() -> Thread.currentThread().isVirtual())
+                .subscribeOn(executionSchedulers.forPhase(ExecutionSchedulers.Phase.EXECUTE)))
+            .expectNext(true)
+            .verifyComplete();
+    }
+
+    @Test
+    void testQueueDepthAndActiveTasksAreReported() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            executionSchedulers.get(ExecutionSchedulers.Kind.PARALLEL).schedule(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        // 单线程：1个执行中，2个排队
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+            meterRegistry.get("scheduler.execution.active").tag("scheduler", "parallel").gauge().value() == 1.0);
+        assertThat(meterRegistry.get("scheduler.execution.queued").tag("scheduler", "parallel").gauge().value())
+            .isEqualTo(2.0);
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() ->
+            meterRegistry.get("scheduler.execution.completed").tag("scheduler", "parallel")
+                .functionCounter().count() == 3.0);
+    }
+}
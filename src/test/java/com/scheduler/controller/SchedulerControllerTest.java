@@ -1,25 +1,43 @@
 package com.scheduler.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.scheduler.model.ActionRequest;
 import com.scheduler.model.RunResponse;
+import com.scheduler.repository.LogStore;
 import com.scheduler.service.ActionSchedulerService;
+import com.scheduler.service.AdmissionRejectedException;
+import com.scheduler.service.RunRegistry;
+import com.scheduler.service.TemplateLimitExceededException;
+import com.scheduler.service.TemplateRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
-@WebFluxTest(SchedulerController.class)
+@WebFluxTest(controllers = SchedulerController.class, properties = "scheduler.request.max-payload-size=4KB")
 class SchedulerControllerTest {
 
     @Autowired
@@ -28,6 +46,15 @@ class SchedulerControllerTest {
     @MockBean
     private ActionSchedulerService actionSchedulerService;
 
+    @MockBean
+    private RunRegistry runRegistry;
+
+    @MockBean
+    private TemplateRegistry templateRegistry;
+
+    @MockBean
+    private LogStore logStore;
+
     @Test
     void testRunAction() {
         // 准备测试数据
@@ -38,7 +65,7 @@ class SchedulerControllerTest {
         response.setStartTime(LocalDateTime.now());
 
         // Mock服务响应
-        when(actionSchedulerService.parseAndSchedule(any(ActionRequest.class)))
+        when(actionSchedulerService.submit(any(ActionRequest.class)))
             .thenReturn(Mono.just(response));
 
         // 执行测试
@@ -55,6 +82,200 @@ class SchedulerControllerTest {
             });
     }
 
+    @Test
+    void testRunActionRejectedWhenOverloaded() {
+        when(actionSchedulerService.submit(any(ActionRequest.class)))
+            .thenReturn(Mono.error(new AdmissionRejectedException("Admission queue is full", Duration.ofMillis(1500))));
+
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createTestActionRequest())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+    }
+
+    @Test
+    void testRunActionRejectsOversizedPayload() {
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"name\":\"" + "x".repeat(8 * 1024) + "\",\"jobs\":{}}")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void testRunActionRejectsMalformedSteps() {
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"jobs\":{\"build\":{\"runs-on\":\"ubuntu-latest\",\"steps\":[\"echo\"]}}}")
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testRunActionNegotiatesBinaryFormats() throws Exception {
+        RunResponse response = new RunResponse();
+        response.setRunId("run-12345678");
+        response.setStatus(RunResponse.RunStatus.PENDING);
+        response.setStartTime(LocalDateTime.now());
+        when(actionSchedulerService.submit(argThat(request -> request != null && request.getJobs() != null
+            && "ubuntu-latest".equals(request.getJobs().get("test-job").getRunsOn())
+            && "Test Step".equals(request.getJobs().get("test-job").getSteps()[0].getName()))))
+            .thenReturn(Mono.just(response));
+
+        // 请求和响应格式分别由Content-Type和Accept决定
+        Map<MediaType, ObjectMapper> formats = Map.of(
+            MediaType.APPLICATION_CBOR, new CBORMapper(),
+            new MediaType("application", "x-jackson-smile"), new SmileMapper());
+        for (Map.Entry<MediaType, ObjectMapper> format : formats.entrySet()) {
+            byte[] body = webTestClient.post()
+                .uri("/api/v1/run")
+                .contentType(format.getKey())
+                .accept(format.getKey())
+                .bodyValue(format.getValue().writeValueAsBytes(createTestActionRequest()))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectHeader().contentTypeCompatibleWith(format.getKey())
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+            JsonNode run = format.getValue().readTree(body);
+            assertThat(run.get("runId").asText()).isEqualTo("run-12345678");
+            assertThat(run.get("status").asText()).isEqualTo("PENDING");
+        }
+
+        // 未指定Accept时仍返回JSON
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .bodyValue(new CBORMapper().writeValueAsBytes(createTestActionRequest()))
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.runId").isEqualTo("run-12345678");
+    }
+
+    @Test
+    void testRunActionRejectsOversizedBinaryPayload() throws Exception {
+        ActionRequest request = createTestActionRequest();
+        request.setName("x".repeat(8 * 1024));
+
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .bodyValue(new CBORMapper().writeValueAsBytes(request))
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void testRegisterTemplateRejections() {
+        ActionRequest invalid = createTestActionRequest();
+        invalid.getJobs().get("test-job").setNeeds(List.of("missing-job"));
+        doThrow(new TemplateLimitExceededException("Template limit reached: 1"))
+            .when(templateRegistry).register(any(ActionRequest.class));
+        doThrow(new IllegalArgumentException("Job 'test-job' needs unknown job 'missing-job'"))
+            .when(templateRegistry).register(argThat(request -> request != null && request.getJobs() != null
+                && request.getJobs().get("test-job").getNeeds() != null));
+
+        // 模板数量达到上限与工作流不合法区分开
+        webTestClient.post()
+            .uri("/api/v1/templates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createTestActionRequest())
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+            .expectBody()
+            .jsonPath("$.error").isEqualTo("Template limit reached: 1");
+
+        webTestClient.post()
+            .uri("/api/v1/templates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(invalid)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetRun() {
+        RunResponse response = new RunResponse();
+        response.setRunId("run-12345678");
+        response.setStatus(RunResponse.RunStatus.SUCCESS);
+        when(runRegistry.find("run-12345678")).thenReturn(Optional.of(response));
+        when(runRegistry.find("run-missing")).thenReturn(Optional.empty());
+
+        webTestClient.get()
+            .uri("/api/v1/runs/run-12345678")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(RunResponse.class)
+            .value(r -> {
+                assert r.getStatus() == RunResponse.RunStatus.SUCCESS;
+            });
+
+        webTestClient.get()
+            .uri("/api/v1/runs/run-missing")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCancelRun() {
+        RunResponse cancelled = new RunResponse();
+        cancelled.setRunId("run-12345678");
+        cancelled.setStatus(RunResponse.RunStatus.CANCELLED);
+        RunResponse finished = new RunResponse();
+        finished.setRunId("run-finished");
+        finished.setStatus(RunResponse.RunStatus.SUCCESS);
+        when(actionSchedulerService.cancel("run-12345678")).thenReturn(Mono.just(cancelled));
+        when(actionSchedulerService.cancel("run-finished")).thenReturn(Mono.just(finished));
+        when(actionSchedulerService.cancel("run-missing")).thenReturn(Mono.empty());
+
+        webTestClient.delete()
+            .uri("/api/v1/runs/run-12345678")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo("CANCELLED");
+
+        webTestClient.delete()
+            .uri("/api/v1/runs/run-finished")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        webTestClient.delete()
+            .uri("/api/v1/runs/run-missing")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testReadLogs() throws Exception {
+        ByteBuffer region = ByteBuffer.wrap("step 1/1 completed\n".getBytes(StandardCharsets.UTF_8));
+        when(logStore.read("run-12345678", "build", 5, 100))
+            .thenReturn(Optional.of(new LogStore.LogSlice(5, 24, 40, List.of(region))));
+        when(logStore.read("run-12345678", "deploy", 0, Long.MAX_VALUE)).thenReturn(Optional.empty());
+
+        webTestClient.get()
+            .uri("/api/v1/runs/run-12345678/jobs/build/logs?offset=5&limit=100")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(SchedulerController.LOG_OFFSET_HEADER, "5")
+            .expectHeader().valueEquals(SchedulerController.LOG_NEXT_OFFSET_HEADER, "24")
+            .expectHeader().valueEquals(SchedulerController.LOG_END_OFFSET_HEADER, "40")
+            .expectBody(String.class).isEqualTo("step 1/1 completed\n");
+
+        webTestClient.get()
+            .uri("/api/v1/runs/run-12345678/jobs/deploy/logs")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
     private ActionRequest createTestActionRequest() {
         ActionRequest request = new ActionRequest();
         request.setName("Test Action");
@@ -1,16 +1,25 @@
 package com.scheduler.integration;
 
 import com.scheduler.model.ActionRequest;
+import com.scheduler.model.RunPriority;
 import com.scheduler.model.RunResponse;
+import com.scheduler.model.TemplateResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 /**
  * 集成测试
@@ -18,6 +27,7 @@ import java.util.Map;
  */
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWebTestClient
+@AutoConfigureObservability
 class SchedulerIntegrationTest {
 
     @Autowired
@@ -59,6 +69,25 @@ class SchedulerIntegrationTest {
             });
     }
 
+    @Test
+    void testPriorityDerivedFromRef() {
+        ActionRequest request = createSimpleActionRequest();
+        request.setContext(Map.of("repository", "org/repo", "ref", "refs/heads/hotfix/login"));
+
+        RunResponse accepted = webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody(RunResponse.class)
+            .returnResult()
+            .getResponseBody();
+
+        // 按scheduler.priority.refs推断优先级
+        assertThat(accepted.getPriority()).isEqualTo(RunPriority.CRITICAL);
+    }
+
     @Test
     void testConcurrentActionExecution() {
         // 测试并发执行多个Action
@@ -76,6 +105,132 @@ class SchedulerIntegrationTest {
         }
     }
 
+    @Test
+    void testJobDependencies() {
+        ActionRequest request = createSimpleActionRequest();
+        ActionRequest.Job deploy = new ActionRequest.Job();
+        deploy.setRunsOn("ubuntu-latest");
+        deploy.setNeeds(List.of("simple-job"));
+        request.getJobs().put("deploy-job", deploy);
+
+        RunResponse accepted = webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody(RunResponse.class)
+            .returnResult()
+            .getResponseBody();
+
+        RunResponse finished = awaitRun(accepted.getRunId());
+        assert finished.getStatus() == RunResponse.RunStatus.SUCCESS;
+        assert finished.getRunners().size() == 2;
+    }
+
+    @Test
+    void testCyclicJobDependenciesRejected() {
+        ActionRequest request = createSimpleActionRequest();
+        request.getJobs().get("simple-job").setNeeds(List.of("simple-job"));
+
+        webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testPhaseMetricsExposedForPrometheus() {
+        RunResponse accepted = webTestClient.post()
+            .uri("/api/v1/run")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(createSimpleActionRequest())
+            .exchange()
+            .expectStatus().isAccepted()
+            .expectBody(RunResponse.class)
+            .returnResult()
+            .getResponseBody();
+        awaitRun(accepted.getRunId());
+
+        String scrape = webTestClient.get()
+            .uri("/actuator/prometheus")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(scrape)
+            .contains("scheduler_phase_seconds_bucket{")
+            .contains("phase=\"parse\"")
+            .contains("phase=\"execute\"")
+            .contains("scheduler_runs{");
+    }
+
+    @Test
+    void testTemplateRegisterAndRun() {
+        ActionRequest request = createSimpleActionRequest();
+        request.setContext(Map.of("repository", "org/repo", "ref", "main"));
+
+        TemplateResponse template = webTestClient.post()
+            .uri("/api/v1/templates")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(request)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectBody(TemplateResponse.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(template.getJobs()).isEqualTo(1);
+        assertThat(template.getLabels()).containsExactly("ubuntu-latest");
+
+        for (int i = 0; i < 2; i++) {
+            RunResponse accepted = webTestClient.post()
+                .uri("/api/v1/templates/" + template.getTemplateId() + "/run")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ref", "feature-" + i))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody(RunResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+            RunResponse finished = awaitRun(accepted.getRunId());
+            assertThat(finished.getStatus()).isEqualTo(RunResponse.RunStatus.SUCCESS);
+            assertThat(finished.getTemplateId()).isEqualTo(template.getTemplateId());
+        }
+
+        webTestClient.delete()
+            .uri("/api/v1/templates/" + template.getTemplateId())
+            .exchange()
+            .expectStatus().isNoContent();
+        webTestClient.post()
+            .uri("/api/v1/templates/" + template.getTemplateId() + "/run")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    /**
+     * 轮询Run状态直到结束
+     */
+    private RunResponse awaitRun(String runId) {
+        AtomicReference<RunResponse> result = new AtomicReference<>();
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            RunResponse response = webTestClient.get()
+                .uri("/api/v1/runs/" + runId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RunResponse.class)
+                .returnResult()
+                .getResponseBody();
+            result.set(response);
+            return response.getEndTime() != null;
+        });
+        return result.get();
+    }
+
     private ActionRequest createSimpleActionRequest() {
         ActionRequest request = new ActionRequest();
         request.setName("Simple Action");
@@ -0,0 +1,128 @@
+package com.scheduler.performance;
+
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.model.RunnerInfo;
+import com.scheduler.repository.BoundedStateStore;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import com.scheduler.runner.RunnerState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 状态日志恢复基准
+ * 写入100万条Runner状态变化记录（25万个Runner，每个4次状态变化，记录与RunnerService一样为{@link RunnerState}），
+ * 分别测量重放完整日志和"快照+日志尾部"两种情况下的恢复耗时。
+ *
+ * <p>类名不符合surefire默认的测试类命名，{@code mvn test}不会运行；
+ * 通过{@code ./run-performance-tests.sh journal}（即{@code mvn test -Dtest=JournalRecoveryBenchmark}）单独运行。
+ */
+@DisplayName("状态日志恢复基准")
+class JournalRecoveryBenchmark {
+
+    private static final int RUNNERS = 250_000;
+
+    /**
+     * 每个Runner的状态变化：ALLOCATED→CONNECTED→RUNNING→COMPLETED
+     */
+    private static final int TRANSITIONS = 4;
+    private static final int STEPS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("重放完整日志 - 100万条记录")
+    @Timeout(300)
+    void testReplayFullJournal() {
+        JournalProperties properties = properties("full");
+        write(properties, false);
+
+        recover(properties, "重放完整日志");
+    }
+
+    @Test
+    @DisplayName("快照 + 日志尾部 - 100万条记录")
+    @Timeout(300)
+    void testReplaySnapshotAndTail() {
+        JournalProperties properties = properties("snapshot");
+        write(properties, true);
+
+        recover(properties, "快照+日志尾部");
+    }
+
+    /**
+     * 写入100万条记录；compactHalfway为true时在写入一半后生成快照
+     */
+    private void write(JournalProperties properties, boolean compactHalfway) {
+        StoreProperties storeProperties = new StoreProperties();
+        StateJournal journal = new StateJournal(properties, new SimpleMeterRegistry());
+        StateStores stateStores = new StateStores(storeProperties, journal, new SimpleMeterRegistry());
+        BoundedStateStore<RunnerState> store = create(stateStores, storeProperties);
+        RunnerState[] states = new RunnerState[RUNNERS];
+
+        long start = System.nanoTime();
+        for (int step = 0; step < TRANSITIONS; step++) {
+            for (int i = 0; i < RUNNERS; i++) {
+                String runnerId = "runner-" + i;
+                long now = RunnerState.now();
+                states[i] = switch (step) {
+                    case 0 -> RunnerState.allocated(runnerId, "ubuntu-latest", now);
+                    case 1 -> states[i].moveTo(RunnerInfo.RunnerStatus.CONNECTED, now);
+                    case 2 -> states[i].start(STEPS);
+                    default -> states[i].moveTo(RunnerInfo.RunnerStatus.COMPLETED, now);
+                };
+                store.put(runnerId, states[i]);
+            }
+            if (compactHalfway && step == TRANSITIONS / 2 - 1) {
+                stateStores.compact();
+            }
+        }
+        journal.flush();
+        long elapsed = System.nanoTime() - start;
+        stateStores.dispose();
+        journal.close();
+
+        int records = RUNNERS * TRANSITIONS;
+        System.out.printf("写入 %d 条记录耗时 %d ms (%.0f 条/秒)%n",
+            records, elapsed / 1_000_000, records / (elapsed / 1e9));
+    }
+
+    private void recover(JournalProperties properties, String name) {
+        StoreProperties storeProperties = new StoreProperties();
+        long start = System.nanoTime();
+        StateJournal journal = new StateJournal(properties, new SimpleMeterRegistry());
+        StateStores stateStores = new StateStores(storeProperties, journal, new SimpleMeterRegistry());
+        BoundedStateStore<RunnerState> store = create(stateStores, storeProperties);
+        long elapsed = System.nanoTime() - start;
+        stateStores.dispose();
+        journal.close();
+
+        System.out.printf("%s: 恢复 %d 个Runner耗时 %d ms%n", name, store.size(), elapsed / 1_000_000);
+        assertThat(store.size()).isEqualTo(RUNNERS);
+        assertThat(store.getLive("runner-0").status()).isEqualTo(RunnerInfo.RunnerStatus.COMPLETED);
+        assertThat(store.getLive("runner-0").stepStatuses()).hasSize(STEPS);
+    }
+
+    private static BoundedStateStore<RunnerState> create(StateStores stateStores, StoreProperties storeProperties) {
+        storeProperties.getRunners().setMaxEntries(RUNNERS * 2);
+        return stateStores.create("runners", storeProperties.getRunners(),
+            runner -> false, runner -> runner, RunnerState.class);
+    }
+
+    private JournalProperties properties(String name) {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.resolve(name).toString());
+        properties.setForceOnCommit(false);
+        return properties;
+    }
+}
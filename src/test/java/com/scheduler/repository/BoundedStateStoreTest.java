@@ -0,0 +1,90 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.StoreProperties;
+import com.scheduler.model.RunnerInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedStateStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private StoreProperties.Retention retention;
+    private BoundedStateStore<RunnerInfo> store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retention = new StoreProperties.Retention();
+        retention.setTtl(Duration.ofSeconds(60));
+        retention.setMaxEntries(3);
+        store = new BoundedStateStore<>("runners", retention,
+            runner -> runner.getStatus() == RunnerInfo.RunnerStatus.RELEASED,
+            runner -> new RunnerInfo(runner.getRunnerId(), runner.getStatus(), null, null, null, null, null),
+            meterRegistry, clock::get);
+    }
+
+    @Test
+    void testTerminalEntriesExpireAfterTtl() {
+        store.put("active", runner("active", RunnerInfo.RunnerStatus.RUNNING));
+        store.put("released", runner("released", RunnerInfo.RunnerStatus.RELEASED));
+
+        clock.set(Duration.ofSeconds(59).toNanos());
+        store.evict();
+        assertThat(store.size()).isEqualTo(2);
+
+        clock.set(Duration.ofSeconds(61).toNanos());
+        store.evict();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.getLive("released")).isNull();
+        // 淘汰后仍可查询摘要
+        assertThat(store.get("released").getStatus()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(store.get("released").getAllocatedAt()).isNull();
+        // 未进入终态的条目不会过期
+        assertThat(store.getLive("active")).isNotNull();
+        assertThat(meterRegistry.get("scheduler.store.evictions").tag("reason", "ttl").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void testOldestTerminalEntriesEvictedOverCapacity() {
+        for (int i = 0; i < 5; i++) {
+            clock.set(i);
+            store.put("r" + i, runner("r" + i, RunnerInfo.RunnerStatus.RELEASED));
+        }
+        store.put("active", runner("active", RunnerInfo.RunnerStatus.RUNNING));
+
+        store.evict();
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.getLive("r0")).isNull();
+        assertThat(store.getLive("r2")).isNull();
+        assertThat(store.getLive("r3")).isNotNull();
+        assertThat(store.getLive("active")).isNotNull();
+        assertThat(meterRegistry.get("scheduler.store.evictions").tag("reason", "capacity").counter().count())
+            .isEqualTo(3.0);
+        assertThat(meterRegistry.get("scheduler.store.size").tag("store", "runners").gauge().value())
+            .isEqualTo(3.0);
+    }
+
+    @Test
+    void testSummaryCanBeDisabled() {
+        retention.setSummaryEnabled(false);
+        store.put("released", runner("released", RunnerInfo.RunnerStatus.RELEASED));
+
+        clock.set(Duration.ofMinutes(2).toNanos());
+        store.evict();
+
+        assertThat(store.get("released")).isNull();
+    }
+
+    private static RunnerInfo runner(String id, RunnerInfo.RunnerStatus status) {
+        return new RunnerInfo(id, status, null, null, null, null, null);
+    }
+}
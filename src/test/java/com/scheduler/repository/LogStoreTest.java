@@ -0,0 +1,155 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.LogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private LogProperties properties;
+    private LogStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LogProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofBytes(16));
+        store = newStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testReadAcrossSegments() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            store.append("run-1", "build", "line-" + i + "\n");
+        }
+        store.append("run-1", "test", "other\n");
+
+        LogStore.LogSlice all = store.read("run-1", "build", 0, Long.MAX_VALUE).orElseThrow();
+        assertThat(text(all)).isEqualTo(expected(0, 10));
+        assertThat(all.regions()).hasSizeGreaterThan(1);
+        assertThat(all.nextOffset()).isEqualTo(all.endOffset()).isEqualTo(70);
+
+        // 从任意偏移按段拼接，且不超过limit
+        LogStore.LogSlice middle = store.read("run-1", "build", 10, 25).orElseThrow();
+        assertThat(middle.startOffset()).isEqualTo(10);
+        assertThat(middle.nextOffset()).isEqualTo(35);
+        assertThat(text(middle)).isEqualTo(expected(0, 10).substring(10, 35));
+
+        // 已读到末尾时返回空内容
+        LogStore.LogSlice tail = store.read("run-1", "build", 70, 100).orElseThrow();
+        assertThat(tail.regions()).isEmpty();
+        assertThat(tail.nextOffset()).isEqualTo(70);
+        assertThat(store.read("run-1", "deploy", 0, 100)).isEmpty();
+    }
+
+    @Test
+    void testRecoverFromSegmentFiles() throws IOException {
+        store.append("run-1", "build (java=21)", "hello\n");
+        store.append("run-1", "build (java=21)", "world, this rolls over\n");
+        store.close();
+
+        store = newStore();
+
+        assertThat(text(store.read("run-1", "build (java=21)", 0, 100).orElseThrow()))
+            .isEqualTo("hello\nworld, this rolls over\n");
+        assertThat(store.append("run-1", "build (java=21)", "!")).isEqualTo(30);
+        assertThat(store.size()).isEqualTo(30);
+    }
+
+    @Test
+    void testAgeRetention() throws IOException {
+        properties.setMaxAge(Duration.ofMinutes(10));
+        store.append("run-1", "build", "0123456789abcdef");
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+        store.append("run-1", "build", "next segment");
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+
+        store.enforceRetention();
+
+        LogStore.LogSlice slice = store.read("run-1", "build", 0, 100).orElseThrow();
+        assertThat(slice.startOffset()).isEqualTo(16);
+        assertThat(text(slice)).isEqualTo("next segment");
+
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+        store.enforceRetention();
+        assertThat(store.read("run-1", "build", 0, 100)).isEmpty();
+        assertThat(store.size()).isZero();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testSizeRetentionDeletesOldestSegments() throws IOException {
+        properties.setMaxTotalSize(DataSize.ofBytes(40));
+        for (int i = 0; i < 4; i++) {
+            store.append("run-" + i, "build", "0123456789abcdef");
+            clock.incrementAndGet();
+        }
+
+        store.enforceRetention();
+
+        assertThat(store.size()).isEqualTo(32);
+        assertThat(store.read("run-0", "build", 0, 100).orElseThrow().regions()).isEmpty();
+        assertThat(store.read("run-1", "build", 0, 100).orElseThrow().regions()).isEmpty();
+        assertThat(text(store.read("run-3", "build", 0, 100).orElseThrow())).isEqualTo("0123456789abcdef");
+        // 当前段被删除后继续追加到新的日志段
+        assertThat(store.append("run-0", "build", "more")).isEqualTo(20);
+        assertThat(text(store.read("run-0", "build", 0, 100).orElseThrow())).isEqualTo("more");
+    }
+
+    @Test
+    void testChunkLimit() {
+        properties.setMaxChunkSize(DataSize.ofBytes(8));
+
+        assertThatThrownBy(() -> store.append("run-1", "build", ByteBuffer.allocate(9)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.append("run-1", " ", "x")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LogStore newStore() {
+        return new LogStore(properties, new SimpleMeterRegistry(), clock::get);
+    }
+
+    private static String expected(int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            text.append("line-").append(i).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String text(LogStore.LogSlice slice) {
+        StringBuilder text = new StringBuilder();
+        for (ByteBuffer region : slice.regions()) {
+            text.append(StandardCharsets.UTF_8.decode(region.duplicate()));
+        }
+        return text.toString();
+    }
+}
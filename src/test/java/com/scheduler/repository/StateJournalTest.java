@@ -0,0 +1,128 @@
+package com.scheduler.repository;
+
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.model.RunnerInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StateJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalProperties properties;
+    private StoreProperties storeProperties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        storeProperties = new StoreProperties();
+    }
+
+    @Test
+    void testReplayRestoresLatestState() {
+        StateJournal journal = new StateJournal(properties, new SimpleMeterRegistry());
+        BoundedStateStore<RunnerInfo> store = create(journal);
+        store.put("runner-1", runner("runner-1", RunnerInfo.RunnerStatus.ALLOCATED));
+        store.put("runner-1", runner("runner-1", RunnerInfo.RunnerStatus.CONNECTED));
+        store.put("runner-2", runner("runner-2", RunnerInfo.RunnerStatus.RELEASED));
+        // 淘汰的条目不会在恢复后重新出现
+        storeProperties.getRunners().setTtl(Duration.ZERO);
+        store.evict();
+        journal.close();
+
+        BoundedStateStore<RunnerInfo> recovered = create(new StateJournal(properties, new SimpleMeterRegistry()));
+
+        assertThat(recovered.size()).isEqualTo(1);
+        assertThat(recovered.getLive("runner-1").getStatus()).isEqualTo(RunnerInfo.RunnerStatus.CONNECTED);
+        assertThat(recovered.getLive("runner-1").getAllocatedAt()).isNotNull();
+    }
+
+    @Test
+    void testSnapshotCompactsSegments() throws IOException {
+        StateJournal journal = new StateJournal(properties, new SimpleMeterRegistry());
+        StateStores stateStores = new StateStores(storeProperties, journal, new SimpleMeterRegistry());
+        BoundedStateStore<RunnerInfo> store = stateStores.create("runners", storeProperties.getRunners(),
+            runner -> false, runner -> runner, RunnerInfo.class);
+        for (int i = 0; i < 100; i++) {
+            store.put("runner-" + i, runner("runner-" + i, RunnerInfo.RunnerStatus.ALLOCATED));
+        }
+        stateStores.compact();
+        // 快照之后的变化写入新日志段
+        store.put("runner-0", runner("runner-0", RunnerInfo.RunnerStatus.COMPLETED));
+        stateStores.dispose();
+        journal.close();
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("segment-")).hasSize(1);
+
+        BoundedStateStore<RunnerInfo> recovered = create(new StateJournal(properties, new SimpleMeterRegistry()));
+        assertThat(recovered.size()).isEqualTo(100);
+        assertThat(recovered.getLive("runner-0").getStatus()).isEqualTo(RunnerInfo.RunnerStatus.COMPLETED);
+    }
+
+    @Test
+    void testTornTailIsDiscarded() throws IOException {
+        StateJournal journal = new StateJournal(properties, new SimpleMeterRegistry());
+        BoundedStateStore<RunnerInfo> store = create(journal);
+        store.put("runner-1", runner("runner-1", RunnerInfo.RunnerStatus.ALLOCATED));
+        journal.flush();
+        store.put("runner-2", runner("runner-2", RunnerInfo.RunnerStatus.ALLOCATED));
+        journal.close();
+
+        // 破坏最后一条记录，模拟写到一半时崩溃
+        Path segment = files("segment-").get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        int last = lastRecordOffset(bytes);
+        bytes[last + 12] ^= 0x7F;
+        Files.write(segment, bytes, StandardOpenOption.TRUNCATE_EXISTING);
+
+        BoundedStateStore<RunnerInfo> recovered = create(new StateJournal(properties, new SimpleMeterRegistry()));
+        assertThat(recovered.size()).isEqualTo(1);
+        assertThat(recovered.getLive("runner-1")).isNotNull();
+    }
+
+    private BoundedStateStore<RunnerInfo> create(StateJournal journal) {
+        return new StateStores(storeProperties, journal, new SimpleMeterRegistry())
+            .create("runners", storeProperties.getRunners(),
+                runner -> runner.getStatus() == RunnerInfo.RunnerStatus.RELEASED, runner -> runner, RunnerInfo.class);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private static int lastRecordOffset(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int offset = 0;
+        int last = 0;
+        while (buffer.getInt(offset) > 0) {
+            last = offset;
+            offset += 8 + buffer.getInt(offset);
+        }
+        return last;
+    }
+
+    private static RunnerInfo runner(String runnerId, RunnerInfo.RunnerStatus status) {
+        return new RunnerInfo(runnerId, status, LocalDateTime.now(), null, null, "ubuntu-latest", null);
+    }
+}
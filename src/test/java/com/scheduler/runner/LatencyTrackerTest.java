@@ -0,0 +1,32 @@
+package com.scheduler.runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTrackerTest {
+
+    @Test
+    void testPercentileOverSlidingWindow() {
+        LatencyTracker tracker = new LatencyTracker(100, 10);
+        for (int i = 1; i <= 9; i++) {
+            tracker.record(Duration.ofMillis(i).toNanos());
+        }
+        // 样本不足
+        assertThat(tracker.percentile(0.95)).isNull();
+
+        for (int i = 10; i <= 100; i++) {
+            tracker.record(Duration.ofMillis(i).toNanos());
+        }
+        assertThat(tracker.percentile(0.95)).isEqualTo(Duration.ofMillis(95));
+        assertThat(tracker.percentile(0.5)).isEqualTo(Duration.ofMillis(50));
+
+        // 窗口滑动后旧样本不再参与统计
+        for (int i = 0; i < 100; i++) {
+            tracker.record(Duration.ofMillis(1000).toNanos());
+        }
+        assertThat(tracker.percentile(0.5)).isEqualTo(Duration.ofMillis(1000));
+    }
+}
@@ -0,0 +1,87 @@
+package com.scheduler.runner;
+
+import com.scheduler.config.ExecutionProperties;
+import com.scheduler.config.ExecutionSchedulers;
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.metrics.PhaseMetrics;
+import com.scheduler.model.RunnerInfo;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RunnerPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RunnerPool runnerPool;
+
+    @BeforeEach
+    void setUp() {
+        RunnerProperties properties = new RunnerProperties();
+        RunnerProperties.Size size = new RunnerProperties.Size();
+        size.setMinSize(2);
+        size.setMaxSize(4);
+        properties.getPool().getLabels().put("ubuntu-latest", size);
+
+        meterRegistry = new SimpleMeterRegistry();
+        runnerPool = new RunnerPool(
+            new RunnerService(
+                new ExecutionSchedulers(new ExecutionProperties(), Executors.newVirtualThreadPerTaskExecutor(), meterRegistry),
+                new RunnerProperties(),
+                new StateStores(new StoreProperties(), new StateJournal(new JournalProperties(), meterRegistry), meterRegistry),
+                new StoreProperties(), new PhaseMetrics(meterRegistry), meterRegistry),
+            properties, meterRegistry);
+    }
+
+    @Test
+    void testWarmUpFillsMinSize() {
+        runnerPool.warmUp();
+
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> runnerPool.idleCount("ubuntu-latest") == 2);
+    }
+
+    @Test
+    void testAcquireHitReturnsConnectedRunner() {
+        runnerPool.warmUp();
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> runnerPool.idleCount("ubuntu-latest") == 2);
+
+        StepVerifier.create(runnerPool.acquire("ubuntu-latest"))
+            .assertNext(runner -> assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.CONNECTED))
+            .verifyComplete();
+
+        assertThat(meterRegistry.get("scheduler.runner.pool.requests")
+            .tag("label", "ubuntu-latest").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        // 命中后补充回常驻容量
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> runnerPool.idleCount("ubuntu-latest") == 2);
+        assertThat(meterRegistry.get("scheduler.runner.pool.refill")
+            .tag("label", "ubuntu-latest").timer().count()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void testAcquireMissFallsBackAndGrowsPool() {
+        StepVerifier.create(runnerPool.acquire("windows-latest"))
+            .verifyComplete();
+
+        assertThat(meterRegistry.get("scheduler.runner.pool.requests")
+            .tag("label", "windows-latest").tag("result", "miss").counter().count()).isEqualTo(1.0);
+        // 未配置的label默认上限为0，不会扩容
+        assertThat(runnerPool.idleCount("windows-latest")).isZero();
+
+        runnerPool.acquire("ubuntu-latest").block();
+        await().atMost(Duration.ofSeconds(5))
+            .until(() -> runnerPool.idleCount("ubuntu-latest") >= 1);
+    }
+}
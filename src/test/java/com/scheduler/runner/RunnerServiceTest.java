@@ -0,0 +1,379 @@
+package com.scheduler.runner;
+
+import com.scheduler.config.ExecutionProperties;
+import com.scheduler.config.ExecutionSchedulers;
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.metrics.PhaseMetrics;
+import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerAllocateResponse;
+import com.scheduler.model.RunnerBatchAllocateResponse;
+import com.scheduler.model.RunnerInfo;
+import com.scheduler.model.RunnerPage;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RunnerServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RunnerProperties runnerProperties;
+    private StoreProperties storeProperties;
+    private StateStores stateStores;
+    private RunnerService runnerService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        runnerProperties = new RunnerProperties();
+        storeProperties = new StoreProperties();
+        stateStores = new StateStores(storeProperties, new StateJournal(new JournalProperties(), meterRegistry), meterRegistry);
+        runnerService = newRunnerService();
+    }
+
+    private RunnerService newRunnerService() {
+        return new RunnerService(
+            new ExecutionSchedulers(new ExecutionProperties(), Executors.newVirtualThreadPerTaskExecutor(), meterRegistry),
+            runnerProperties, stateStores, storeProperties, new PhaseMetrics(meterRegistry), meterRegistry);
+    }
+
+    @Test
+    void testIndexFollowsStatusChanges() {
+        String ubuntu = allocate("ubuntu-latest");
+        String windows = allocate("windows-latest");
+
+        assertThat(ids(runnerService.queryRunners("ubuntu-latest", RunnerInfo.RunnerStatus.ALLOCATED, null, 10).block()))
+            .containsExactly(ubuntu);
+
+        runnerService.connectRunner(ubuntu).block();
+
+        assertThat(runnerService.findRunner("ubuntu-latest", RunnerInfo.RunnerStatus.CONNECTED).block().getRunnerId())
+            .isEqualTo(ubuntu);
+        assertThat(runnerService.findRunner("ubuntu-latest", RunnerInfo.RunnerStatus.ALLOCATED).block()).isNull();
+        assertThat(ids(runnerService.queryRunners(null, RunnerInfo.RunnerStatus.ALLOCATED, null, 10).block()))
+            .containsExactly(windows);
+        assertThat(ids(runnerService.queryRunners("ubuntu-latest", null, null, 10).block()))
+            .containsExactly(ubuntu);
+
+        runnerService.releaseRunner(ubuntu).block();
+        assertThat(ids(runnerService.queryRunners(null, RunnerInfo.RunnerStatus.RELEASED, null, 10).block()))
+            .containsExactly(ubuntu);
+
+        // 淘汰后从索引中移除
+        storeProperties.getRunners().setTtl(Duration.ZERO);
+        stateStores.sweep();
+        assertThat(ids(runnerService.queryRunners(null, null, null, 10).block())).containsExactly(windows);
+    }
+
+    @Test
+    void testCursorPagination() {
+        Flux.range(0, 5)
+            .flatMap(i -> runnerService.allocateRunner(new RunnerAllocateRequest("ubuntu-latest", "run-1")))
+            .blockLast();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            RunnerPage page = runnerService.queryRunners("ubuntu-latest", null, cursor, 2).block();
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(5).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void testBatchAllocationPartialSuccess() {
+        List<RunnerAllocateRequest> requests = Arrays.asList(
+            new RunnerAllocateRequest("ubuntu-latest", "run-1"),
+            new RunnerAllocateRequest(null, "run-1"),
+            new RunnerAllocateRequest("windows-latest", "run-1"));
+
+        RunnerBatchAllocateResponse response = runnerService.allocateRunners(requests).block();
+
+        assertThat(response.getAllocated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResults()).extracting(RunnerBatchAllocateResponse.Result::getIndex)
+            .containsExactly(0, 1, 2);
+        assertThat(response.getResults().get(1).getError()).isEqualTo("runsOn is required");
+        assertThat(response.getResults().get(2).getRunner().getStatus()).isEqualTo(RunnerInfo.RunnerStatus.ALLOCATED);
+        assertThat(ids(runnerService.queryRunners("windows-latest", null, null, 10).block()))
+            .containsExactly(response.getResults().get(2).getRunner().getRunnerId());
+    }
+
+    @Test
+    void testBatcherMergesConcurrentRequests() {
+        RunnerService spied = spy(runnerService);
+        AllocationBatcher batcher = new AllocationBatcher(spied, 100, Duration.ofMillis(50));
+
+        List<RunnerAllocateResponse> responses = Flux.range(0, 5)
+            .flatMap(i -> batcher.allocate(new RunnerAllocateRequest("ubuntu-latest", "run-1")))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+        batcher.dispose();
+
+        assertThat(responses).extracting(RunnerAllocateResponse::getRunnerId).hasSize(5).doesNotHaveDuplicates();
+        verify(spied, times(1)).allocateRunners(anyList());
+        verify(spied, never()).allocateRunner(any());
+    }
+
+    @Test
+    void testPhaseTimeouts() {
+        runnerProperties.setAllocationTimeout(Duration.ofMillis(10));
+        StepVerifier.create(runnerService.allocateRunner(new RunnerAllocateRequest("ubuntu-latest", "run-1")))
+            .expectError(RunnerTimeoutException.class)
+            .verify(Duration.ofSeconds(5));
+        assertThat(runnerService.findRunner("ubuntu-latest", RunnerInfo.RunnerStatus.ALLOCATED).block()).isNull();
+
+        // 执行超时的Runner标记为FAILED
+        runnerProperties.setAllocationTimeout(Duration.ofSeconds(5));
+        runnerProperties.setExecutionTimeout(Duration.ofMillis(50));
+        runnerProperties.setExecutionTimeoutPerStep(Duration.ZERO);
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+
+        assertThat(runnerService.executeRunner(runnerId).block().getStatus()).isEqualTo(RunnerInfo.RunnerStatus.FAILED);
+        assertThat(runnerService.getRunnerStatus(runnerId).block().getStatus()).isEqualTo(RunnerInfo.RunnerStatus.FAILED);
+    }
+
+    @Test
+    void testStepsExecutedInOrder() {
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ofMillis(10));
+        runnerService = newRunnerService();
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+
+        RunnerInfo runner = runnerService.executeRunner(runnerId, 3).block();
+
+        assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.COMPLETED);
+        assertThat(runner.getSteps()).extracting(RunnerInfo.StepState::getIndex).containsExactly(0, 1, 2);
+        assertThat(runner.getSteps()).allMatch(step -> step.getStatus() == RunnerInfo.StepStatus.COMPLETED);
+        for (int i = 1; i < 3; i++) {
+            assertThat(runner.getSteps().get(i).getStartedAt())
+                .isAfterOrEqualTo(runner.getSteps().get(i - 1).getCompletedAt());
+        }
+    }
+
+    @Test
+    void testExecutionTimeoutGrowsWithStepCount() {
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ofMillis(10));
+        // 基础超时不足以执行完20个Step，每个Step的额外时间补足
+        runnerProperties.setExecutionTimeout(Duration.ofMillis(50));
+        runnerProperties.setExecutionTimeoutPerStep(Duration.ofMillis(50));
+        runnerService = newRunnerService();
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+
+        RunnerInfo runner = runnerService.executeRunner(runnerId, 20).block();
+
+        assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.COMPLETED);
+        assertThat(runner.getSteps()).hasSize(20).allMatch(step -> step.getStatus() == RunnerInfo.StepStatus.COMPLETED);
+    }
+
+    @Test
+    void testExecutionTimeoutFailsRunningStepAndSkipsRest() {
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ofMillis(100));
+        runnerProperties.setExecutionTimeout(Duration.ofMillis(250));
+        runnerProperties.setExecutionTimeoutPerStep(Duration.ZERO);
+        runnerService = newRunnerService();
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+
+        RunnerInfo runner = runnerService.executeRunner(runnerId, 5).block();
+
+        assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.FAILED);
+        assertThat(runner.getSteps()).extracting(RunnerInfo.StepState::getStatus).containsExactly(
+            RunnerInfo.StepStatus.COMPLETED, RunnerInfo.StepStatus.COMPLETED, RunnerInfo.StepStatus.FAILED,
+            RunnerInfo.StepStatus.SKIPPED, RunnerInfo.StepStatus.SKIPPED);
+    }
+
+    @Test
+    void testReleaseDuringExecutionAbortsSteps() {
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ofSeconds(1));
+        runnerService = newRunnerService();
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+
+        Disposable execution = runnerService.executeRunner(runnerId, 3).subscribe();
+        await().atMost(Duration.ofSeconds(1)).pollInterval(Duration.ofMillis(10)).until(() ->
+            runnerService.getRunnerStatus(runnerId).block().getStatus() == RunnerInfo.RunnerStatus.RUNNING);
+        execution.dispose();
+        runnerService.releaseRunner(runnerId).block();
+
+        RunnerInfo runner = runnerService.getRunnerStatus(runnerId).block();
+        assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(runner.getSteps()).extracting(RunnerInfo.StepState::getStatus).containsExactly(
+            RunnerInfo.StepStatus.FAILED, RunnerInfo.StepStatus.SKIPPED, RunnerInfo.StepStatus.SKIPPED);
+
+        // 已释放的Runner不会再被连接或执行改变状态
+        runnerService.connectRunner(runnerId).block();
+        assertThat(runnerService.getRunnerStatus(runnerId).block().getStatus())
+            .isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+    }
+
+    @Test
+    void testConcurrentReleaseAndExecuteKeepConsistentState() {
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ZERO);
+        runnerService = newRunnerService();
+        List<String> runnerIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String runnerId = allocate("ubuntu-latest");
+            runnerService.connectRunner(runnerId).block();
+            runnerIds.add(runnerId);
+        }
+
+        // 执行和释放并发进行，释放后的Runner不会再被执行改回其他状态
+        Flux.fromIterable(runnerIds)
+            .flatMap(runnerId -> Flux.merge(
+                runnerService.executeRunner(runnerId, 3).then(),
+                runnerService.releaseRunner(runnerId).subscribeOn(Schedulers.parallel())))
+            .blockLast(Duration.ofSeconds(10));
+
+        for (String runnerId : runnerIds) {
+            RunnerInfo runner = runnerService.getRunnerStatus(runnerId).block();
+            assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+            if (runner.getSteps() != null) {
+                assertThat(runner.getSteps()).noneMatch(step -> step.getStatus() == RunnerInfo.StepStatus.RUNNING
+                    || step.getStatus() == RunnerInfo.StepStatus.PENDING);
+            }
+        }
+        assertThat(ids(runnerService.queryRunners(null, RunnerInfo.RunnerStatus.RELEASED, null, 500).block()))
+            .hasSize(200);
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "running").gauge().value()).isZero();
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "released").gauge().value()).isEqualTo(200);
+    }
+
+    @Test
+    void testUnfinishedRunnersReleasedAfterRestart(@TempDir Path directory) {
+        JournalProperties journalProperties = new JournalProperties();
+        journalProperties.setEnabled(true);
+        journalProperties.setDirectory(directory.toString());
+        StateJournal journal = new StateJournal(journalProperties, meterRegistry);
+        stateStores = new StateStores(storeProperties, journal, meterRegistry);
+        runnerProperties.getSimulation().setExecuteDelay(Duration.ZERO);
+        runnerProperties.getSimulation().getStep().setDuration(Duration.ofSeconds(10));
+        runnerService = newRunnerService();
+        String running = allocate("ubuntu-latest");
+        runnerService.connectRunner(running).block();
+        String allocated = allocate("ubuntu-latest");
+        String released = allocate("ubuntu-latest");
+        runnerService.releaseRunner(released).block();
+
+        Disposable execution = runnerService.executeRunner(running, 3).subscribe();
+        await().atMost(Duration.ofSeconds(1)).pollInterval(Duration.ofMillis(10)).until(() -> {
+            RunnerInfo runner = runnerService.getRunnerStatus(running).block();
+            return runner.getSteps() != null && runner.getSteps().get(0).getStatus() == RunnerInfo.StepStatus.RUNNING;
+        });
+        // 模拟进程退出：执行流程随之终止
+        execution.dispose();
+        journal.close();
+
+        meterRegistry = new SimpleMeterRegistry();
+        stateStores = new StateStores(storeProperties, new StateJournal(journalProperties, meterRegistry), meterRegistry);
+        runnerService = newRunnerService();
+
+        RunnerInfo runner = runnerService.getRunnerStatus(running).block();
+        assertThat(runner.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(runner.getSteps()).extracting(RunnerInfo.StepState::getStatus).containsExactly(
+            RunnerInfo.StepStatus.FAILED, RunnerInfo.StepStatus.SKIPPED, RunnerInfo.StepStatus.SKIPPED);
+        assertThat(runnerService.getRunnerStatus(allocated).block().getStatus())
+            .isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(ids(runnerService.queryRunners(null, RunnerInfo.RunnerStatus.RELEASED, null, 10).block()))
+            .containsExactlyInAnyOrder(running, allocated, released);
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "running").gauge().value()).isZero();
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "allocated").gauge().value()).isZero();
+
+        // 进入终态后按保留时间淘汰，不再长期占用存储
+        storeProperties.getRunners().setTtl(Duration.ZERO);
+        stateStores.sweep();
+        assertThat(ids(runnerService.queryRunners(null, null, null, 10).block())).isEmpty();
+    }
+
+    @Test
+    void testPhaseMetricsTaggedByLabelAndOutcome() {
+        String runnerId = allocate("ubuntu-latest");
+        runnerService.connectRunner(runnerId).block();
+        runnerService.executeRunner(runnerId).block();
+
+        for (String phase : List.of("allocate", "connect", "execute")) {
+            assertThat(meterRegistry.get(PhaseMetrics.METRIC)
+                .tags("phase", phase, "runs_on", "ubuntu-latest", "outcome", PhaseMetrics.SUCCESS)
+                .timer().count()).isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "completed").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "allocated").gauge().value()).isZero();
+
+        // 执行超时记为timeout
+        runnerProperties.setExecutionTimeout(Duration.ofMillis(50));
+        runnerProperties.setExecutionTimeoutPerStep(Duration.ZERO);
+        String slow = allocate("ubuntu-latest");
+        runnerService.connectRunner(slow).block();
+        runnerService.executeRunner(slow).block();
+        assertThat(meterRegistry.get(PhaseMetrics.METRIC)
+            .tags("phase", "execute", "outcome", PhaseMetrics.TIMEOUT)
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("scheduler.runners").tag("status", "failed").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testHedgedAllocationKeepsSingleRunner() {
+        runnerProperties.getHedge().setEnabled(true);
+        runnerProperties.getHedge().setPercentile(0.0);
+        runnerProperties.getHedge().setWindowSize(1);
+        runnerProperties.getHedge().setMinSamples(1);
+        runnerService = newRunnerService();
+        allocate("ubuntu-latest");
+
+        List<RunnerAllocateResponse> responses = Flux.range(0, 20)
+            .flatMap(i -> runnerService.allocateRunner(new RunnerAllocateRequest("ubuntu-latest", "run-1")))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        // 每次申请只保留一个已分配的Runner，落后的一方不会遗留
+        List<String> allocated = ids(runnerService.queryRunners("ubuntu-latest",
+            RunnerInfo.RunnerStatus.ALLOCATED, null, 100).block());
+        assertThat(responses).hasSize(20);
+        assertThat(allocated).hasSize(21)
+            .containsAll(responses.stream().map(RunnerAllocateResponse::getRunnerId).toList());
+    }
+
+    private String allocate(String label) {
+        return runnerService.allocateRunner(new RunnerAllocateRequest(label, "run-1")).block().getRunnerId();
+    }
+
+    private static List<String> ids(RunnerPage page) {
+        return page.getRunners().stream().map(RunnerInfo::getRunnerId).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.scheduler.runner;
+
+import com.scheduler.model.RunnerInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunnerStateTest {
+
+    @Test
+    void testLifecycleTransitions() {
+        RunnerState allocated = RunnerState.allocated("runner-1", "ubuntu-latest", 1_000);
+        RunnerState connected = allocated.moveTo(RunnerInfo.RunnerStatus.CONNECTED, 2_000);
+        RunnerState running = connected.start(2);
+        RunnerState completed = running
+            .withStep(0, RunnerInfo.StepStatus.RUNNING, 3_000)
+            .withStep(0, RunnerInfo.StepStatus.COMPLETED, 4_000)
+            .withStep(1, RunnerInfo.StepStatus.RUNNING, 4_000)
+            .withStep(1, RunnerInfo.StepStatus.COMPLETED, 5_000)
+            .moveTo(RunnerInfo.RunnerStatus.COMPLETED, 5_000);
+        RunnerState released = completed.moveTo(RunnerInfo.RunnerStatus.RELEASED, 6_000);
+
+        assertThat(released.status()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(released.connectedAt()).isEqualTo(2_000);
+        assertThat(released.completedAt()).isEqualTo(5_000);
+        assertThat(released.stepStatus(1)).isEqualTo(RunnerInfo.StepStatus.COMPLETED);
+        // 每次变化生成新的记录，旧状态不受影响
+        assertThat(running.stepStatus(0)).isEqualTo(RunnerInfo.StepStatus.PENDING);
+        assertThat(allocated.status()).isEqualTo(RunnerInfo.RunnerStatus.ALLOCATED);
+
+        RunnerInfo info = released.toInfo();
+        assertThat(info.getStatus()).isEqualTo(RunnerInfo.RunnerStatus.RELEASED);
+        assertThat(info.getSteps()).extracting(RunnerInfo.StepState::getIndex).containsExactly(0, 1);
+        assertThat(info.getSteps().get(1).getStartedAt()).isEqualTo(info.getSteps().get(0).getCompletedAt());
+        assertThat(info.getAllocatedAt()).isBefore(info.getConnectedAt());
+    }
+
+    @Test
+    void testIllegalTransitionsRejected() {
+        RunnerState allocated = RunnerState.allocated("runner-1", "ubuntu-latest", 1_000);
+        assertThat(allocated.start(1)).isNull();
+        assertThat(allocated.moveTo(RunnerInfo.RunnerStatus.COMPLETED, 2_000)).isNull();
+        assertThat(allocated.moveTo(RunnerInfo.RunnerStatus.FAILED, 2_000)).isNull();
+
+        RunnerState released = allocated.moveTo(RunnerInfo.RunnerStatus.RELEASED, 2_000);
+        for (RunnerInfo.RunnerStatus status : RunnerInfo.RunnerStatus.values()) {
+            assertThat(RunnerState.canMove(RunnerInfo.RunnerStatus.RELEASED, status)).isFalse();
+        }
+        assertThat(released.moveTo(RunnerInfo.RunnerStatus.CONNECTED, 3_000)).isNull();
+        assertThat(released.start(1)).isNull();
+
+        // 完成的Runner可以再次执行（同一Run内复用），失败的只能释放
+        RunnerState completed = allocated.moveTo(RunnerInfo.RunnerStatus.CONNECTED, 2_000).start(0)
+            .moveTo(RunnerInfo.RunnerStatus.COMPLETED, 3_000);
+        assertThat(completed.start(1).status()).isEqualTo(RunnerInfo.RunnerStatus.RUNNING);
+        RunnerState failed = completed.start(1).moveTo(RunnerInfo.RunnerStatus.FAILED, 4_000);
+        assertThat(failed.start(1)).isNull();
+        assertThat(failed.withStep(0, RunnerInfo.StepStatus.COMPLETED, 5_000)).isNull();
+    }
+
+    @Test
+    void testReleaseAbortsUnfinishedSteps() {
+        RunnerState running = RunnerState.allocated("runner-1", "ubuntu-latest", 1_000)
+            .moveTo(RunnerInfo.RunnerStatus.CONNECTED, 2_000)
+            .start(3)
+            .withStep(0, RunnerInfo.StepStatus.RUNNING, 3_000);
+
+        RunnerState released = running.moveTo(RunnerInfo.RunnerStatus.RELEASED, 4_000);
+
+        assertThat(released.toInfo().getSteps()).extracting(RunnerInfo.StepState::getStatus).containsExactly(
+            RunnerInfo.StepStatus.FAILED, RunnerInfo.StepStatus.SKIPPED, RunnerInfo.StepStatus.SKIPPED);
+        assertThat(released.stepTimes()[1]).isEqualTo(4_000);
+    }
+}
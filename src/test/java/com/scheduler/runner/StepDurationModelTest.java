@@ -0,0 +1,86 @@
+package com.scheduler.runner;
+
+import com.scheduler.config.RunnerProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class StepDurationModelTest {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    void testFixed() {
+        RunnerProperties.StepDuration config = new RunnerProperties.StepDuration();
+        config.setDuration(Duration.ofMillis(250));
+
+        assertThat(StepDurationModel.of(config).sample()).isEqualTo(Duration.ofMillis(250));
+    }
+
+    @Test
+    void testNormalIsClampedAtZero() {
+        RunnerProperties.StepDuration config = new RunnerProperties.StepDuration();
+        config.setModel(RunnerProperties.StepDuration.Model.NORMAL);
+        config.setDuration(Duration.ofMillis(100));
+        config.setStddev(Duration.ofMillis(100));
+
+        long[] millis = samples(StepDurationModel.of(config));
+
+        assertThat(Arrays.stream(millis).min().orElseThrow()).isNotNegative();
+        assertThat(Arrays.stream(millis).average().orElseThrow()).isCloseTo(100, within(10.0));
+    }
+
+    @Test
+    void testLogNormalMedianAndCap() {
+        RunnerProperties.StepDuration config = new RunnerProperties.StepDuration();
+        config.setModel(RunnerProperties.StepDuration.Model.LOG_NORMAL);
+        config.setDuration(Duration.ofMillis(200));
+        config.setSigma(1.0);
+        config.setMax(Duration.ofSeconds(1));
+
+        long[] millis = samples(StepDurationModel.of(config));
+        Arrays.sort(millis);
+
+        assertThat((double) millis[SAMPLES / 2]).isCloseTo(200, within(20.0));
+        assertThat(millis[SAMPLES - 1]).isEqualTo(1000);
+    }
+
+    @Test
+    void testHistogramFile() {
+        RunnerProperties.StepDuration config = new RunnerProperties.StepDuration();
+        config.setModel(RunnerProperties.StepDuration.Model.HISTOGRAM);
+        config.setHistogramFile(new ClassPathResource("step-durations.txt"));
+
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long value : samples(StepDurationModel.of(config))) {
+            counts.merge(value, 1, Integer::sum);
+        }
+
+        assertThat(counts).containsOnlyKeys(50L, 2000L, 30000L);
+        assertThat(counts.get(50L) / (double) SAMPLES).isCloseTo(0.6, within(0.03));
+        assertThat(counts.get(30000L) / (double) SAMPLES).isCloseTo(0.1, within(0.03));
+    }
+
+    @Test
+    void testInvalidHistogramRejected() {
+        RunnerProperties.StepDuration config = new RunnerProperties.StepDuration();
+        config.setModel(RunnerProperties.StepDuration.Model.HISTOGRAM);
+        assertThatThrownBy(() -> StepDurationModel.of(config)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StepDurationModel.histogram(List.of(Duration.ofSeconds(1)), new long[]{0}))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] samples(StepDurationModel model) {
+        return IntStream.range(0, SAMPLES).mapToLong(i -> model.sample().toMillis()).toArray();
+    }
+}
@@ -1,32 +1,104 @@
 package com.scheduler.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scheduler.action.ActionParser;
+import com.scheduler.action.PlanCache;
+import com.scheduler.config.AdmissionProperties;
+import com.scheduler.config.FairShareProperties;
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.config.RunProperties;
+import com.scheduler.config.RunnerProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.metrics.PhaseMetrics;
 import com.scheduler.model.ActionRequest;
 import com.scheduler.model.RunResponse;
+import com.scheduler.model.RunnerAllocateRequest;
+import com.scheduler.model.RunnerAllocateResponse;
+import com.scheduler.model.RunnerBatchAllocateResponse;
+import com.scheduler.model.RunnerInfo;
+import com.scheduler.repository.LogStore;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import com.scheduler.runner.RunnerPool;
 import com.scheduler.runner.RunnerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ActionSchedulerServiceTest {
 
-    @Mock
-    private ActionParser actionParser;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ActionParser actionParser = new ActionParser();
 
     @Mock
     private RunnerService runnerService;
 
+    @Mock
+    private RunnerPool runnerPool;
+
+    @Mock
+    private LogStore logStore;
+
+    @Spy
+    private RunProperties runProperties = new RunProperties();
+
+    @Spy
+    private RunnerProperties runnerProperties = new RunnerProperties();
+
+    @Spy
+    private RunRegistry runRegistry = new RunRegistry(
+        new StateStores(new StoreProperties(), new StateJournal(new JournalProperties(), meterRegistry), meterRegistry),
+        new StoreProperties(), meterRegistry);
+
+    @Spy
+    private AdmissionController admissionController =
+        new AdmissionController(new AdmissionProperties(), new PriorityProperties(), meterRegistry);
+
+    @Spy
+    private FairShareDispatcher fairShareDispatcher =
+        new FairShareDispatcher(new FairShareProperties(), new PriorityProperties(), meterRegistry);
+
+    @Spy
+    private ConcurrencyGroups concurrencyGroups = new ConcurrencyGroups(meterRegistry);
+
+    @Spy
+    private PriorityClassifier priorityClassifier = new PriorityClassifier(new PriorityProperties());
+
+    @Spy
+    private PhaseMetrics phaseMetrics = new PhaseMetrics(meterRegistry);
+
+    @Spy
+    private PlanCache planCache = new PlanCache(new RunProperties(), new ObjectMapper(), meterRegistry);
+
     @InjectMocks
     private ActionSchedulerService actionSchedulerService;
 
@@ -51,4 +123,208 @@ class ActionSchedulerServiceTest {
         // 完整的集成测试应该在集成测试类中完成
         assertThat(actionSchedulerService).isNotNull();
     }
+
+    @Test
+    void testMatrixMaxParallel() {
+        ActionRequest.Matrix matrix = new ActionRequest.Matrix();
+        matrix.setDimension("os", List.of("ubuntu-latest", "windows-latest", "macos-latest"));
+        matrix.setDimension("java", List.of(17, 21));
+        ActionRequest.Job job = testRequest.getJobs().get("test-job");
+        job.setRunsOn("${{ matrix.os }}");
+        job.setStrategy(new ActionRequest.Strategy(matrix, 2));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        // 矩阵需要多个Runner，走批量申请
+        when(runnerService.allocateRunners(anyList())).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            List<RunnerAllocateRequest> requests = invocation.getArgument(0);
+            List<RunnerBatchAllocateResponse.Result> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                results.add(new RunnerBatchAllocateResponse.Result(i, new RunnerAllocateResponse(
+                    requests.get(i).getRunsOn(), RunnerInfo.RunnerStatus.ALLOCATED, null, null), null));
+            }
+            return new RunnerBatchAllocateResponse(results, results.size(), 0);
+        }));
+        when(runnerService.connectRunner(anyString())).thenAnswer(invocation -> Mono.just(
+            new RunnerInfo(invocation.getArgument(0), RunnerInfo.RunnerStatus.CONNECTED,
+                null, null, null, null, null)));
+        when(runnerService.executeRunner(anyString(), anyInt())).thenAnswer(invocation ->
+            Mono.delay(Duration.ofMillis(20)).map(tick -> {
+                running.decrementAndGet();
+                return new RunnerInfo(invocation.getArgument(0), RunnerInfo.RunnerStatus.COMPLETED,
+                    null, null, null, null, null);
+            }));
+        // 组合执行完的Runner在本Job结束后不再复用，随即释放
+        when(runnerService.releaseRunner(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(actionSchedulerService.parseAndSchedule(testRequest))
+            .assertNext(response -> {
+                assertThat(response.getStatus()).isEqualTo(RunResponse.RunStatus.SUCCESS);
+                assertThat(response.getRunners()).hasSize(6);
+            })
+            .verifyComplete();
+        assertThat(maxRunning.get()).isEqualTo(2);
+        verify(runnerService, never()).allocateRunner(any());
+    }
+
+    @Test
+    void testRunnerReusedBySameLabelJob() {
+        ActionRequest.Job test = new ActionRequest.Job();
+        test.setRunsOn("ubuntu-latest");
+        test.setNeeds(List.of("test-job"));
+        testRequest.getJobs().put("follow-up", test);
+
+        AtomicInteger allocated = new AtomicInteger();
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        when(runnerService.allocateRunners(anyList())).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            List<RunnerAllocateRequest> requests = invocation.getArgument(0);
+            List<RunnerBatchAllocateResponse.Result> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(new RunnerBatchAllocateResponse.Result(i, new RunnerAllocateResponse(
+                    "runner-" + allocated.incrementAndGet(), RunnerInfo.RunnerStatus.ALLOCATED, null, null), null));
+            }
+            return new RunnerBatchAllocateResponse(results, results.size(), 0);
+        }));
+        when(runnerService.connectRunner(anyString())).thenAnswer(invocation -> Mono.just(
+            new RunnerInfo(invocation.getArgument(0), RunnerInfo.RunnerStatus.CONNECTED,
+                null, null, null, "ubuntu-latest", null)));
+        when(runnerService.executeRunner(anyString(), anyInt())).thenAnswer(invocation -> Mono.just(
+            new RunnerInfo(invocation.getArgument(0), RunnerInfo.RunnerStatus.COMPLETED,
+                null, null, null, "ubuntu-latest", null)));
+
+        StepVerifier.create(actionSchedulerService.parseAndSchedule(testRequest))
+            .assertNext(response -> {
+                assertThat(response.getStatus()).isEqualTo(RunResponse.RunStatus.SUCCESS);
+                assertThat(response.getRunners()).extracting(RunnerInfo::getRunnerId)
+                    .containsExactly("runner-1", "runner-1");
+                assertThat(response.getReusedRunners()).isEqualTo(1);
+                assertThat(response.getRunnerReuseRate()).isEqualTo(0.5);
+            })
+            .verifyComplete();
+        // 后续Job直接使用前一个Job的Runner，只申请和连接一次；最后一个Job结束后不再暂存
+        assertThat(allocated.get()).isEqualTo(1);
+        verify(runnerService).connectRunner("runner-1");
+        verify(runnerService, never()).releaseRunner(anyString());
+        assertThat(meterRegistry.get("scheduler.runner.reuse.requests").tag("result", "hit").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("scheduler.run.runner.reuse").summary().mean()).isEqualTo(0.5);
+    }
+
+    @Test
+    void testSubmitReturnsBeforeRunCompletes() {
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        when(runnerService.allocateRunner(any())).thenReturn(Mono.never());
+
+        RunResponse accepted = actionSchedulerService.submit(testRequest).block(Duration.ofSeconds(1));
+
+        assertThat(accepted.getStatus()).isEqualTo(RunResponse.RunStatus.RUNNING);
+        assertThat(runRegistry.find(accepted.getRunId()))
+            .hasValueSatisfying(run -> assertThat(run.getStatus()).isEqualTo(RunResponse.RunStatus.RUNNING));
+    }
+
+    @Test
+    void testCancelReleasesHeldRunners() {
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        when(runnerService.allocateRunner(any())).thenReturn(Mono.just(new RunnerAllocateResponse(
+            "runner-1", RunnerInfo.RunnerStatus.ALLOCATED, null, null)));
+        when(runnerService.connectRunner("runner-1")).thenReturn(Mono.just(new RunnerInfo("runner-1",
+            RunnerInfo.RunnerStatus.CONNECTED, null, null, null, "ubuntu-latest", null)));
+        AtomicBoolean executionCancelled = new AtomicBoolean();
+        when(runnerService.executeRunner(anyString(), anyInt()))
+            .thenReturn(Mono.<RunnerInfo>never().doOnCancel(() -> executionCancelled.set(true)));
+        when(runnerService.releaseRunner("runner-1")).thenReturn(Mono.empty());
+        RunResponse accepted = actionSchedulerService.submit(testRequest).block(Duration.ofSeconds(1));
+
+        RunResponse cancelled = actionSchedulerService.cancel(accepted.getRunId()).block(Duration.ofSeconds(1));
+
+        assertThat(cancelled.getStatus()).isEqualTo(RunResponse.RunStatus.CANCELLED);
+        assertThat(cancelled.getEndTime()).isNotNull();
+        assertThat(executionCancelled).isTrue();
+        verify(runnerService).releaseRunner("runner-1");
+        assertThat(meterRegistry.get("scheduler.run.cancel.release").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.jobs").gauge().value()).isZero();
+
+        // 重复取消返回最终状态，不再释放
+        assertThat(actionSchedulerService.cancel(accepted.getRunId()).block().getStatus())
+            .isEqualTo(RunResponse.RunStatus.CANCELLED);
+        verify(runnerService).releaseRunner("runner-1");
+        assertThat(actionSchedulerService.cancel("run-missing").blockOptional()).isEmpty();
+    }
+
+    @Test
+    void testCancelPendingAllocation() {
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        AtomicBoolean allocationCancelled = new AtomicBoolean();
+        when(runnerService.allocateRunner(any()))
+            .thenReturn(Mono.<RunnerAllocateResponse>never().doOnCancel(() -> allocationCancelled.set(true)));
+        RunResponse accepted = actionSchedulerService.submit(testRequest).block(Duration.ofSeconds(1));
+
+        RunResponse cancelled = actionSchedulerService.cancel(accepted.getRunId()).block(Duration.ofSeconds(1));
+
+        assertThat(cancelled.getStatus()).isEqualTo(RunResponse.RunStatus.CANCELLED);
+        assertThat(allocationCancelled).isTrue();
+        verify(runnerService, never()).releaseRunner(anyString());
+    }
+
+    @Test
+    void testAdmissionCountsMatrixLegs() {
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        when(runnerService.allocateRunner(any())).thenReturn(Mono.never());
+        ActionRequest.Matrix matrix = new ActionRequest.Matrix();
+        matrix.setDimension("os", List.of("ubuntu-latest", "windows-latest", "macos-latest"));
+        matrix.setDimension("java", List.of(17, 21));
+        ActionRequest.Job job = testRequest.getJobs().get("test-job");
+        job.setRunsOn("${{ matrix.os }}");
+        job.setStrategy(new ActionRequest.Strategy(matrix, null));
+
+        RunResponse accepted = actionSchedulerService.submit(testRequest).block(Duration.ofSeconds(1));
+
+        // 一个矩阵Job按6个组合计入准入
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.jobs").gauge().value()).isEqualTo(6);
+        actionSchedulerService.cancel(accepted.getRunId()).block(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.jobs").gauge().value()).isZero();
+    }
+
+    @Test
+    void testConcurrencyGroupSupersedesRuns() {
+        when(runnerPool.acquire(anyString())).thenReturn(Mono.empty());
+        when(runnerService.allocateRunner(any())).thenReturn(Mono.just(new RunnerAllocateResponse(
+            "runner-1", RunnerInfo.RunnerStatus.ALLOCATED, null, null)));
+        when(runnerService.connectRunner("runner-1")).thenReturn(Mono.just(new RunnerInfo("runner-1",
+            RunnerInfo.RunnerStatus.CONNECTED, null, null, null, "ubuntu-latest", null)));
+        when(runnerService.executeRunner(anyString(), anyInt())).thenReturn(Mono.never());
+        when(runnerService.releaseRunner("runner-1")).thenReturn(Mono.empty());
+        testRequest.setContext(Map.of("repository", "org/repo", "ref", "refs/heads/main"));
+        testRequest.setConcurrency(new ActionRequest.Concurrency("deploy-${{ github.ref }}"));
+
+        String first = actionSchedulerService.submit(testRequest).block().getRunId();
+        String second = actionSchedulerService.submit(testRequest).block().getRunId();
+        String third = actionSchedulerService.submit(testRequest).block().getRunId();
+
+        // 等待中的Run被更新的Run取代，执行中的Run不受影响
+        assertThat(status(first)).isEqualTo(RunResponse.RunStatus.RUNNING);
+        assertThat(status(second)).isEqualTo(RunResponse.RunStatus.CANCELLED);
+        assertThat(runRegistry.find(second).orElseThrow().getMessage())
+            .isEqualTo("Run cancelled: superseded in concurrency group 'org/repo:deploy-refs/heads/main'");
+        assertThat(status(third)).isEqualTo(RunResponse.RunStatus.PENDING);
+
+        // cancel-in-progress取消执行中的Run并释放其Runner，最新的Run随后开始执行
+        testRequest.setConcurrency(new ActionRequest.Concurrency("deploy-${{ github.ref }}", true));
+        String fourth = actionSchedulerService.submit(testRequest).block().getRunId();
+
+        assertThat(status(first)).isEqualTo(RunResponse.RunStatus.CANCELLED);
+        assertThat(status(third)).isEqualTo(RunResponse.RunStatus.CANCELLED);
+        assertThat(status(fourth)).isEqualTo(RunResponse.RunStatus.RUNNING);
+        verify(runnerService).releaseRunner("runner-1");
+        assertThat(concurrencyGroups.size()).isEqualTo(1);
+
+        actionSchedulerService.cancel(fourth).block();
+        assertThat(concurrencyGroups.size()).isZero();
+    }
+
+    private RunResponse.RunStatus status(String runId) {
+        return runRegistry.find(runId).orElseThrow().getStatus();
+    }
 }
@@ -0,0 +1,89 @@
+package com.scheduler.service;
+
+import com.scheduler.config.AdmissionProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxInFlightRuns(2);
+        properties.setMaxInFlightJobs(4);
+        properties.setMaxQueuedRuns(1);
+        properties.setRetryAfter(Duration.ofSeconds(3));
+
+        meterRegistry = new SimpleMeterRegistry();
+        admissionController = new AdmissionController(properties, new PriorityProperties(), meterRegistry);
+    }
+
+    @Test
+    void testQueueAndRejectWhenFull() {
+        AdmissionController.Admission first = admissionController.enqueue(3);
+        AdmissionController.Admission second = admissionController.enqueue(2);
+
+        StepVerifier.create(first.admitted()).expectNext(first).verifyComplete();
+        // Job容量不足，第二个Run排队
+        StepVerifier.create(second.admitted()).expectSubscription().expectNoEvent(Duration.ofMillis(50)).thenCancel().verify();
+
+        assertThatThrownBy(() -> admissionController.enqueue(1))
+            .isInstanceOf(AdmissionRejectedException.class)
+            .satisfies(e -> assertThat(((AdmissionRejectedException) e).getRetryAfter()).hasSeconds(3));
+        assertThat(meterRegistry.get("scheduler.admission.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("scheduler.admission.queued").gauge().value()).isEqualTo(1.0);
+
+        first.release();
+
+        StepVerifier.create(second.admitted()).expectNext(second).verifyComplete();
+        assertThat(meterRegistry.get("scheduler.admission.queued").gauge().value()).isZero();
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.jobs").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("scheduler.admission.queue.wait").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("scheduler.admission.execution").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testQueuedRunsAdmittedByPriority() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setMaxInFlightRuns(1);
+        admissionController = new AdmissionController(properties, new PriorityProperties(), meterRegistry);
+
+        AdmissionController.Admission running = admissionController.enqueue(1);
+        AdmissionController.Admission routine = admissionController.enqueue(1, RunPriority.LOW);
+        AdmissionController.Admission hotfix = admissionController.enqueue(1, RunPriority.CRITICAL);
+
+        running.release();
+        StepVerifier.create(hotfix.admitted()).expectNext(hotfix).verifyComplete();
+        hotfix.release();
+        StepVerifier.create(routine.admitted()).expectNext(routine).verifyComplete();
+        assertThat(meterRegistry.get("scheduler.queue.time").tag("stage", "admission").tag("priority", "critical")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testOversizedRunIsCappedAndQueuedRunCanLeave() {
+        AdmissionController.Admission large = admissionController.enqueue(100);
+        StepVerifier.create(large.admitted()).expectNext(large).verifyComplete();
+
+        AdmissionController.Admission waiting = admissionController.enqueue(1);
+        waiting.release();
+        assertThat(meterRegistry.get("scheduler.admission.queued").gauge().value()).isZero();
+
+        large.release();
+        large.release();
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.runs").gauge().value()).isZero();
+        assertThat(meterRegistry.get("scheduler.admission.in.flight.jobs").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,36 @@
+package com.scheduler.service;
+
+import com.scheduler.model.RunPriority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgingQueueTest {
+
+    @Test
+    void testOlderEntriesOvertakeHigherPriority() {
+        AgingQueue<String> queue = new AgingQueue<>(Duration.ofSeconds(10));
+        long now = 1_000_000_000_000L;
+        long second = 1_000_000_000L;
+        queue.add("old-low", RunPriority.LOW, now - 25 * second);
+        queue.add("normal", RunPriority.NORMAL, now - 5 * second);
+        queue.add("high", RunPriority.HIGH, now);
+        queue.add("critical", RunPriority.CRITICAL, now);
+        queue.add("normal-2", RunPriority.NORMAL, now - 5 * second);
+
+        // old-low等待25s，相当于提升两级多，排在刚入队的HIGH之前
+        assertThat(queue.poll()).isEqualTo("critical");
+        assertThat(queue.poll()).isEqualTo("old-low");
+        assertThat(queue.poll()).isEqualTo("high");
+        assertThat(queue.remove("normal")).isTrue();
+        assertThat(queue.poll()).isEqualTo("normal-2");
+        assertThat(queue.isEmpty()).isTrue();
+
+        AgingQueue<String> strict = new AgingQueue<>(Duration.ZERO);
+        strict.add("low", RunPriority.LOW, 0);
+        strict.add("normal", RunPriority.NORMAL, now);
+        assertThat(strict.poll()).isEqualTo("normal");
+    }
+}
@@ -0,0 +1,93 @@
+package com.scheduler.service;
+
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyGroupsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyGroups groups;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        groups = new ConcurrencyGroups(meterRegistry);
+    }
+
+    @Test
+    void testNewerPendingSupersedesOlderPending() {
+        ConcurrencyGroups.Member first = groups.join("deploy", false);
+        ConcurrencyGroups.Member second = groups.join("deploy", false);
+        ConcurrencyGroups.Member third = groups.join("deploy", false);
+
+        assertThat(signalled(first.active())).isTrue();
+        assertThat(signalled(first.superseded())).isFalse();
+        assertThat(signalled(second.active())).isFalse();
+        assertThat(signalled(second.superseded())).isTrue();
+        assertThat(signalled(third.active())).isFalse();
+
+        // 被取代的成员离开不影响组内状态
+        second.release();
+        assertThat(signalled(third.active())).isFalse();
+        first.release();
+        assertThat(signalled(third.active())).isTrue();
+        assertThat(meterRegistry.get("scheduler.concurrency.superseded").tag("state", "pending").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testCancelInProgressSupersedesActive() {
+        ConcurrencyGroups.Member first = groups.join("deploy", true);
+        ConcurrencyGroups.Member second = groups.join("deploy", true);
+
+        assertThat(signalled(first.superseded())).isTrue();
+        // 执行中的成员离开前，新成员保持等待
+        assertThat(signalled(second.active())).isFalse();
+        first.release();
+        assertThat(signalled(second.active())).isTrue();
+        assertThat(meterRegistry.get("scheduler.concurrency.superseded").tag("state", "in_progress").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testIdleGroupsRemoved() {
+        ConcurrencyGroups.Member a = groups.join("a", false);
+        ConcurrencyGroups.Member b = groups.join("b", false);
+        ConcurrencyGroups.Member pending = groups.join("b", false);
+        assertThat(groups.size()).isEqualTo(2);
+        assertThat(meterRegistry.get("scheduler.concurrency.groups").gauge().value()).isEqualTo(2);
+
+        a.release();
+        a.release();
+        b.release();
+        assertThat(groups.size()).isEqualTo(1);
+        pending.release();
+        assertThat(groups.size()).isZero();
+    }
+
+    @Test
+    void testResolve() {
+        Map<String, Object> context = Map.of("repository", "org/repo", "ref", "refs/heads/main");
+
+        assertThat(ConcurrencyGroups.resolve(new ActionRequest.Concurrency("deploy-${{ github.ref }}"), context))
+            .isEqualTo("org/repo:deploy-refs/heads/main");
+        assertThat(ConcurrencyGroups.resolve(new ActionRequest.Concurrency("ci-${{ context.sha }}"), Map.of()))
+            .isEqualTo("ci-");
+        assertThat(ConcurrencyGroups.resolve(new ActionRequest.Concurrency(" "), context)).isNull();
+        assertThat(ConcurrencyGroups.resolve(null, context)).isNull();
+    }
+
+    private static boolean signalled(Mono<Void> signal) {
+        AtomicBoolean done = new AtomicBoolean();
+        signal.subscribe(null, null, () -> done.set(true)).dispose();
+        return done.get();
+    }
+}
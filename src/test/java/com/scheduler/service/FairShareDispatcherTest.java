@@ -0,0 +1,180 @@
+package com.scheduler.service;
+
+import com.scheduler.config.FairShareProperties;
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairShareDispatcherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FairShareProperties properties;
+    private FairShareDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new FairShareProperties();
+        dispatcher = new FairShareDispatcher(properties, new PriorityProperties(), meterRegistry);
+    }
+
+    @Test
+    void testWeightedRoundRobin() {
+        properties.setMaxRunners(1);
+        FairShareProperties.Share heavy = new FairShareProperties.Share();
+        heavy.setWeight(2);
+        properties.getTenants().put("org/a", heavy);
+
+        List<FairShareDispatcher.Slot> held = new ArrayList<>();
+        dispatcher.acquire("org/c").subscribe(held::add);
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            dispatcher.acquire("org/a").subscribe(slot -> {
+                order.add("a");
+                held.add(slot);
+            });
+        }
+        for (int i = 0; i < 3; i++) {
+            dispatcher.acquire("org/b").subscribe(slot -> {
+                order.add("b");
+                held.add(slot);
+            });
+        }
+        assertThat(queued("org/a")).isEqualTo(6);
+
+        // 每次只空出一个名额，按权重2:1轮转
+        for (int i = 0; i < 9; i++) {
+            held.remove(0).release();
+        }
+        assertThat(order).containsExactly("a", "a", "b", "a", "a", "b", "a", "a", "b");
+        assertThat(queued("org/a")).isZero();
+        assertThat(meterRegistry.get("scheduler.fairshare.wait").tag("tenant", "org/b").timer().count())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void testTenantLimitLeavesCapacityToOthers() {
+        properties.setMaxRunners(10);
+        properties.getDefaults().setMaxRunners(2);
+
+        List<FairShareDispatcher.Slot> a = new ArrayList<>();
+        List<FairShareDispatcher.Slot> b = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            dispatcher.acquire("org/a").subscribe(a::add);
+        }
+        for (int i = 0; i < 2; i++) {
+            dispatcher.acquire("org/b").subscribe(b::add);
+        }
+
+        assertThat(a).hasSize(2);
+        assertThat(b).hasSize(2);
+        assertThat(running("org/a")).isEqualTo(2);
+
+        a.get(0).release();
+        a.get(0).release();
+        assertThat(a).hasSize(3);
+        assertThat(running("org/a")).isEqualTo(2);
+        assertThat(queued("org/a")).isEqualTo(2);
+    }
+
+    @Test
+    void testPriorityWithinTenant() {
+        properties.setMaxRunners(1);
+        List<FairShareDispatcher.Slot> held = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        dispatcher.acquire("org/a").subscribe(held::add);
+        for (RunPriority priority : List.of(RunPriority.LOW, RunPriority.NORMAL, RunPriority.CRITICAL)) {
+            dispatcher.acquire("org/a", priority).subscribe(slot -> {
+                order.add(priority.name());
+                held.add(slot);
+            });
+        }
+
+        for (int i = 0; i < 3; i++) {
+            held.remove(0).release();
+        }
+        assertThat(order).containsExactly("CRITICAL", "NORMAL", "LOW");
+        assertThat(meterRegistry.get("scheduler.queue.time").tag("stage", "runner").tag("priority", "critical")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCancelWhileQueued() {
+        properties.setMaxRunners(1);
+        List<FairShareDispatcher.Slot> held = new ArrayList<>();
+        dispatcher.acquire("org/a").subscribe(held::add);
+        Disposable waiting = dispatcher.acquire("org/b").subscribe(held::add);
+        assertThat(queued("org/b")).isEqualTo(1);
+
+        waiting.dispose();
+        assertThat(queued("org/b")).isZero();
+
+        held.get(0).release();
+        assertThat(held).hasSize(1);
+        assertThat(running("org/a")).isZero();
+        dispatcher.acquire("org/b").subscribe(held::add);
+        assertThat(held).hasSize(2);
+    }
+
+    @Test
+    void testIdleTenantRemoved() {
+        properties.setMaxRunners(1);
+        List<FairShareDispatcher.Slot> held = new ArrayList<>();
+        dispatcher.acquire("org/a").subscribe(held::add);
+        Disposable waiting = dispatcher.acquire("org/b").subscribe(held::add);
+        for (int i = 0; i < 100; i++) {
+            dispatcher.acquire("org/c" + i).subscribe(held::add).dispose();
+        }
+        assertThat(meterRegistry.find("scheduler.fairshare.wait").timers()).hasSize(2);
+
+        // 取消排队后没有Job的租户立即移除
+        waiting.dispose();
+        assertThat(meterRegistry.find("scheduler.fairshare.queued").tag("tenant", "org/b").gauge()).isNull();
+
+        // 归还最后一个名额后租户移除，指标随之注销
+        held.remove(0).release();
+        assertThat(meterRegistry.find("scheduler.fairshare.wait").timers()).isEmpty();
+        assertThat(meterRegistry.find("scheduler.fairshare.queued").gauges()).isEmpty();
+        assertThat(meterRegistry.find("scheduler.fairshare.running").gauges()).isEmpty();
+
+        // 再次申请时重新创建
+        dispatcher.acquire("org/a").subscribe(held::add);
+        assertThat(held).hasSize(1);
+        assertThat(running("org/a")).isEqualTo(1);
+    }
+
+    @Test
+    void testTenantFromContext() {
+        assertThat(dispatcher.tenantOf(Map.of("repository", "octo/app"))).isEqualTo("octo/app");
+        assertThat(dispatcher.tenantOf(Map.of())).isEqualTo(FairShareDispatcher.DEFAULT_TENANT);
+        assertThat(dispatcher.tenantOf(null)).isEqualTo(FairShareDispatcher.DEFAULT_TENANT);
+
+        properties.setTenantKey(FairShareProperties.TenantKey.OWNER);
+        assertThat(dispatcher.tenantOf(Map.of("repository", "octo/app"))).isEqualTo("octo");
+        assertThat(dispatcher.tenantOf(Map.of("repository", "octo/app", "repository_owner", "org")))
+            .isEqualTo("org");
+    }
+
+    /**
+     * 空闲租户的指标已注销，按0计
+     */
+    private double queued(String tenant) {
+        Gauge gauge = meterRegistry.find("scheduler.fairshare.queued").tag("tenant", tenant).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+
+    private double running(String tenant) {
+        Gauge gauge = meterRegistry.find("scheduler.fairshare.running").tag("tenant", tenant).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.scheduler.service;
+
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.JobGraph;
+import com.scheduler.model.RunnerInfo;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobGraphExecutionTest {
+
+    @Test
+    void testCriticalPathFirstWhenParallelismIsScarce() {
+        // short(0 steps) 和 long(5 steps) 同时就绪，long后面还有follow
+        JobGraph graph = JobGraph.build(List.of(
+            new ActionParser.RunnerRequirement("short", "ubuntu-latest", 0),
+            new ActionParser.RunnerRequirement("long", "ubuntu-latest", 5),
+            new ActionParser.RunnerRequirement("follow", "ubuntu-latest", 1, List.of("long"))));
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        JobGraphExecution execution = new JobGraphExecution(graph, node -> {
+            started.add(node.getJobName());
+            return runner(node.getJobName(), RunnerInfo.RunnerStatus.COMPLETED);
+        }, 1);
+
+        StepVerifier.create(execution.execute())
+            .assertNext(result -> {
+                assertThat(result.runners()).hasSize(3);
+                assertThat(result.skippedJobs()).isEmpty();
+            })
+            .verifyComplete();
+        assertThat(started).containsExactly("long", "follow", "short");
+    }
+
+    @Test
+    void testDependentsOfFailedJobAreSkipped() {
+        JobGraph graph = JobGraph.build(List.of(
+            new ActionParser.RunnerRequirement("build", "ubuntu-latest", 1),
+            new ActionParser.RunnerRequirement("test", "ubuntu-latest", 1, List.of("build")),
+            new ActionParser.RunnerRequirement("deploy", "ubuntu-latest", 1, List.of("test")),
+            new ActionParser.RunnerRequirement("docs", "ubuntu-latest", 1)));
+
+        JobGraphExecution execution = new JobGraphExecution(graph, node -> runner(node.getJobName(),
+            node.getJobName().equals("build") ? RunnerInfo.RunnerStatus.FAILED : RunnerInfo.RunnerStatus.COMPLETED), 4);
+
+        StepVerifier.create(execution.execute())
+            .assertNext(result -> {
+                assertThat(result.runners()).extracting(RunnerInfo::getRunnerId)
+                    .containsExactlyInAnyOrder("build", "docs");
+                assertThat(result.skippedJobs()).containsExactly("test", "deploy");
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void testJobSkippedOnceWhenSeveralDependenciesFail() {
+        // d依赖a、b、c：a先失败，b随后成功，c最后失败；slow在c失败后才结束
+        JobGraph graph = JobGraph.build(List.of(
+            new ActionParser.RunnerRequirement("a", "ubuntu-latest", 1),
+            new ActionParser.RunnerRequirement("b", "ubuntu-latest", 1),
+            new ActionParser.RunnerRequirement("c", "ubuntu-latest", 1),
+            new ActionParser.RunnerRequirement("d", "ubuntu-latest", 1, List.of("a", "b", "c")),
+            new ActionParser.RunnerRequirement("slow", "ubuntu-latest", 1)));
+        List<String> finished = new CopyOnWriteArrayList<>();
+
+        JobGraphExecution execution = new JobGraphExecution(graph, node -> {
+            RunnerInfo.RunnerStatus status = node.getJobName().equals("b") || node.getJobName().equals("slow")
+                ? RunnerInfo.RunnerStatus.COMPLETED : RunnerInfo.RunnerStatus.FAILED;
+            long delay = switch (node.getJobName()) {
+                case "a" -> 10;
+                case "b" -> 30;
+                case "c" -> 50;
+                default -> 200;
+            };
+            return Mono.delay(Duration.ofMillis(delay))
+                .map(tick -> new RunnerInfo(node.getJobName(), status, null, null, null, null, null))
+                .doOnNext(runner -> finished.add(runner.getRunnerId()))
+                .flux();
+        }, 5);
+
+        StepVerifier.create(execution.execute())
+            .assertNext(result -> {
+                // 仍在运行的slow没有被提前结束的执行取消
+                assertThat(result.runners()).extracting(RunnerInfo::getRunnerId)
+                    .containsExactlyInAnyOrder("a", "b", "c", "slow");
+                assertThat(result.skippedJobs()).containsExactly("d");
+            })
+            .verifyComplete();
+        assertThat(finished).containsExactly("a", "b", "c", "slow");
+    }
+
+    @Test
+    void testDependentsOfCancelledJobAreSkipped() {
+        JobGraph graph = JobGraph.build(List.of(
+            new ActionParser.RunnerRequirement("build", "ubuntu-latest", 1),
+            new ActionParser.RunnerRequirement("deploy", "ubuntu-latest", 1, List.of("build")),
+            new ActionParser.RunnerRequirement("notify", "ubuntu-latest", 1, List.of("deploy")),
+            new ActionParser.RunnerRequirement("docs", "ubuntu-latest", 1)));
+
+        JobGraphExecution execution = new JobGraphExecution(graph, node -> node.getJobName().equals("deploy")
+            ? Flux.error(new JobCancelledException("superseded"))
+            : runner(node.getJobName(), RunnerInfo.RunnerStatus.COMPLETED), 4);
+
+        StepVerifier.create(execution.execute())
+            .assertNext(result -> {
+                assertThat(result.runners()).extracting(RunnerInfo::getRunnerId)
+                    .containsExactlyInAnyOrder("build", "docs");
+                assertThat(result.cancelledJobs()).containsExactly("deploy");
+                assertThat(result.skippedJobs()).containsExactly("notify");
+            })
+            .verifyComplete();
+    }
+
+    private static Flux<RunnerInfo> runner(String jobName, RunnerInfo.RunnerStatus status) {
+        return Mono.delay(Duration.ofMillis(10))
+            .map(tick -> new RunnerInfo(jobName, status, null, null, null, null, null))
+            .flux();
+    }
+}
@@ -0,0 +1,47 @@
+package com.scheduler.service;
+
+import com.scheduler.config.PriorityProperties;
+import com.scheduler.model.RunPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriorityClassifierTest {
+
+    private PriorityClassifier classifier;
+
+    @BeforeEach
+    void setUp() {
+        PriorityProperties properties = new PriorityProperties();
+        properties.getRefs().put("refs/heads/hotfix/**", RunPriority.CRITICAL);
+        properties.getRefs().put("refs/heads/release/**", RunPriority.HIGH);
+        properties.getEvents().put("pull_request", RunPriority.LOW);
+        properties.getEvents().put("release", RunPriority.HIGH);
+        classifier = new PriorityClassifier(properties);
+    }
+
+    @Test
+    void testRequestedPriorityWins() {
+        assertThat(classifier.classify(RunPriority.LOW, Map.of("ref", "refs/heads/hotfix/x")))
+            .isEqualTo(RunPriority.LOW);
+        assertThat(classifier.classify(null, Map.of("priority", "high", "event_name", "pull_request")))
+            .isEqualTo(RunPriority.HIGH);
+        assertThatThrownBy(() -> classifier.classify(null, Map.of("priority", "urgent")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDerivedFromRefAndEvent() {
+        assertThat(classifier.classify(null, Map.of("ref", "refs/heads/hotfix/login"))).isEqualTo(RunPriority.CRITICAL);
+        assertThat(classifier.classify(null, Map.of("event_name", "pull_request"))).isEqualTo(RunPriority.LOW);
+        // 多个规则匹配时取最高
+        assertThat(classifier.classify(null, Map.of("ref", "refs/heads/release/1.0", "event_name", "pull_request")))
+            .isEqualTo(RunPriority.HIGH);
+        assertThat(classifier.classify(null, Map.of("ref", "refs/heads/main"))).isEqualTo(RunPriority.NORMAL);
+        assertThat(classifier.classify(null, null)).isEqualTo(RunPriority.NORMAL);
+    }
+}
@@ -0,0 +1,64 @@
+package com.scheduler.service;
+
+import com.scheduler.config.JournalProperties;
+import com.scheduler.config.StoreProperties;
+import com.scheduler.model.RunResponse;
+import com.scheduler.repository.StateJournal;
+import com.scheduler.repository.StateStores;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RunRegistry runRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StoreProperties storeProperties = new StoreProperties();
+        runRegistry = new RunRegistry(
+            new StateStores(storeProperties, new StateJournal(new JournalProperties(), meterRegistry), meterRegistry),
+            storeProperties, meterRegistry);
+    }
+
+    @Test
+    void testConcurrentUpdatesKeepStatusCountsConsistent() {
+        RunResponse.RunStatus[] statuses = {RunResponse.RunStatus.PENDING, RunResponse.RunStatus.RUNNING};
+        // 每个Run由多个线程并发地在PENDING和RUNNING之间来回更新
+        Flux.range(0, 20_000)
+            .parallel(8)
+            .runOn(Schedulers.parallel())
+            .doOnNext(i -> runRegistry.update(run("run-" + i % 10, statuses[i / 10 % 2])))
+            .sequential()
+            .blockLast(Duration.ofSeconds(30));
+
+        assertThat(runRegistry.size()).isEqualTo(10);
+        long running = 0;
+        for (int i = 0; i < 10; i++) {
+            if (runRegistry.find("run-" + i).get().getStatus() == RunResponse.RunStatus.RUNNING) {
+                running++;
+            }
+        }
+        assertThat(count(RunResponse.RunStatus.RUNNING)).isEqualTo(running);
+        assertThat(count(RunResponse.RunStatus.PENDING)).isEqualTo(10 - running);
+    }
+
+    private long count(RunResponse.RunStatus status) {
+        return (long) meterRegistry.get("scheduler.runs").tag("status", status.name().toLowerCase()).gauge().value();
+    }
+
+    private static RunResponse run(String runId, RunResponse.RunStatus status) {
+        RunResponse response = new RunResponse();
+        response.setRunId(runId);
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,79 @@
+package com.scheduler.service;
+
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.JobGraph;
+import com.scheduler.model.RunnerInfo;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunnerHandoffTest {
+
+    private static final ActionParser.RunnerRequirement BUILD =
+        new ActionParser.RunnerRequirement("build", "ubuntu-latest", 1);
+    private static final ActionParser.RunnerRequirement LINT =
+        new ActionParser.RunnerRequirement("lint", "ubuntu-latest", 1);
+    private static final ActionParser.RunnerRequirement DEPLOY =
+        new ActionParser.RunnerRequirement("deploy", "self-hosted", 1, List.of("build"));
+
+    @Test
+    void testHandsOffToWaitingJob() {
+        RunnerHandoff handoff = new RunnerHandoff(JobGraph.build(List.of(BUILD, LINT, DEPLOY)));
+        AtomicReference<RunnerInfo> received = new AtomicReference<>();
+        handoff.await("ubuntu-latest").subscribe(received::set);
+
+        assertThat(handoff.offer(runner("runner-1"), "ubuntu-latest", BUILD)).isTrue();
+
+        assertThat(received.get().getRunnerId()).isEqualTo("runner-1");
+        assertThat(handoff.poll("ubuntu-latest")).isNull();
+    }
+
+    @Test
+    void testParksOnlyWhileLabelIsStillNeeded() {
+        RunnerHandoff handoff = new RunnerHandoff(JobGraph.build(List.of(BUILD, LINT, DEPLOY)));
+
+        // lint还未结束，build交出的Runner暂存起来
+        assertThat(handoff.offer(runner("runner-1"), "ubuntu-latest", BUILD)).isTrue();
+        assertThat(handoff.finished(BUILD)).isEmpty();
+        // 没有Job使用self-hosted
+        assertThat(handoff.offer(runner("runner-2"), "self-hosted", DEPLOY)).isFalse();
+
+        assertThat(handoff.finished(LINT)).extracting(RunnerInfo::getRunnerId).containsExactly("runner-1");
+        assertThat(handoff.drain()).isEmpty();
+    }
+
+    @Test
+    void testCancelledWaiterLeavesQueue() {
+        RunnerHandoff handoff = new RunnerHandoff(JobGraph.build(List.of(BUILD, LINT)));
+        AtomicReference<RunnerInfo> received = new AtomicReference<>();
+        Disposable waiting = handoff.await("ubuntu-latest").subscribe(received::set);
+        waiting.dispose();
+
+        assertThat(handoff.offer(runner("runner-1"), "ubuntu-latest", BUILD)).isTrue();
+
+        assertThat(received.get()).isNull();
+        assertThat(handoff.poll("ubuntu-latest").getRunnerId()).isEqualTo("runner-1");
+    }
+
+    @Test
+    void testReuseRate() {
+        RunnerHandoff handoff = new RunnerHandoff(JobGraph.build(List.of(BUILD)));
+        assertThat(handoff.reuseRate()).isZero();
+
+        handoff.record(false);
+        handoff.record(true);
+        handoff.record(true);
+        handoff.record(false);
+
+        assertThat(handoff.reused()).isEqualTo(2);
+        assertThat(handoff.reuseRate()).isEqualTo(0.5);
+    }
+
+    private static RunnerInfo runner(String runnerId) {
+        return new RunnerInfo(runnerId, RunnerInfo.RunnerStatus.COMPLETED, null, null, null, null, null);
+    }
+}
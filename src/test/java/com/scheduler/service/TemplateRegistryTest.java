@@ -0,0 +1,121 @@
+package com.scheduler.service;
+
+import com.scheduler.action.ActionParser;
+import com.scheduler.action.JobGraph;
+import com.scheduler.action.WorkflowPlan;
+import com.scheduler.config.RunProperties;
+import com.scheduler.model.ActionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TemplateRegistryTest {
+
+    private final RunProperties runProperties = new RunProperties();
+    private final TemplateRegistry registry =
+        new TemplateRegistry(new ActionParser(), runProperties, new SimpleMeterRegistry());
+
+    @Test
+    void testRegisterCompilesPlan() {
+        TemplateRegistry.Template template = registry.register(request());
+        WorkflowPlan plan = template.plan();
+
+        assertThat(registry.find(template.templateId())).containsSame(template);
+        assertThat(plan.getGraph().size()).isEqualTo(2);
+        assertThat(plan.getGraph().getNode("test").getRequirement().getNeeds()).containsExactly("build");
+        assertThat(plan.getActions()).containsExactly("actions/checkout@v4", "actions/setup-java@v4");
+        assertThatThrownBy(() -> plan.getContext().put("sha", "b")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testLabelsAndActionsInternedAcrossTemplates() {
+        WorkflowPlan first = registry.register(request()).plan();
+        WorkflowPlan second = registry.register(request()).plan();
+
+        JobGraph.Node build = first.getGraph().getNode("build");
+        assertThat(second.getGraph().getNode("build").getRequirement().getRunsOn())
+            .isSameAs(build.getRequirement().getRunsOn());
+        assertThat(second.getActions().get(0)).isSameAs(first.getActions().get(0));
+    }
+
+    @Test
+    void testContextOverridesMergedOverDefaults() {
+        WorkflowPlan plan = registry.register(request()).plan();
+
+        assertThat(plan.context(Map.of("ref", "feature")))
+            .containsEntry("repository", "org/repo")
+            .containsEntry("ref", "feature");
+        assertThat(plan.context(null)).containsEntry("ref", "main");
+    }
+
+    @Test
+    void testInvalidWorkflowAndLimitRejected() {
+        ActionRequest cyclic = request();
+        cyclic.getJobs().get("build").setNeeds(List.of("test"));
+        assertThatThrownBy(() -> registry.register(cyclic)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.size()).isZero();
+
+        runProperties.setMaxTemplates(1);
+        TemplateRegistry limited = new TemplateRegistry(new ActionParser(), runProperties, new SimpleMeterRegistry());
+        String templateId = limited.register(request()).templateId();
+        assertThatThrownBy(() -> limited.register(request())).isInstanceOf(TemplateLimitExceededException.class);
+        assertThat(limited.remove(templateId)).isTrue();
+        assertThat(limited.register(request())).isNotNull();
+    }
+
+    @Test
+    void testConcurrentRegistrationsRespectLimit() {
+        runProperties.setMaxTemplates(5);
+        TemplateRegistry limited = new TemplateRegistry(new ActionParser(), runProperties, new SimpleMeterRegistry());
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        Flux.range(0, 200)
+            .parallel(8)
+            .runOn(Schedulers.parallel())
+            .doOnNext(i -> {
+                try {
+                    limited.register(request());
+                    registered.incrementAndGet();
+                } catch (TemplateLimitExceededException e) {
+                    rejected.incrementAndGet();
+                }
+            })
+            .sequential()
+            .blockLast(Duration.ofSeconds(30));
+
+        assertThat(registered).hasValue(5);
+        assertThat(rejected).hasValue(195);
+        assertThat(limited.size()).isEqualTo(5);
+    }
+
+    private static ActionRequest request() {
+        Map<String, ActionRequest.Job> jobs = new LinkedHashMap<>();
+        ActionRequest.Job build = new ActionRequest.Job();
+        build.setRunsOn(new String("ubuntu-latest".toCharArray()));
+        build.setSteps(new ActionRequest.Step[]{
+            new ActionRequest.Step("checkout", new String("actions/checkout@v4".toCharArray()), null, null),
+            new ActionRequest.Step("java", "actions/setup-java@v4", Map.of("java-version", "21"), null),
+            new ActionRequest.Step("build", null, null, "mvn package")
+        });
+        jobs.put("build", build);
+        ActionRequest.Job test = new ActionRequest.Job();
+        test.setRunsOn("ubuntu-latest");
+        test.setNeeds(List.of("build"));
+        test.setSteps(new ActionRequest.Step[]{
+            new ActionRequest.Step("checkout", "actions/checkout@v4", null, null)
+        });
+        jobs.put("test", test);
+        return new ActionRequest("ci", jobs, Map.of("repository", "org/repo", "ref", "main"), null, null);
+    }
+}